@@ -0,0 +1,151 @@
+package com.assignment.benchmark;
+
+import com.assignment.DTO.CartItemDTO;
+import com.assignment.DTO.CartLine;
+import com.assignment.entites.Category;
+import com.assignment.entites.Product;
+import com.assignment.entites.PromoCode;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic in-memory entities for the benchmarks, so nothing needs a database.
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    public static List<Category> categories(int count) {
+        List<Category> categories = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Category category = new Category();
+            category.setId(i);
+            category.setName("Category " + i);
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    public static List<Product> products(int count, List<Category> categories) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Product product = new Product();
+            product.setId(i);
+            product.setName("Product " + i);
+            product.setSku(100 + i % 50);
+            product.setPrice(5.0 + (i % 200) * 1.25);
+            product.setImageUrl("https://cdn.example.com/products/" + i + ".png");
+            product.setActive(true);
+            product.setCategory(categories.get(i % categories.size()));
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static final String[] BRANDS = {"Acme", "Northwind", "Contoso", "Globex", "Initech", "Umbrella",
+            "Stark", "Wayne", "Tyrell", "Cyberdyne"};
+    private static final String[] ADJECTIVES = {"Classic", "Trail", "Urban", "Pro", "Ultra", "Lite", "Premium",
+            "Vintage", "Sport", "Compact", "Wireless", "Waterproof", "Thermal", "Slim", "Heavy"};
+    private static final String[] NOUNS = {"Runner", "Boot", "Sneaker", "Jacket", "Backpack", "Watch", "Headphones",
+            "Bottle", "Tent", "Lamp", "Keyboard", "Mouse", "Charger", "Blender", "Kettle", "Mug", "Chair", "Desk",
+            "Shirt", "Hoodie", "Sock", "Glove", "Helmet", "Camera", "Tripod", "Speaker", "Router", "Pillow",
+            "Blanket", "Towel"};
+
+    // Products with varied multi-word names ("Acme Trail Runner 412"), as search would see them
+    public static List<Product> namedProducts(int count, List<Category> categories) {
+        List<Product> products = products(count, categories);
+        for (Product product : products) {
+            int i = product.getId();
+            product.setName(BRANDS[i % BRANDS.length] + " " + ADJECTIVES[(i / 7) % ADJECTIVES.length] + " "
+                    + NOUNS[(i / 3) % NOUNS.length] + " " + (i % 1000));
+        }
+        return products;
+    }
+
+    // Cart store contents: one line per product, as CartStore.getLines returns them
+    public static Map<Integer, CartLine> cartLines(List<Product> products, int itemCount) {
+        Map<Integer, CartLine> lines = new LinkedHashMap<>();
+        LocalDateTime reservedUntil = LocalDateTime.now().plusMinutes(30);
+        for (int i = 0; i < itemCount; i++) {
+            Product product = products.get(i % products.size());
+            lines.put(product.getId(), new CartLine(product.getId(), 1 + i % 3, reservedUntil));
+        }
+        return lines;
+    }
+
+    public static List<CartItemDTO> cartItemDTOs(List<Product> products, int itemCount) {
+        List<CartItemDTO> items = new ArrayList<>(itemCount);
+        for (CartLine line : cartLines(products, itemCount).values()) {
+            Product product = products.get(line.getProductId() - 1);
+            items.add(new CartItemDTO(product.getId(), product.getName(), product.getPrice(),
+                    line.getQuantity(), product.getImageUrl(), product.getCategory().getId()));
+        }
+        return items;
+    }
+
+    public static PromoCode percentagePromo(double discountPercentage) {
+        PromoCode promoCode = new PromoCode();
+        promoCode.setId(1);
+        promoCode.setCode("SAVE" + (int) discountPercentage);
+        promoCode.setDiscountPercentage(discountPercentage);
+        promoCode.setMinOrderAmount(0.0);
+        promoCode.setProductSpecific(false);
+        promoCode.setActive(true);
+        promoCode.setExpiryDate(LocalDate.now().plusYears(1));
+        return promoCode;
+    }
+
+    public static PromoCode productPromo(Product product, double discountPercentage) {
+        PromoCode promoCode = percentagePromo(discountPercentage);
+        promoCode.setId(2);
+        promoCode.setCode("PRODUCT" + product.getId());
+        promoCode.setProductSpecific(true);
+        promoCode.setProduct(product);
+        return promoCode;
+    }
+
+    // Live promotions cycling through every promo type, spread over the given products and categories
+    public static List<PromoCode> mixedPromos(int count, List<Product> products, List<Category> categories) {
+        List<PromoCode> promoCodes = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            PromoCode promoCode = percentagePromo(5.0 + i % 20);
+            promoCode.setId(i);
+            promoCode.setCode("PROMO" + i);
+            Product product = products.get(i % products.size());
+            switch (i % 6) {
+                case 0 -> promoCode.setPromoType(PromoCode.PERCENTAGE);
+                case 1 -> {
+                    promoCode.setPromoType(PromoCode.PERCENTAGE);
+                    promoCode.setProductSpecific(true);
+                    promoCode.setProduct(product);
+                }
+                case 2 -> {
+                    promoCode.setPromoType(PromoCode.CATEGORY);
+                    promoCode.setCategory(categories.get(i % categories.size()));
+                }
+                case 3 -> {
+                    promoCode.setPromoType(PromoCode.FIXED_AMOUNT);
+                    promoCode.setDiscountAmount(2.5 + i % 10);
+                }
+                case 4 -> {
+                    promoCode.setPromoType(PromoCode.TIERED);
+                    promoCode.setTiers("25.0:5.0,100.0:10.0,250.0:15.0");
+                }
+                default -> {
+                    promoCode.setPromoType(PromoCode.BUY_X_GET_Y);
+                    promoCode.setProduct(product);
+                    promoCode.setBuyQuantity(2);
+                    promoCode.setFreeQuantity(1);
+                }
+            }
+            promoCodes.add(promoCode);
+        }
+        return promoCodes;
+    }
+}
@@ -0,0 +1,37 @@
+package com.assignment.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds in-memory stand-ins for Spring Data repository interfaces.
+ * <p>
+ * Only the methods listed in the answers map are implemented; anything else
+ * throws, so a benchmark can't silently measure an unexpected code path.
+ * </p>
+ */
+public final class RepositoryStandIns {
+
+    private RepositoryStandIns() {
+    }
+
+    public static <T> T standIn(Class<T> repositoryType, Map<String, Function<Object[], Object>> answers) {
+        Object proxy = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (self, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return switch (method.getName()) {
+                            case "hashCode" -> System.identityHashCode(self);
+                            case "equals" -> self == args[0];
+                            default -> repositoryType.getSimpleName() + " stand-in";
+                        };
+                    }
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(repositoryType.getSimpleName() + "." + method.getName());
+                    }
+                    return answer.apply(args);
+                });
+        return repositoryType.cast(proxy);
+    }
+}
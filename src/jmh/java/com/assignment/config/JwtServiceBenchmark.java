@@ -0,0 +1,52 @@
+package com.assignment.config;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request from its bearer token: signature check,
+ * claim parsing and the subject/expiry validation done by the JwtFilter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtServiceBenchmark {
+
+    private JWTService jwtService;
+
+    private UserDetails userDetails;
+
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtService = new JWTService();
+        userDetails = User.withUsername("alice").password("unused").authorities("ROLE_USER").build();
+    }
+
+    // Tokens expire after ten minutes, so mint a fresh one per iteration
+    @Setup(Level.Iteration)
+    public void mintToken() {
+        token = jwtService.generateToken("alice", "USER");
+    }
+
+    @Benchmark
+    public boolean parseAndValidate() {
+        Claims claims = jwtService.extractAllClaims(token);
+        return jwtService.validateToken(claims, userDetails);
+    }
+
+    @Benchmark
+    public String extractRole() {
+        return jwtService.extractRole(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("alice", "USER");
+    }
+}
@@ -0,0 +1,55 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.CartItemDTO;
+import com.assignment.DTO.CartLine;
+import com.assignment.benchmark.Fixtures;
+import com.assignment.entites.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response building behind GET /view for carts of different sizes: joining the
+ * cart store lines with their products, and serializing the result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CartViewBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int cartSize;
+
+    private Map<Integer, CartLine> lines;
+
+    private Map<Integer, Product> products;
+
+    private List<CartItemDTO> cartItems;
+
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Product> productList = Fixtures.products(cartSize, Fixtures.categories(5));
+        lines = Fixtures.cartLines(productList, cartSize);
+        products = new HashMap<>();
+        productList.forEach(product -> products.put(product.getId(), product));
+        cartItems = CartServiceImpl.toCartItemDTOs(lines, products);
+        objectMapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public List<CartItemDTO> mapCartView() {
+        return CartServiceImpl.toCartItemDTOs(lines, products);
+    }
+
+    @Benchmark
+    public byte[] serializeCartView() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(Map.of("cartItems", cartItems));
+    }
+}
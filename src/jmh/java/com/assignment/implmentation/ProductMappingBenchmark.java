@@ -0,0 +1,54 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.ProductDTO;
+import com.assignment.benchmark.Fixtures;
+import com.assignment.entites.Product;
+import com.assignment.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.assignment.benchmark.RepositoryStandIns.standIn;
+
+/**
+ * Entity-to-DTO mapping behind GET /products, and the full catalog snapshot
+ * build (mapping plus JSON serialization) on top of an in-memory repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductMappingBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int productCount;
+
+    private List<Product> products;
+
+    private ProductCatalogCache catalogCache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = Fixtures.products(productCount, Fixtures.categories(25));
+
+        catalogCache = new ProductCatalogCache();
+        catalogCache.objectMapper = new ObjectMapper();
+        catalogCache.productRepository = standIn(ProductRepository.class,
+                Map.of("findAllListedWithCategory", args -> products));
+    }
+
+    @Benchmark
+    public List<ProductDTO> mapToDTOs() {
+        return products.stream()
+                .map(ProductServiceImp::toProductDTO)
+                .toList();
+    }
+
+    @Benchmark
+    public ProductCatalogCache.Snapshot buildCatalogSnapshot() {
+        catalogCache.invalidate();
+        return catalogCache.get();
+    }
+}
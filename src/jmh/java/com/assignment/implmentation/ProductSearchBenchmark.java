@@ -0,0 +1,102 @@
+package com.assignment.implmentation;
+
+import com.assignment.benchmark.Fixtures;
+import com.assignment.entites.Category;
+import com.assignment.entites.Product;
+import com.assignment.repository.CategoryRepository;
+import com.assignment.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.assignment.benchmark.RepositoryStandIns.standIn;
+
+/**
+ * Queries against the ProductSearchIndex at catalog sizes up to a million
+ * products: whole words, a two-letter typeahead prefix (the widest expansion),
+ * and a search narrowed by category and price. Each query also counts the
+ * facets over all its matches. updateProduct measures re-indexing one renamed
+ * product, which only rewrites the posting arrays of the words that changed;
+ * renameCategory re-indexes every product of one category (a fiftieth of the
+ * catalog), rewriting each affected posting array once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int catalogSize;
+
+    private ProductSearchIndex index;
+
+    private Product renamed;
+
+    private int categoryId;
+
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Category> categories = Fixtures.categories(50);
+        List<Product> products = Fixtures.namedProducts(catalogSize, categories);
+
+        CategoryTreeCache categoryTreeCache = new CategoryTreeCache();
+        List<CategoryRepository.CategoryNode> nodes = categories.stream()
+                .map(category -> standIn(CategoryRepository.CategoryNode.class, Map.of(
+                        "getId", args -> category.getId(),
+                        "getName", args -> category.getName(),
+                        "getParentId", args -> null,
+                        "getPath", args -> "/" + category.getId() + "/",
+                        "getDepth", args -> 0,
+                        "getActiveProductCount", args -> 0)))
+                .toList();
+        categoryTreeCache.categoryRepository = standIn(CategoryRepository.class,
+                Map.of("findAllNodes", args -> nodes));
+
+        index = new ProductSearchIndex(64, 5000);
+        index.categoryTreeCache = categoryTreeCache;
+        index.productRepository = standIn(ProductRepository.class, Map.of("findListedAfter", args -> {
+            // Fixture ids are 1..n, so the batch after an id starts at that index
+            int afterId = (int) args[0];
+            Pageable pageable = (Pageable) args[1];
+            return products.subList(Math.min(afterId, products.size()),
+                    Math.min(afterId + pageable.getPageSize(), products.size()));
+        }));
+        index.load();
+
+        renamed = products.get(products.size() / 2);
+        categoryId = renamed.getCategory().getId();
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Result searchWords() {
+        return index.search("trail runner ", null, null, null, 20, null);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Result typeaheadPrefix() {
+        return index.search("acme tr", null, null, null, 20, null);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Result searchWithFilters() {
+        return index.search("waterproof bo", categoryId, 20.0, 200.0, 20, null);
+    }
+
+    @Benchmark
+    public void updateProduct() {
+        flip = !flip;
+        renamed.setName(flip ? "Globex Thermal Kettle 7" : "Globex Thermal Mug 7");
+        index.update(renamed);
+    }
+
+    @Benchmark
+    public void renameCategory() {
+        flip = !flip;
+        index.renameCategory(categoryId, flip ? "Outdoor Gear" : "Camping Supplies");
+    }
+}
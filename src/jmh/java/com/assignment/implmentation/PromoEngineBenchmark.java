@@ -0,0 +1,74 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.CartItemDTO;
+import com.assignment.DTO.PromoQuoteDTO;
+import com.assignment.benchmark.Fixtures;
+import com.assignment.entites.Category;
+import com.assignment.entites.Product;
+import com.assignment.entites.PromoCode;
+import com.assignment.repository.PromoCodeRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.assignment.benchmark.RepositoryStandIns.standIn;
+
+/**
+ * Promo evaluation from the PromoEngine: one pass to summarize the cart, then
+ * either the single code of a checkout or every live code of a quote. Promotions
+ * cycle through all types (cart and product percentage, category, fixed amount,
+ * tiered, buy-X-get-Y), so cost should grow with cart size plus promo count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PromoEngineBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int cartSize;
+
+    @Param({"1", "10", "100", "1000"})
+    public int livePromos;
+
+    private List<CartItemDTO> cartItems;
+
+    private PromoEngine promoEngine;
+
+    private String checkoutCode;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Category> categories = Fixtures.categories(5);
+        List<Product> products = Fixtures.products(Math.max(cartSize, 1), categories);
+        cartItems = Fixtures.cartItemDTOs(products, cartSize);
+        List<PromoCode> promoCodes = Fixtures.mixedPromos(livePromos, products, categories);
+
+        promoEngine = new PromoEngine();
+        promoEngine.promoCodeRepository = standIn(PromoCodeRepository.class,
+                Map.of("findAllWithProduct", args -> promoCodes));
+        promoEngine.refresh();
+        checkoutCode = promoCodes.get(promoCodes.size() - 1).getCode();
+    }
+
+    @Benchmark
+    public CartSummary summarizeCart() {
+        return CartSummary.of(cartItems, null);
+    }
+
+    // What placeOrder does: summary, index lookup, checks and discount
+    @Benchmark
+    public double checkoutDiscount() {
+        CartSummary cart = CartSummary.of(cartItems, null);
+        PromoRule rule = promoEngine.find(checkoutCode);
+        rule.rejectionReason(cart.getSubtotal(), LocalDate.now());
+        return cart.getSubtotal() - rule.discount(cart);
+    }
+
+    @Benchmark
+    public List<PromoQuoteDTO> quoteAllPromos() {
+        return promoEngine.quoteAll(CartSummary.of(cartItems, null));
+    }
+}
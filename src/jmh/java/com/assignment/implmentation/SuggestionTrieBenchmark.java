@@ -0,0 +1,85 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.SuggestionDTO;
+import com.assignment.benchmark.Fixtures;
+import com.assignment.entites.Category;
+import com.assignment.entites.Product;
+import com.assignment.repository.CategoryRepository;
+import com.assignment.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.assignment.benchmark.RepositoryStandIns.standIn;
+
+/**
+ * Typeahead lookups in the SuggestionTrie at catalog sizes up to a million
+ * products: a one-letter prefix, a multi-word prefix and input longer than the
+ * trie's key length. A lookup should cost the same at any catalog size.
+ * renameProduct measures one incremental update: removing and inserting the
+ * keys of every word of the name, copying only the nodes on their paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SuggestionTrieBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int catalogSize;
+
+    private SuggestionTrie trie;
+
+    private Product renamed;
+
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Category> categories = Fixtures.categories(50);
+        List<Product> products = Fixtures.namedProducts(catalogSize, categories);
+
+        List<CategoryRepository.CategoryNode> nodes = categories.stream()
+                .map(category -> standIn(CategoryRepository.CategoryNode.class, Map.of(
+                        "getId", args -> category.getId(),
+                        "getName", args -> category.getName())))
+                .toList();
+
+        trie = new SuggestionTrie(10, 5000);
+        trie.categoryRepository = standIn(CategoryRepository.class, Map.of("findAllNodes", args -> nodes));
+        trie.productRepository = standIn(ProductRepository.class, Map.of("findListedAfter", args -> {
+            // Fixture ids are 1..n, so the batch after an id starts at that index
+            int afterId = (int) args[0];
+            Pageable pageable = (Pageable) args[1];
+            return products.subList(Math.min(afterId, products.size()),
+                    Math.min(afterId + pageable.getPageSize(), products.size()));
+        }));
+        trie.load();
+
+        renamed = products.get(products.size() / 2);
+    }
+
+    @Benchmark
+    public List<SuggestionDTO> singleLetter() {
+        return trie.suggest("t", 10);
+    }
+
+    @Benchmark
+    public List<SuggestionDTO> multiWordPrefix() {
+        return trie.suggest("acme trail ru", 10);
+    }
+
+    @Benchmark
+    public List<SuggestionDTO> longerThanKeys() {
+        return trie.suggest("northwind waterproof blanket 4", 10);
+    }
+
+    @Benchmark
+    public void renameProduct() {
+        flip = !flip;
+        renamed.setName(flip ? "Globex Thermal Kettle 7" : "Globex Thermal Mug 7");
+        trie.update(renamed);
+    }
+}
@@ -0,0 +1,22 @@
+package com.assignment.DTO;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class CartBatchRequestDTO {
+
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 100, message = "At most 100 operations can be sent at once")
+    private List<@Valid CartOperationDTO> operations;
+
+    public List<CartOperationDTO> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<CartOperationDTO> operations) {
+        this.operations = operations;
+    }
+}
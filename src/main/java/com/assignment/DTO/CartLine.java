@@ -0,0 +1,35 @@
+package com.assignment.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * One product line held in a CartStore: the quantity in the cart and how long
+ * the matching stock reservation is held. Instances are immutable.
+ */
+public final class CartLine {
+    private final int productId;
+    private final int quantity;
+    private final LocalDateTime reservedUntil;
+
+    public CartLine(int productId, int quantity, LocalDateTime reservedUntil) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.reservedUntil = reservedUntil;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public LocalDateTime getReservedUntil() {
+        return reservedUntil;
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return reservedUntil != null && reservedUntil.isBefore(now);
+    }
+}
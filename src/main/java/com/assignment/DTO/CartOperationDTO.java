@@ -0,0 +1,43 @@
+package com.assignment.DTO;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+public class CartOperationDTO {
+
+    @NotNull(message = "Operation type is required")
+    @Pattern(regexp = "(?i)ADD|REMOVE|SET", message = "Operation type has to be ADD, REMOVE or SET")
+    private String type;
+
+    @NotNull(message = "Product id is required")
+    private Integer productId;
+
+    // Required for ADD and SET; ignored for REMOVE
+    @Min(value = 0, message = "Quantity cannot be negative")
+    private Integer quantity;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
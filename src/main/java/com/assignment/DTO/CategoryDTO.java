@@ -1,16 +1,45 @@
 package com.assignment.DTO;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
+import java.util.List;
+
 public class CategoryDTO {
 
+    private int id;
+
     @NotBlank(message = "Name is required")
     @NotEmpty(message = "Name cannot be empty")
     private String name;
 
+    // Null for a top-level category
+    private Integer parentId;
+
+    private String path;
+
+    private int depth;
+
+    // Active products directly in the category and in its whole subtree
+    private int productCount;
+
+    private int totalProductCount;
+
+    // Only set in the nested tree
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<CategoryDTO> children;
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public String getName() {
         return name;
     }
@@ -18,4 +47,52 @@ public class CategoryDTO {
     public void setName(String name) {
         this.name = name;
     }
+
+    public Integer getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Integer parentId) {
+        this.parentId = parentId;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public int getProductCount() {
+        return productCount;
+    }
+
+    public void setProductCount(int productCount) {
+        this.productCount = productCount;
+    }
+
+    public int getTotalProductCount() {
+        return totalProductCount;
+    }
+
+    public void setTotalProductCount(int totalProductCount) {
+        this.totalProductCount = totalProductCount;
+    }
+
+    public List<CategoryDTO> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<CategoryDTO> children) {
+        this.children = children;
+    }
 }
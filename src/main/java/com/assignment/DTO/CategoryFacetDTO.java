@@ -0,0 +1,29 @@
+package com.assignment.DTO;
+
+public class CategoryFacetDTO {
+
+    private int categoryId;
+
+    private String name;
+
+    // Matching products in this category
+    private int count;
+
+    public CategoryFacetDTO(int categoryId, String name, int count) {
+        this.categoryId = categoryId;
+        this.name = name;
+        this.count = count;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
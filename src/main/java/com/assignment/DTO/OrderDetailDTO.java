@@ -0,0 +1,153 @@
+package com.assignment.DTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class OrderDetailDTO {
+    private int id;
+    private String status;
+    private LocalDate orderDate;
+    private Double totalAmount;
+    private String address;
+    private String phoneNumber;
+
+    // Null when no promo code was applied
+    private String promoCode;
+    private Double discountPercentage;
+
+    // Null until the payment has been recorded
+    private String paymentMethod;
+    private Double amountPaid;
+    private LocalDate paymentDate;
+
+    // Null unless the order was cancelled
+    private LocalDateTime cancelledAt;
+
+    private List<OrderItemDTO> items;
+
+    // Constructor
+    public OrderDetailDTO(int id, String status, LocalDate orderDate, Double totalAmount,
+                          String address, String phoneNumber,
+                          String promoCode, Double discountPercentage,
+                          String paymentMethod, Double amountPaid, LocalDate paymentDate,
+                          LocalDateTime cancelledAt) {
+        this.id = id;
+        this.status = status;
+        this.orderDate = orderDate;
+        this.totalAmount = totalAmount;
+        this.address = address;
+        this.phoneNumber = phoneNumber;
+        this.promoCode = promoCode;
+        this.discountPercentage = discountPercentage;
+        this.paymentMethod = paymentMethod;
+        this.amountPaid = amountPaid;
+        this.paymentDate = paymentDate;
+        this.cancelledAt = cancelledAt;
+    }
+
+    // Getters and setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDate getOrderDate() {
+        return orderDate;
+    }
+
+    public void setOrderDate(LocalDate orderDate) {
+        this.orderDate = orderDate;
+    }
+
+    public Double getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(Double totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public void setPhoneNumber(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+
+    public String getPromoCode() {
+        return promoCode;
+    }
+
+    public void setPromoCode(String promoCode) {
+        this.promoCode = promoCode;
+    }
+
+    public Double getDiscountPercentage() {
+        return discountPercentage;
+    }
+
+    public void setDiscountPercentage(Double discountPercentage) {
+        this.discountPercentage = discountPercentage;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public Double getAmountPaid() {
+        return amountPaid;
+    }
+
+    public void setAmountPaid(Double amountPaid) {
+        this.amountPaid = amountPaid;
+    }
+
+    public LocalDate getPaymentDate() {
+        return paymentDate;
+    }
+
+    public void setPaymentDate(LocalDate paymentDate) {
+        this.paymentDate = paymentDate;
+    }
+
+    public LocalDateTime getCancelledAt() {
+        return cancelledAt;
+    }
+
+    public void setCancelledAt(LocalDateTime cancelledAt) {
+        this.cancelledAt = cancelledAt;
+    }
+
+    public List<OrderItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItemDTO> items) {
+        this.items = items;
+    }
+}
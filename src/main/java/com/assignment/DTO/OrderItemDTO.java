@@ -0,0 +1,64 @@
+package com.assignment.DTO;
+
+public class OrderItemDTO {
+    private int productId;
+    private String productName;
+    private String imageUrl;
+    // Unit price charged at checkout
+    private double price;
+    private int quantity;
+
+    // Constructor
+    public OrderItemDTO(int productId, String productName, String imageUrl, double price, int quantity) {
+        this.productId = productId;
+        this.productName = productName;
+        this.imageUrl = imageUrl;
+        this.price = price;
+        this.quantity = quantity;
+    }
+
+    public double getLineTotal() {
+        return price * quantity;
+    }
+
+    // Getters and setters
+    public int getProductId() {
+        return productId;
+    }
+
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
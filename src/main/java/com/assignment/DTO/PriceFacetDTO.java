@@ -0,0 +1,31 @@
+package com.assignment.DTO;
+
+public class PriceFacetDTO {
+
+    // Inclusive lower bound
+    private double minPrice;
+
+    // Exclusive upper bound, null for the last, open-ended range
+    private Double maxPrice;
+
+    // Matching products in this price range
+    private int count;
+
+    public PriceFacetDTO(double minPrice, Double maxPrice, int count) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.count = count;
+    }
+
+    public double getMinPrice() {
+        return minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,78 @@
+package com.assignment.DTO;
+
+public class ProductQueryDTO {
+
+    // Page size, defaults to 20
+    private Integer limit;
+
+    // Opaque keyset cursor returned as nextCursor by the previous page
+    private String cursor;
+
+    private Integer categoryId;
+
+    private Double minPrice;
+
+    private Double maxPrice;
+
+    // Defaults to true: only active, non-deleted products
+    private Boolean activeOnly;
+
+    // One of id, newest, price_asc, price_desc, name
+    private String sort;
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Boolean getActiveOnly() {
+        return activeOnly;
+    }
+
+    public void setActiveOnly(Boolean activeOnly) {
+        this.activeOnly = activeOnly;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+}
@@ -0,0 +1,68 @@
+package com.assignment.DTO;
+
+public class ProductSearchDTO {
+
+    // Words matched against product and category names; the last one may be incomplete
+    private String q;
+
+    // Restricts results to this category and its subcategories
+    private Integer categoryId;
+
+    private Double minPrice;
+
+    private Double maxPrice;
+
+    // Page size, defaults to 20
+    private Integer limit;
+
+    // Opaque cursor returned as nextCursor by the previous page
+    private String cursor;
+
+    public String getQ() {
+        return q;
+    }
+
+    public void setQ(String q) {
+        this.q = q;
+    }
+
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+}
@@ -1,18 +1,24 @@
 package com.assignment.DTO;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
+import java.util.List;
+
 public class PromoCodeDTO {
 
     @NotNull(message = "Promo code is required!")
     @Size(min = 1, max = 100, message = "Promo code must be between 1 and 100 characters")
     private String code;
 
-    @NotNull(message = "DiscountPercentage is required!")
+    // Required for PERCENTAGE and CATEGORY promotions
     @DecimalMin(value = "0.01", message = "Discount percentage must be greater than 0")
+    @DecimalMax(value = "100", message = "Discount percentage must be at most 100")
     private Double discountPercentage;
 
     @NotNull(message = "Minimum order amount is required!")
@@ -33,6 +39,38 @@ public class PromoCodeDTO {
 
     private String productName;
 
+    // Defaults to PERCENTAGE
+    @Pattern(regexp = "PERCENTAGE|CATEGORY|FIXED_AMOUNT|TIERED|BUY_X_GET_Y",
+            message = "Promo type must be one of PERCENTAGE, CATEGORY, FIXED_AMOUNT, TIERED, BUY_X_GET_Y")
+    private String promoType;
+
+    // CATEGORY: the discount applies to this category and all of its subcategories
+    private Integer categoryId;
+
+    // FIXED_AMOUNT
+    @DecimalMin(value = "0.01", message = "Discount amount must be greater than 0")
+    private Double discountAmount;
+
+    // BUY_X_GET_Y, together with productId
+    @Min(value = 1, message = "Buy quantity must be at least 1")
+    private Integer buyQuantity;
+
+    @Min(value = 1, message = "Free quantity must be at least 1")
+    private Integer freeQuantity;
+
+    // TIERED
+    @Size(max = 20, message = "At most 20 tiers are allowed")
+    private List<@Valid PromoTierDTO> tiers;
+
+    // Optional caps, unlimited when omitted
+    @Min(value = 1, message = "Maximum redemptions must be at least 1")
+    private Integer maxRedemptions;
+
+    @Min(value = 1, message = "Maximum redemptions per user must be at least 1")
+    private Integer maxRedemptionsPerUser;
+
+    private Integer redemptionCount;
+
     // Getters and setters
 
     public String getProductName() {
@@ -98,4 +136,76 @@ public class PromoCodeDTO {
     public void setExpiryDate(String expiryDate) {
         this.expiryDate = expiryDate;
     }
+
+    public Integer getMaxRedemptions() {
+        return maxRedemptions;
+    }
+
+    public void setMaxRedemptions(Integer maxRedemptions) {
+        this.maxRedemptions = maxRedemptions;
+    }
+
+    public Integer getMaxRedemptionsPerUser() {
+        return maxRedemptionsPerUser;
+    }
+
+    public void setMaxRedemptionsPerUser(Integer maxRedemptionsPerUser) {
+        this.maxRedemptionsPerUser = maxRedemptionsPerUser;
+    }
+
+    public Integer getRedemptionCount() {
+        return redemptionCount;
+    }
+
+    public void setRedemptionCount(Integer redemptionCount) {
+        this.redemptionCount = redemptionCount;
+    }
+
+    public String getPromoType() {
+        return promoType;
+    }
+
+    public void setPromoType(String promoType) {
+        this.promoType = promoType;
+    }
+
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Double getDiscountAmount() {
+        return discountAmount;
+    }
+
+    public void setDiscountAmount(Double discountAmount) {
+        this.discountAmount = discountAmount;
+    }
+
+    public Integer getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public void setBuyQuantity(Integer buyQuantity) {
+        this.buyQuantity = buyQuantity;
+    }
+
+    public Integer getFreeQuantity() {
+        return freeQuantity;
+    }
+
+    public void setFreeQuantity(Integer freeQuantity) {
+        this.freeQuantity = freeQuantity;
+    }
+
+    public List<PromoTierDTO> getTiers() {
+        return tiers;
+    }
+
+    public void setTiers(List<PromoTierDTO> tiers) {
+        this.tiers = tiers;
+    }
 }
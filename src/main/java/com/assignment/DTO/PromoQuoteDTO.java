@@ -0,0 +1,70 @@
+package com.assignment.DTO;
+
+public class PromoQuoteDTO {
+    private String code;
+    private boolean applicable;
+    // Why the code can't be used, null when applicable
+    private String message;
+    private double subtotal;
+    private double discount;
+    private double total;
+
+    // Constructor
+    public PromoQuoteDTO(String code, boolean applicable, String message, double subtotal, double discount, double total) {
+        this.code = code;
+        this.applicable = applicable;
+        this.message = message;
+        this.subtotal = subtotal;
+        this.discount = discount;
+        this.total = total;
+    }
+
+    // Getters and setters
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public boolean isApplicable() {
+        return applicable;
+    }
+
+    public void setApplicable(boolean applicable) {
+        this.applicable = applicable;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public double getSubtotal() {
+        return subtotal;
+    }
+
+    public void setSubtotal(double subtotal) {
+        this.subtotal = subtotal;
+    }
+
+    public double getDiscount() {
+        return discount;
+    }
+
+    public void setDiscount(double discount) {
+        this.discount = discount;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public void setTotal(double total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,41 @@
+package com.assignment.DTO;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+public class PromoTierDTO {
+
+    @NotNull(message = "Tier minimum order amount is required!")
+    @DecimalMin(value = "0", message = "Tier minimum order amount must not be negative")
+    private Double minOrderAmount;
+
+    @NotNull(message = "Tier discount percentage is required!")
+    @DecimalMin(value = "0.01", message = "Tier discount percentage must be greater than 0")
+    @DecimalMax(value = "100", message = "Tier discount percentage must be at most 100")
+    private Double discountPercentage;
+
+    public PromoTierDTO() {
+    }
+
+    public PromoTierDTO(Double minOrderAmount, Double discountPercentage) {
+        this.minOrderAmount = minOrderAmount;
+        this.discountPercentage = discountPercentage;
+    }
+
+    public Double getMinOrderAmount() {
+        return minOrderAmount;
+    }
+
+    public void setMinOrderAmount(Double minOrderAmount) {
+        this.minOrderAmount = minOrderAmount;
+    }
+
+    public Double getDiscountPercentage() {
+        return discountPercentage;
+    }
+
+    public void setDiscountPercentage(Double discountPercentage) {
+        this.discountPercentage = discountPercentage;
+    }
+}
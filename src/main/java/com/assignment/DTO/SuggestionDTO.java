@@ -0,0 +1,33 @@
+package com.assignment.DTO;
+
+public class SuggestionDTO {
+
+    public static final String PRODUCT = "PRODUCT";
+    public static final String CATEGORY = "CATEGORY";
+
+    private String text;
+
+    // PRODUCT or CATEGORY
+    private String type;
+
+    // Product or category ID
+    private int id;
+
+    public SuggestionDTO(String text, String type, int id) {
+        this.text = text;
+        this.type = type;
+        this.id = id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+}
@@ -1,6 +1,6 @@
 package com.assignment.DTO;
 
-import com.assignment.entites.Wallet;
+import java.math.BigDecimal;
 
 public class UserDTO {
     private int id;
@@ -10,7 +10,7 @@ public class UserDTO {
     private boolean hasWallet; // To indicate if the user has an associated wallet
     private String address;
     private String phoneNumber;
-    private double walletBalance; // Only wallet balance
+    private BigDecimal walletBalance; // Only wallet balance
 
 
     public UserDTO()
@@ -18,7 +18,7 @@ public class UserDTO {
 
     }
     // Constructor
-    public UserDTO(int id, String username, String email, String roleName, boolean hasWallet, String address, String phoneNumber, double walletBalance) {
+    public UserDTO(int id, String username, String email, String roleName, boolean hasWallet, String address, String phoneNumber, BigDecimal walletBalance) {
         this.id = id;
         this.username = username;
         this.email = email;
@@ -29,11 +29,11 @@ public class UserDTO {
         this.walletBalance = walletBalance;
     }
 
-    public double getWalletBalance() {
+    public BigDecimal getWalletBalance() {
         return walletBalance;
     }
 
-    public void setWalletBalance(double walletBalance) {
+    public void setWalletBalance(BigDecimal walletBalance) {
         this.walletBalance = walletBalance;
     }
 
@@ -0,0 +1,68 @@
+package com.assignment.config;
+
+import com.assignment.entites.User;
+import com.assignment.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CurrentUser} parameters from the authentication set up by JwtFilter.
+ * <p>
+ * The user is looked up through the principal cache at most once per request and
+ * kept as a request attribute, so services receive a ready User instead of parsing
+ * the Authorization header and querying the users table themselves. The returned
+ * entity is detached and shared; code that modifies a user should reload it first.
+ * </p>
+ */
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String CURRENT_USER_ATTRIBUTE = CurrentUserArgumentResolver.class.getName() + ".USER";
+
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class) && User.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object cached = webRequest.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached instanceof User user) {
+            return user;
+        }
+
+        User user = currentUser();
+        webRequest.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        return user;
+    }
+
+    private User currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new ResourceNotFoundException("User not found!");
+        }
+
+        // Stateful mode already carries the principal; stateless mode only has the username
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getUser();
+        }
+        try {
+            return userPrincipalCache.getPrincipal(authentication.getName()).getUser();
+        } catch (UsernameNotFoundException e) {
+            throw new ResourceNotFoundException("User not found!");
+        }
+    }
+}
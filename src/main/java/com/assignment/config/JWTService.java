@@ -1,16 +1,17 @@
 package com.assignment.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -19,15 +20,22 @@ import java.util.function.Function;
 @Service
 public class JWTService  {
 
+    // Request attribute holding the token verified for the current request
+    public static final String CLAIMS_ATTRIBUTE = JWTService.class.getName() + ".CLAIMS";
 
+    // Key and parser are immutable and thread-safe, so they are built once
+    private final SecretKey key;
 
-    private static String secretKey = "";
+    private final JwtParser jwtParser;
 
     public JWTService() {
         try {
             KeyGenerator keyGen = KeyGenerator.getInstance("HmacSHA256");
             SecretKey sk = keyGen.generateKey();
-            secretKey = Base64.getEncoder().encodeToString(sk.getEncoded());
+            key = Keys.hmacShaKeyFor(sk.getEncoded());  // Generate a SecretKey for HMAC-SHA256
+            jwtParser = Jwts.parser()
+                    .verifyWith(key)  // Set the signing key for validation
+                    .build();
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
         }
@@ -48,8 +56,7 @@ public class JWTService  {
     }
 
     public SecretKey getKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);  // Decode the key
-        return Keys.hmacShaKeyFor(keyBytes);  // Generate a SecretKey for HMAC-SHA256
+        return key;
     }
 
     public String extractUserName(String token) {
@@ -67,33 +74,61 @@ public class JWTService  {
         return claimResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()  // Use parserBuilder() to build the parser
-                .setSigningKey(getKey())  // Set the signing key for validation
-                .build()
-                .parseClaimsJws(token)  // Parse the JWT token (verify signature and extract claims)
-                .getBody();  // Get the body (claims) from the JWT
-    }
+    /**
+     * Verifies the token and returns its claims.
+     * <p>
+     * Inside a web request the verified claims are kept as a request attribute, so
+     * the filter and every service that looks at the same token share one signature
+     * check.
+     * </p>
+     *
+     * @param token The compact JWT without the "Bearer " prefix.
+     * @return The verified claims.
+     */
+    public Claims extractAllClaims(String token) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof VerifiedToken verified
+                && verified.token().equals(token)) {
+            return verified.claims();
+        }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
+        Claims claims = jwtParser.parseSignedClaims(token)  // Parse the JWT token (verify signature and extract claims)
+                .getPayload();  // Get the body (claims) from the JWT
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        if (attributes != null) {
+            attributes.setAttribute(CLAIMS_ATTRIBUTE, new VerifiedToken(token, claims), RequestAttributes.SCOPE_REQUEST);
+        }
+        return claims;
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Returns the claims verified by the JwtFilter for the current request.
+     *
+     * @return The claims, or null outside a request or for unauthenticated requests.
+     */
+    public Claims getCurrentClaims() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof VerifiedToken verified) {
+            return verified.claims();
+        }
+        return null;
     }
 
+    public boolean validateToken(String token, UserDetails userDetails) {
+        return validateToken(extractAllClaims(token), userDetails);
+    }
 
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        final String userName = claims.getSubject();
+        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(claims));
+    }
 
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
+    }
 
-
-
-
-
-
+    private record VerifiedToken(String token, Claims claims) {
+    }
 }
@@ -1,12 +1,15 @@
 package com.assignment.config;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -14,6 +17,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
@@ -22,35 +27,44 @@ public class JwtFilter extends OncePerRequestFilter {
     private JWTService jwtService;
 
     @Autowired
-    ApplicationContext context;
+    private UserPrincipalCache userPrincipalCache;
+
+    // When true, authorities come from the token's role claim alone
+    @Value("${security.jwt.stateless:true}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
 
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
-
 
-        if(authHeader!= null && authHeader.startsWith("Bearer "))
+        if(authHeader!= null && authHeader.startsWith("Bearer ") && SecurityContextHolder.getContext().getAuthentication()==null)
         {
-            token = authHeader.substring(7);
-            username = jwtService.extractUserName(token);
-        }
+            // Verified once here; services reading the same token reuse these claims
+            Claims claims = jwtService.extractAllClaims(authHeader.substring(7));
 
-        if(username!= null && SecurityContextHolder.getContext().getAuthentication()==null)
-        {
-            UserDetails userDetails = context.getBean(MyUserDetailsService.class).loadUserByUsername(username);
-//            System.out.println(userDetails.getAuthorities());
-
-            if(jwtService.validateToken(token,userDetails))
-            {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails,null,userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+            if (stateless) {
+                // Trust the verified subject and role claims; no users table lookup
+                String role = claims.get("role", String.class);
+                if (claims.getSubject() != null && role != null) {
+                    authenticate(request, claims.getSubject(), List.of(new SimpleGrantedAuthority(role)));
+                }
+            } else {
+                UserDetails userDetails = userPrincipalCache.getPrincipal(claims.getSubject());
+
+                if(jwtService.validateToken(claims,userDetails))
+                {
+                    authenticate(request, userDetails, userDetails.getAuthorities());
+                }
             }
         }
 
         filterChain.doFilter(request,response);
     }
+
+    private void authenticate(HttpServletRequest request, Object principal, Collection<? extends GrantedAuthority> authorities) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(principal,null,authorities);
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
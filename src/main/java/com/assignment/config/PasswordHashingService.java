@@ -0,0 +1,131 @@
+package com.assignment.config;
+
+import com.assignment.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated, bounded thread pool.
+ * <p>
+ * Request threads hand the work off and are released while the hash runs. When
+ * the queue is full new work is rejected with a ServiceBusyException (503)
+ * instead of piling up. The work factor is calibrated once at startup so that a
+ * single hash takes roughly the configured target time on this machine; stored
+ * hashes with a different cost are re-hashed on the next successful login.
+ * </p>
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+
+    private final int strength;
+
+    private final BCryptPasswordEncoder encoder;
+
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHashingService(@Value("${security.bcrypt.target-millis:250}") long targetMillis,
+                                  @Value("${security.bcrypt.min-strength:10}") int minStrength,
+                                  @Value("${security.bcrypt.max-strength:14}") int maxStrength,
+                                  @Value("${security.bcrypt.threads:0}") int threads,
+                                  @Value("${security.bcrypt.queue-capacity:64}") int queueCapacity) {
+        this.strength = calibrate(targetMillis, minStrength, maxStrength);
+        this.encoder = new BCryptPasswordEncoder(strength);
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("bcrypt-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        log.info("BCrypt work factor calibrated to {} ({} hashing threads)", strength, poolSize);
+    }
+
+    // Each extra cost step doubles the work, so one measurement at the minimum is enough
+    private static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode("calibration");  // warm-up
+
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        double elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000.0, 1.0);
+
+        int extraSteps = (int) Math.floor(Math.log(targetMillis / elapsedMillis) / Math.log(2));
+        return Math.max(minStrength, Math.min(maxStrength, minStrength + extraSteps));
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public BCryptPasswordEncoder getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * Hashes a raw password on the hashing pool.
+     *
+     * @param rawPassword The password to hash.
+     * @return A future completing with the encoded hash.
+     * @throws ServiceBusyException if the hashing queue is full.
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * Verifies a raw password against a stored hash on the hashing pool.
+     *
+     * @param rawPassword     The password supplied by the user.
+     * @param encodedPassword The stored BCrypt hash.
+     * @return A future completing with true if the password matches.
+     * @throws ServiceBusyException if the hashing queue is full.
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Checks whether a stored hash was produced with a lower work factor.
+     * <p>
+     * Hashes with a higher cost are kept: calibration can pick a lower cost on a
+     * slower or busier node, and downgrading a hash would only weaken it.
+     * </p>
+     *
+     * @param encodedPassword The stored BCrypt hash.
+     * @return true if it should be re-hashed with the current work factor.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceBusyException("Too many login requests, please try again shortly.");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
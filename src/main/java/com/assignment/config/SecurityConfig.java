@@ -13,7 +13,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -29,6 +28,9 @@ public class SecurityConfig {
     @Autowired
     private  JwtFilter jwtFilter;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
 
@@ -51,7 +53,7 @@ public class SecurityConfig {
     public AuthenticationProvider authenticationProvider()
     {
         DaoAuthenticationProvider provider =new DaoAuthenticationProvider();
-        provider.setPasswordEncoder(new BCryptPasswordEncoder(12));
+        provider.setPasswordEncoder(passwordHashingService.getEncoder());
         provider.setUserDetailsService(userDetailsService);
         return provider;
     }
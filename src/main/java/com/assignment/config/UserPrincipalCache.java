@@ -0,0 +1,60 @@
+package com.assignment.config;
+
+import com.assignment.entites.User;
+import com.assignment.implmentation.BoundedTtlCache;
+import com.assignment.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, short-lived cache of user principals keyed by username.
+ * <p>
+ * Entries expire after a few seconds and the least recently used entry is
+ * evicted once the cache is full, so a changed or deleted user is picked up
+ * quickly while repeated requests from the same user skip the users table.
+ * Code that changes a user should call {@link #evict(String)}.
+ * </p>
+ */
+@Component
+public class UserPrincipalCache {
+
+    @Autowired
+    UserRepository userRepository;
+
+    private final BoundedTtlCache<String, UserPrincipal> entries;
+
+    public UserPrincipalCache(@Value("${security.principal-cache.max-size:10000}") int maxSize,
+                              @Value("${security.principal-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.entries = new BoundedTtlCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    /**
+     * Returns the principal for the given username, loading it on a miss.
+     *
+     * @param username The username taken from a verified token.
+     * @return The cached or freshly loaded principal.
+     * @throws UsernameNotFoundException if no such user exists.
+     */
+    public UserPrincipal getPrincipal(String username) {
+        UserPrincipal cached = entries.get(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Load outside the lock so a slow query does not block other users
+        User user = userRepository.findByUsername(username);
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found");
+        }
+
+        UserPrincipal principal = new UserPrincipal(user);
+        entries.put(username, principal);
+        return principal;
+    }
+
+    public void evict(String username) {
+        entries.remove(username);
+    }
+}
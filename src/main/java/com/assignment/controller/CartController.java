@@ -1,9 +1,14 @@
 package com.assignment.controller;
 
+import com.assignment.DTO.CartBatchRequestDTO;
+import com.assignment.config.CurrentUser;
+import com.assignment.entites.User;
 import com.assignment.services.CartService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -15,22 +20,30 @@ public class CartController {
 
     @PostMapping("/add/{productId}/{quantity}")
     @PreAuthorize("hasAuthority('ROLE_USER')")
-    public ResponseEntity<Object> addProductToCart(@RequestHeader("Authorization") String authorizationHeader,
+    public ResponseEntity<Object> addProductToCart(@CurrentUser User user,
                                                    @PathVariable int productId,
                                                    @PathVariable int quantity) {
-        return cartService.addProductToCart(authorizationHeader, productId, quantity);
+        return cartService.addProductToCart(user, productId, quantity);
     }
 
     @DeleteMapping("/remove/{productId}")
     @PreAuthorize("hasAuthority('ROLE_USER')")
-    public ResponseEntity<Object> removeProductFromCart(@RequestHeader("Authorization") String authorizationHeader,
+    public ResponseEntity<Object> removeProductFromCart(@CurrentUser User user,
                                                         @PathVariable int productId) {
-        return cartService.removeProductFromCart(authorizationHeader, productId);
+        return cartService.removeProductFromCart(user, productId);
+    }
+
+    @PostMapping("/cart/batch")
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    public ResponseEntity<Object> applyBatch(@CurrentUser User user,
+                                             @Valid @RequestBody CartBatchRequestDTO cartBatchRequestDTO,
+                                             BindingResult bindingResult) {
+        return cartService.applyBatch(user, cartBatchRequestDTO, bindingResult);
     }
 
     @GetMapping("/view")
     @PreAuthorize("hasAuthority('ROLE_USER')")
-    public ResponseEntity<Object> viewCart(@RequestHeader("Authorization") String authorizationHeader) {
-        return cartService.viewCart(authorizationHeader);
+    public ResponseEntity<Object> viewCart(@CurrentUser User user) {
+        return cartService.viewCart(user);
     }
 }
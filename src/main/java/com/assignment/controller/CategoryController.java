@@ -22,6 +22,12 @@ public class CategoryController {
         return categoryService.findAllCategory();
     }
 
+    @GetMapping("/categories")
+    @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<Object> findCategoryTree() {
+        return categoryService.findCategoryTree();
+    }
+
     @PostMapping("/category")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     public ResponseEntity<Object> saveCategory(@Valid @RequestBody CategoryDTO categoryDTO, BindingResult bindingResult) {
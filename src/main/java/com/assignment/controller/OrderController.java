@@ -1,5 +1,8 @@
 package com.assignment.controller;
 
+import com.assignment.config.CurrentUser;
+import com.assignment.entites.User;
+import com.assignment.services.IdempotencyService;
 import com.assignment.services.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -13,29 +16,45 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping("/place/{promoCode}")
     @PreAuthorize("hasAuthority('ROLE_USER')")
-    public ResponseEntity<Object> placeOrder(@RequestHeader("Authorization") String authorizationHeader,
-                                             @PathVariable(required = false) String promoCode) {
-        return orderService.placeOrder(authorizationHeader, promoCode);
+    public ResponseEntity<Object> placeOrder(@CurrentUser User user,
+                                             @PathVariable(required = false) String promoCode,
+                                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(user.getId(), idempotencyKey, "place:" + promoCode,
+                () -> orderService.placeOrder(user, promoCode));
     }
 
     @PostMapping("/place")
     @PreAuthorize("hasAuthority('ROLE_USER')")
-    public ResponseEntity<Object> placeOrderWithoutPromo(@RequestHeader("Authorization") String authorizationHeader) {
-        return orderService.placeOrder(authorizationHeader, null);
+    public ResponseEntity<Object> placeOrderWithoutPromo(@CurrentUser User user,
+                                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(user.getId(), idempotencyKey, "place:",
+                () -> orderService.placeOrder(user, null));
     }
 
     @DeleteMapping("/cancel/{orderId}")
     @PreAuthorize("hasAuthority('ROLE_USER')")
-    public ResponseEntity<Object> cancelOrder(@RequestHeader("Authorization") String authorizationHeader,
+    public ResponseEntity<Object> cancelOrder(@CurrentUser User user,
                                               @PathVariable int orderId) {
-        return orderService.cancelOrder(authorizationHeader, orderId);
+        return orderService.cancelOrder(user, orderId);
     }
 
     @GetMapping("/history")
     @PreAuthorize("hasAuthority('ROLE_USER')")
-    public ResponseEntity<Object> getOrders(@RequestHeader("Authorization") String authorizationHeader) {
-        return orderService.getOrders(authorizationHeader);
+    public ResponseEntity<Object> getOrders(@CurrentUser User user,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String cursor) {
+        return orderService.getOrders(user, limit, cursor);
+    }
+
+    @GetMapping("/orders/{orderId}")
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    public ResponseEntity<Object> getOrder(@CurrentUser User user,
+                                           @PathVariable int orderId) {
+        return orderService.getOrder(user, orderId);
     }
 }
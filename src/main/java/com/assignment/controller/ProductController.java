@@ -1,6 +1,8 @@
 package com.assignment.controller;
 
 import com.assignment.DTO.ProductDTO;
+import com.assignment.DTO.ProductQueryDTO;
+import com.assignment.DTO.ProductSearchDTO;
 import com.assignment.services.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,8 +38,27 @@ public class ProductController {
 
     @GetMapping("/products")
     @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<Object> findAllProducts() {
-        return productService.findAllProduct();
+    public ResponseEntity<Object> findProducts(ProductQueryDTO productQueryDTO) {
+        return productService.findProducts(productQueryDTO);
+    }
+
+    @GetMapping("/products/catalog")
+    @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<Object> findAllProducts(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return productService.findAllProduct(ifNoneMatch);
+    }
+
+    @GetMapping("/products/search")
+    @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<Object> searchProducts(ProductSearchDTO productSearchDTO) {
+        return productService.searchProducts(productSearchDTO);
+    }
+
+    @GetMapping("/products/suggest")
+    @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<Object> suggestProducts(@RequestParam(value = "q", required = false) String query,
+                                                  @RequestParam(value = "limit", required = false) Integer limit) {
+        return productService.suggestProducts(query, limit);
     }
 
 
@@ -1,6 +1,8 @@
 package com.assignment.controller;
 
 import com.assignment.DTO.PromoCodeDTO;
+import com.assignment.config.CurrentUser;
+import com.assignment.entites.User;
 import com.assignment.services.PromoCodeService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,4 +29,11 @@ public class PromoCodeController {
         return promoCodeService.findAllPromoCode();
     }
 
+    @GetMapping("/promocode/quote")
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    public ResponseEntity<Object> quotePromoCodes(@CurrentUser User user,
+                                                  @RequestParam(required = false) String code) {
+        return promoCodeService.quotePromoCodes(user, code);
+    }
+
 }
@@ -4,6 +4,8 @@ import com.assignment.DTO.AddressRequestDTO;
 import com.assignment.DTO.LoginDTO;
 import com.assignment.DTO.UserDTO;
 import com.assignment.DTO.UserRegistrationDTO;
+import com.assignment.config.CurrentUser;
+import com.assignment.entites.User;
 import com.assignment.services.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +14,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @CrossOrigin("http://localhost:3000")
 public class UserController {
@@ -21,12 +25,12 @@ public class UserController {
 
 
     @PostMapping("/register")
-    public ResponseEntity<Object> register(@Valid @RequestBody UserRegistrationDTO userRegistrationDTO, BindingResult bindingResult) {
+    public CompletableFuture<ResponseEntity<Object>> register(@Valid @RequestBody UserRegistrationDTO userRegistrationDTO, BindingResult bindingResult) {
         return userService.register(userRegistrationDTO, bindingResult);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Object> login(@Valid @RequestBody LoginDTO loginDTO, BindingResult bindingResult) {
+    public CompletableFuture<ResponseEntity<Object>> login(@Valid @RequestBody LoginDTO loginDTO, BindingResult bindingResult) {
         return userService.login(loginDTO, bindingResult);
     }
 
@@ -50,25 +54,25 @@ public class UserController {
 
     @GetMapping("/profile")
     @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<Object>  getUserProfile(@RequestHeader("Authorization") String authorizationHeader) {
+    public ResponseEntity<Object>  getUserProfile(@CurrentUser User user) {
 
-        return userService.getUserProfile(authorizationHeader);
+        return userService.getUserProfile(user);
     }
     @PutMapping("/profile")
     @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
     public ResponseEntity<Object> updateUserProfile(
-            @RequestHeader("Authorization") String authorizationHeader,
+            @CurrentUser User user,
             @RequestBody UserDTO userDTO) {
 
-        return userService.updateUserProfile(authorizationHeader, userDTO);
+        return userService.updateUserProfile(user, userDTO);
     }
 
 
     @PostMapping("/address")
     @PreAuthorize("hasAuthority('ROLE_USER')")
-    public ResponseEntity<Object> updateAddress(@RequestHeader("Authorization") String authorizationHeader,
+    public ResponseEntity<Object> updateAddress(@CurrentUser User user,
                                                 @Valid @RequestBody AddressRequestDTO addressRequest,
                                                 BindingResult bindingResult) {
-        return userService.updateAddress(authorizationHeader, addressRequest, bindingResult);
+        return userService.updateAddress(user, addressRequest, bindingResult);
     }
 }
\ No newline at end of file
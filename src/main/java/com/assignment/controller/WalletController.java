@@ -9,6 +9,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.math.BigDecimal;
+
 @RestController
 @CrossOrigin
 public class WalletController {
@@ -18,7 +20,7 @@ public class WalletController {
 
     @PutMapping("/wallet/{id}/{value}")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<Object> updateWallet(@PathVariable int id, @PathVariable double value) {
+    public ResponseEntity<Object> updateWallet(@PathVariable int id, @PathVariable BigDecimal value) {
         return walletService.updateWallet(id, value);
     }
 }
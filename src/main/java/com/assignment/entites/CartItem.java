@@ -2,8 +2,10 @@ package com.assignment.entites;
 
 import jakarta.persistence.*;
 
+import java.time.LocalDateTime;
+
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", indexes = @Index(name = "idx_cart_items_reserved_until", columnList = "reserved_until"))
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 public class CartItem extends Audit {
     @Id
@@ -21,6 +23,10 @@ public class CartItem extends Audit {
     @Column(nullable = false)
     private int quantity;
 
+    // Stock held for this line is released once this passes without checkout
+    @Column(name = "reserved_until")
+    private LocalDateTime reservedUntil;
+
     public int getId() {
         return id;
     }
@@ -52,4 +58,12 @@ public class CartItem extends Audit {
     public void setQuantity(Integer quantity) {
         this.quantity = quantity;
     }
+
+    public LocalDateTime getReservedUntil() {
+        return reservedUntil;
+    }
+
+    public void setReservedUntil(LocalDateTime reservedUntil) {
+        this.reservedUntil = reservedUntil;
+    }
 }
@@ -3,7 +3,10 @@ package com.assignment.entites;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "categories")
+@Table(name = "categories", indexes = {
+        // Subtree lookups and moves match on a path prefix
+        @Index(name = "idx_categories_path", columnList = "path")
+})
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 public class Category extends Audit {
     @Id
@@ -13,6 +16,21 @@ public class Category extends Audit {
     @Column(nullable = false, unique = true)
     private String name;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "parent_id")
+    private Category parent;
+
+    // Ids from the root down to this category, e.g. "/1/4/9/"
+    @Column(name = "path")
+    private String path;
+
+    @Column(nullable = false)
+    private int depth;
+
+    // Active, not deleted products directly in this category; maintained on product writes
+    @Column(name = "active_product_count", nullable = false)
+    private int activeProductCount;
+
     public int getId() {
         return id;
     }
@@ -28,4 +46,36 @@ public class Category extends Audit {
     public void setName(String name) {
         this.name = name;
     }
+
+    public Category getParent() {
+        return parent;
+    }
+
+    public void setParent(Category parent) {
+        this.parent = parent;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public int getActiveProductCount() {
+        return activeProductCount;
+    }
+
+    public void setActiveProductCount(int activeProductCount) {
+        this.activeProductCount = activeProductCount;
+    }
 }
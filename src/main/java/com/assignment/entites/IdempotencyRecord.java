@@ -0,0 +1,93 @@
+package com.assignment.entites;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A claimed or completed Idempotency-Key, used when idempotency.database.enabled
+ * is set so replays survive restarts and are shared between instances.
+ * <p>
+ * The row is inserted as PENDING before the request runs, so the primary key
+ * lets only one instance run it, and is completed with the response afterwards.
+ * A PENDING row expires after a short lease in case its instance dies.
+ * </p>
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+
+    public static final String PENDING = "PENDING";
+    public static final String COMPLETED = "COMPLETED";
+
+    // "<user id>:<Idempotency-Key header>"
+    @Id
+    @Column(length = 300)
+    private String scopedKey;
+
+    @Column(nullable = false)
+    private String fingerprint;
+
+    @Column(nullable = false, length = 16)
+    private String status = PENDING;
+
+    @Column(nullable = false)
+    private int statusCode;
+
+    @Lob
+    @Column(nullable = false)
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    public String getScopedKey() {
+        return scopedKey;
+    }
+
+    public void setScopedKey(String scopedKey) {
+        this.scopedKey = scopedKey;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public void setResponseBody(String responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
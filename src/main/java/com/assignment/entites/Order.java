@@ -4,14 +4,19 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_history", columnList = "user_id, order_date, id"),
+        @Index(name = "idx_orders_promocode_user", columnList = "promocode_id, user_id")
+})
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 public class Order extends Audit {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private int id;
 
     @ManyToOne
@@ -28,6 +33,10 @@ public class Order extends Audit {
     @Column(nullable = false)
     private LocalDate orderDate;
 
+    // Set when the order is cancelled; orderDate keeps the day it was placed
+    @Column(name = "cancelled_at")
+    private LocalDateTime cancelledAt;
+
     @ManyToOne
     @JoinColumn(name = "promocode_id", nullable = true)
     @JsonIgnore
@@ -98,6 +107,14 @@ public class Order extends Audit {
         this.orderDate = orderDate;
     }
 
+    public LocalDateTime getCancelledAt() {
+        return cancelledAt;
+    }
+
+    public void setCancelledAt(LocalDateTime cancelledAt) {
+        this.cancelledAt = cancelledAt;
+    }
+
     public List<OrderItem> getOrderItems() {
         return orderItems;
     }
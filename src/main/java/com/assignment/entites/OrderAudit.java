@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 public class OrderAudit {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_audit_seq")
+    @SequenceGenerator(name = "order_audit_seq", sequenceName = "order_audit_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -3,7 +3,13 @@ package com.assignment.entites;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Keyset pagination: filter columns first, then the sort key and id as tie-breaker
+        @Index(name = "idx_products_active_id", columnList = "is_active, is_deleted, id"),
+        @Index(name = "idx_products_active_price", columnList = "is_active, is_deleted, price, id"),
+        @Index(name = "idx_products_active_name", columnList = "is_active, is_deleted, name, id"),
+        @Index(name = "idx_products_category_price", columnList = "category_id, is_active, is_deleted, price, id")
+})
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 public class Product extends Audit {
     @Id
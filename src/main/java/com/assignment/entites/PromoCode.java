@@ -5,9 +5,18 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "promocodes")
+@Table(name = "promocodes", indexes = {
+        @Index(name = "idx_promocodes_active_expiry", columnList = "is_active, expiry_date")
+})
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 public class PromoCode extends Audit {
+    // Promotion types; null is treated as PERCENTAGE for codes created before types existed
+    public static final String PERCENTAGE = "PERCENTAGE";
+    public static final String CATEGORY = "CATEGORY";
+    public static final String FIXED_AMOUNT = "FIXED_AMOUNT";
+    public static final String TIERED = "TIERED";
+    public static final String BUY_X_GET_Y = "BUY_X_GET_Y";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
@@ -34,6 +43,45 @@ public class PromoCode extends Audit {
     @Column(name = "expiry_date")
     private LocalDate expiryDate;
 
+    @Column(nullable = true)
+    private String promoType;
+
+    // CATEGORY: the discounted category, including its subcategories
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = true)
+    private Category category;
+
+    // FIXED_AMOUNT: amount taken off the cart
+    @Column(nullable = true)
+    private Double discountAmount;
+
+    // BUY_X_GET_Y: for every buyQuantity units of the product, freeQuantity more are free
+    @Column(nullable = true)
+    private Integer buyQuantity;
+
+    @Column(nullable = true)
+    private Integer freeQuantity;
+
+    // TIERED: "minOrderAmount:discountPercentage" pairs, comma separated, ascending
+    @Column(nullable = true, length = 500)
+    private String tiers;
+
+    // Null for no limit
+    @Column(nullable = true)
+    private Integer maxRedemptions;
+
+    // Null for no limit
+    @Column(nullable = true)
+    private Integer maxRedemptionsPerUser;
+
+    // Redemptions by placed orders, flushed periodically from the in-memory counters
+    @Column(nullable = false)
+    private int redemptionCount;
+
+    // Redemptions leased by application instances against maxRedemptions
+    @Column(nullable = false)
+    private int reservedRedemptions;
+
     public int getId() {
         return id;
     }
@@ -97,4 +145,84 @@ public class PromoCode extends Audit {
     public void setExpiryDate(LocalDate expiryDate) {
         this.expiryDate = expiryDate;
     }
+
+    public Integer getMaxRedemptions() {
+        return maxRedemptions;
+    }
+
+    public void setMaxRedemptions(Integer maxRedemptions) {
+        this.maxRedemptions = maxRedemptions;
+    }
+
+    public Integer getMaxRedemptionsPerUser() {
+        return maxRedemptionsPerUser;
+    }
+
+    public void setMaxRedemptionsPerUser(Integer maxRedemptionsPerUser) {
+        this.maxRedemptionsPerUser = maxRedemptionsPerUser;
+    }
+
+    public int getRedemptionCount() {
+        return redemptionCount;
+    }
+
+    public void setRedemptionCount(int redemptionCount) {
+        this.redemptionCount = redemptionCount;
+    }
+
+    public int getReservedRedemptions() {
+        return reservedRedemptions;
+    }
+
+    public void setReservedRedemptions(int reservedRedemptions) {
+        this.reservedRedemptions = reservedRedemptions;
+    }
+
+    public String getPromoType() {
+        return promoType;
+    }
+
+    public void setPromoType(String promoType) {
+        this.promoType = promoType;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public void setCategory(Category category) {
+        this.category = category;
+    }
+
+    public Double getDiscountAmount() {
+        return discountAmount;
+    }
+
+    public void setDiscountAmount(Double discountAmount) {
+        this.discountAmount = discountAmount;
+    }
+
+    public Integer getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public void setBuyQuantity(Integer buyQuantity) {
+        this.buyQuantity = buyQuantity;
+    }
+
+    public Integer getFreeQuantity() {
+        return freeQuantity;
+    }
+
+    public void setFreeQuantity(Integer freeQuantity) {
+        this.freeQuantity = freeQuantity;
+    }
+
+    public String getTiers() {
+        return tiers;
+    }
+
+    public void setTiers(String tiers) {
+        this.tiers = tiers;
+    }
 }
@@ -0,0 +1,78 @@
+package com.assignment.entites;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * How many times a user has redeemed a promo code with a per-user limit.
+ * <p>
+ * Checkout increments the row with a conditional UPDATE that cannot pass the
+ * limit, so the limit holds across instances: concurrent checkouts of the same
+ * user queue on the row lock and the later one sees the committed count.
+ * </p>
+ */
+@Entity
+@IdClass(PromoUserRedemption.Key.class)
+@Table(name = "promo_user_redemptions")
+public class PromoUserRedemption {
+
+    @Id
+    @Column(name = "promo_id")
+    private int promoId;
+
+    @Id
+    @Column(name = "user_id")
+    private int userId;
+
+    @Column(nullable = false)
+    private int redemptions;
+
+    public int getPromoId() {
+        return promoId;
+    }
+
+    public void setPromoId(int promoId) {
+        this.promoId = promoId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public int getRedemptions() {
+        return redemptions;
+    }
+
+    public void setRedemptions(int redemptions) {
+        this.redemptions = redemptions;
+    }
+
+    public static class Key implements Serializable {
+        private int promoId;
+        private int userId;
+
+        public Key() {
+        }
+
+        public Key(int promoId, int userId) {
+            this.promoId = promoId;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && key.promoId == promoId && key.userId == userId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(promoId, userId);
+        }
+    }
+}
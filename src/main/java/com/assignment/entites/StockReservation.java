@@ -0,0 +1,78 @@
+package com.assignment.entites;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock held for one product in one user's cart.
+ * <p>
+ * Written in the same transaction as the stock UPDATE that takes or returns the
+ * quantity, so the database always knows how much stock is held and until when,
+ * whatever the cart store has or has not persisted yet. The expiry sweep returns
+ * stock from these rows.
+ * </p>
+ */
+@Entity
+@Table(name = "stock_reservations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_reservations_user_product", columnNames = {"user_id", "product_id"}),
+        indexes = @Index(name = "idx_stock_reservations_reserved_until", columnList = "reserved_until"))
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_reservations_seq")
+    @SequenceGenerator(name = "stock_reservations_seq", sequenceName = "stock_reservations_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private int userId;
+
+    @Column(name = "product_id", nullable = false)
+    private int productId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "reserved_until", nullable = false)
+    private LocalDateTime reservedUntil;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public LocalDateTime getReservedUntil() {
+        return reservedUntil;
+    }
+
+    public void setReservedUntil(LocalDateTime reservedUntil) {
+        this.reservedUntil = reservedUntil;
+    }
+}
@@ -2,6 +2,8 @@ package com.assignment.entites;
 
 import jakarta.persistence.*;
 
+import java.math.BigDecimal;
+
 @Entity
 @Table(name = "wallets")
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
@@ -10,8 +12,9 @@ public class Wallet extends Audit {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
 
-    @Column(nullable = false)
-    private double balance;
+    // Materialized sum of the wallet ledger; only changed through conditional updates
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance = BigDecimal.ZERO;
 
     @OneToOne
     @JoinColumn(name = "user_id", nullable = false)
@@ -25,11 +28,11 @@ public class Wallet extends Audit {
         this.id = id;
     }
 
-    public Double getBalance() {
+    public BigDecimal getBalance() {
         return balance;
     }
 
-    public void setBalance(Double balance) {
+    public void setBalance(BigDecimal balance) {
         this.balance = balance;
     }
 
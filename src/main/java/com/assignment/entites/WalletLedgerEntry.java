@@ -0,0 +1,94 @@
+package com.assignment.entites;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One append-only movement on a wallet. Credits are positive and debits negative,
+ * so the wallet's materialized balance always equals the sum of its entries.
+ */
+@Entity
+@Immutable
+@Table(name = "wallet_ledger", indexes = {
+        @Index(name = "idx_wallet_ledger_wallet", columnList = "wallet_id, id")
+})
+public class WalletLedgerEntry {
+
+    public static final String TOP_UP = "TOP_UP";
+    public static final String ADJUSTMENT = "ADJUSTMENT";
+    public static final String ORDER_PAYMENT = "ORDER_PAYMENT";
+    public static final String ORDER_REFUND = "ORDER_REFUND";
+    // Balance a wallet held when the ledger was introduced
+    public static final String OPENING_BALANCE = "OPENING_BALANCE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_ledger_seq")
+    @SequenceGenerator(name = "wallet_ledger_seq", sequenceName = "wallet_ledger_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false)
+    private Wallet wallet;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 32)
+    private String entryType;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id")
+    private Order order;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Wallet getWallet() {
+        return wallet;
+    }
+
+    public void setWallet(Wallet wallet) {
+        this.wallet = wallet;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getEntryType() {
+        return entryType;
+    }
+
+    public void setEntryType(String entryType) {
+        this.entryType = entryType;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public void setOrder(Order order) {
+        this.order = order;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,60 @@
+package com.assignment.implmentation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread-safe map whose entries expire after a fixed time, evicting the least
+ * recently used entry once it holds more than a maximum number of entries.
+ * <p>
+ * Meant for small, short-lived caches in front of a single-row lookup, where a
+ * lock around a {@link LinkedHashMap} in access order is cheaper than the
+ * query it saves.
+ * </p>
+ *
+ * @param <K> The key type.
+ * @param <V> The cached value type.
+ */
+public final class BoundedTtlCache<K, V> {
+
+    private final long ttlMillis;
+
+    private final Map<K, Entry<V>> entries;
+
+    public BoundedTtlCache(int maxSize, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return The value stored under the key, or null if it is missing or expired.
+     */
+    public V get(K key) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            return entry != null && entry.expiresAt > now ? entry.value : null;
+        }
+    }
+
+    public void put(K key, V value) {
+        Entry<V> entry = new Entry<>(value, System.currentTimeMillis() + ttlMillis);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    public void remove(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
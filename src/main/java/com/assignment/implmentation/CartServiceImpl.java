@@ -1,120 +1,79 @@
 package com.assignment.implmentation;
 
-import com.assignment.config.JWTService;
-import com.assignment.entites.Cart;
-import com.assignment.entites.CartItem;
+import com.assignment.DTO.CartBatchRequestDTO;
+import com.assignment.DTO.CartItemDTO;
+import com.assignment.DTO.CartLine;
+import com.assignment.DTO.CartOperationDTO;
 import com.assignment.entites.Product;
 import com.assignment.entites.User;
 import com.assignment.exception.InvalidDataException;
 import com.assignment.exception.ResourceNotFoundException;
-import com.assignment.repository.CartItemRepository;
-import com.assignment.repository.CartRepository;
 import com.assignment.repository.ProductRepository;
-import com.assignment.repository.UserRepository;
 import com.assignment.services.CartService;
+import com.assignment.services.CartStore;
+import com.assignment.services.InventoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.BindingResult;
 
-
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.time.LocalDateTime;
+import java.util.*;
 
 /**
  * Implementation of the CartService interface.
  * This class provides functionality for adding and removing products from a user's cart.
+ * <p>
+ * Cart contents are kept in the configured CartStore; the only database work on
+ * add and remove is the guarded stock UPDATE and the matching reservation row
+ * written by the InventoryService. The cart store change is undone if that
+ * transaction does not commit.
+ * </p>
  */
 @Service
 public class CartServiceImpl implements CartService {
-    @Autowired
-    private CartRepository cartRepository;
 
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
-    private CartItemRepository cartItemRepository;
-
-    @Autowired
-    private JWTService jwtService;
+    private CartStore cartStore;
 
     @Autowired
-    private UserRepository userRepository;
+    private InventoryService inventoryService;
 
 
     /**
      * Adds a product to the user's cart.
      * If the product is already present in the cart, its quantity is updated.
-     * Otherwise, a new CartItem is created and added to the cart.
+     * Otherwise, a new line is added to the cart. The quantity is reserved from
+     * stock until the line's reservation expires.
      *
-     * @param authorizationHeader The JWT token passed in the Authorization header.
+     * @param user                The authenticated user.
      * @param productId           The ID of the product to be added to the cart.
      * @param quantity            The quantity of the product to be added.
      * @return ResponseEntity with a success message indicating whether the product
      * was added or its quantity was updated.
-     * @throws ResourceNotFoundException if the user, product, or cart is not found.
+     * @throws ResourceNotFoundException if the product is not found.
      * @throws InvalidDataException      if the product is inactive or if there is
      *                                   insufficient stock.
      */
     @Override
-    public ResponseEntity<Object> addProductToCart(String authorizationHeader, int productId, int quantity) {
-
-
-        String token = authorizationHeader.replace("Bearer ", "");
-
-        String username = jwtService.extractUserName(token);
-        User currentUser = userRepository.findByUsername(username);
-
-        // Fetch user and product
-        User user = userRepository.findById(currentUser.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found!"));
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found!"));
-
-        // Check if product is active
-        if (!product.getActive()) {
-            throw new InvalidDataException("This product is no longer available.");
-        }
-
-        // Check stock availability
-        int availableStock = product.getSku();
-        if (availableStock < quantity) {
-            throw new InvalidDataException("Not enough stock available for this product.");
-        }
+    @Transactional
+    public ResponseEntity<Object> addProductToCart(User user, int productId, int quantity) {
 
-        // Deduct the quantity from the stock
-        product.setSku(availableStock - quantity);
+        // Reserve the stock first; this also checks that the product exists and is active
+        int userId = user.getId();
+        LocalDateTime reservedUntil = inventoryService.reserveStock(userId, productId, quantity);
 
-        // Save the updated product back to the repository to reflect the new stock
-        productRepository.save(product);
-
-        // Get user's cart
-        Cart cart = cartRepository.findByUser(user);
-        if (cart == null) {
-            throw new ResourceNotFoundException("Cart not found for the user!");
-        }
-
-        // Check if the product already exists in the cart
-        Optional<CartItem> existingCartItemOptional = cartItemRepository.findByCartAndProduct(cart, product);
-
-        if (existingCartItemOptional.isPresent()) {
-            // If product exists, update the quantity
-            CartItem existingCartItem = existingCartItemOptional.get();
-            existingCartItem.setQuantity(existingCartItem.getQuantity() + quantity);
-            cartItemRepository.save(existingCartItem);
+        CartLine line = cartStore.addQuantity(userId, productId, quantity, reservedUntil);
+        TransactionHooks.afterRollback(() -> cartStore.addQuantity(userId, productId, -quantity, null));
+        if (line.getQuantity() > quantity) {
             return ResponseEntity.ok(Map.of("message", "Product quantity updated in cart."));
-        } else {
-            // If product does not exist, create a new cart item
-            CartItem newCartItem = new CartItem();
-            newCartItem.setCart(cart);
-            newCartItem.setProduct(product);
-            newCartItem.setQuantity(quantity);
-            cartItemRepository.save(newCartItem);
-            return ResponseEntity.ok(Map.of("message", "Product added to cart."));
         }
+        return ResponseEntity.ok(Map.of("message", "Product added to cart."));
     }
 
     /**
@@ -122,78 +81,148 @@ public class CartServiceImpl implements CartService {
      * If the product is present in the cart, it is removed, and the stock
      * quantity is updated back to the product table.
      *
-     * @param authorizationHeader The JWT token passed in the Authorization header.
+     * @param user                The authenticated user.
      * @param productId           The ID of the product to be removed from the cart.
      * @return ResponseEntity with a success message indicating that the product
      * was removed and the stock was updated.
-     * @throws ResourceNotFoundException if the user, product, cart, or cart item
-     *                                   is not found.
+     * @throws ResourceNotFoundException if the product is not in the cart.
      */
     @Override
-    public ResponseEntity<Object> removeProductFromCart(String authorizationHeader, int productId) {
-
-
-        String token = authorizationHeader.replace("Bearer ", "");
-
-        String username = jwtService.extractUserName(token);
-        User currentUser = userRepository.findByUsername(username);
-
-        // Fetch user and product
-        User user = userRepository.findById(currentUser.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found!"));
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found!"));
-
-        // Get user's cart
-        Cart cart = cartRepository.findByUser(user);
-        if (cart == null) {
-            throw new ResourceNotFoundException("Cart not found for the user!");
+    @Transactional
+    public ResponseEntity<Object> removeProductFromCart(User user, int productId) {
+
+        // Remove the line from the cart; it is put back if the stock can't be returned
+        int userId = user.getId();
+        CartLine removed = cartStore.removeLine(userId, productId);
+        if (removed == null) {
+            throw new ResourceNotFoundException("Product not found in the cart!");
         }
+        TransactionHooks.afterRollback(() -> cartStore.addQuantity(userId, productId, removed.getQuantity(), removed.getReservedUntil()));
 
-
-        // Check if product is in the cart
-        CartItem cartItem = cartItemRepository.findByCartAndProduct(cart, product)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found in the cart!"));
-
-
-        // Retrieve the quantity of the product in the cart
-        int quantityInCart = cartItem.getQuantity();
-
-        // Remove the CartItem from the cart
-        cartItemRepository.delete(cartItem);
-
-        // Update the product's quantity back to the Product table
-        product.setSku(product.getSku() + quantityInCart);
-        productRepository.save(product);
+        // Return the reserved quantity to stock
+        inventoryService.releaseStock(userId, productId, removed.getQuantity());
 
         // Create response message and return
         return ResponseEntity.ok(Map.of("message", "Product removed from cart."));
     }
 
+    /**
+     * Returns the items in the user's cart.
+     * <p>
+     * Lines come from the cart store; product details and their categories are
+     * read for all of them with one fetch-join query.
+     * </p>
+     *
+     * @param user The authenticated user.
+     * @return ResponseEntity with the cart items, or a message if the cart is empty.
+     */
     @Override
-    public ResponseEntity<Object> viewCart(String authorizationHeader) {
-        // Extract username from JWT token
-        String token = authorizationHeader.replace("Bearer ", "");
-        String username = jwtService.extractUserName(token);
-        User user = userRepository.findByUsername(username);
-
-        // Fetch user's cart
-        Cart cart = cartRepository.findByUser(user);
-        if (cart == null || cart.getCartItems().isEmpty()) {
+    public ResponseEntity<Object> viewCart(User user) {
+        Map<Integer, CartLine> lines = cartStore.getLines(user.getId());
+        if (lines.isEmpty()) {
             return ResponseEntity.ok(Map.of("message", "Cart is empty."));
         }
 
-        // Convert cart items into a structured response
-        List<Map<String, Object>> cartItems = cart.getCartItems().stream().map(item -> new HashMap<String, Object>() {{
-            put("productId", item.getProduct().getId());
-            put("productName", item.getProduct().getName());
-            put("price", item.getProduct().getPrice());
-            put("quantity", item.getQuantity());
-            put("imageUrl", item.getProduct().getImageUrl());
-        }}).collect(Collectors.toList());
+        List<CartItemDTO> cartItems = toCartItemDTOs(lines, loadProducts(productRepository, lines));
+        return ResponseEntity.ok(Map.of("cartItems", cartItems));
+    }
+
+    /**
+     * Applies a list of add, remove and set-quantity operations to the user's cart.
+     * <p>
+     * Operations are applied in order within one transaction. Each one updates the
+     * cart store atomically and contributes to a net stock change per product;
+     * the stock for all touched products is then checked and adjusted with a
+     * single locking query. If any operation fails, the cart store changes are
+     * undone and no stock is moved.
+     * </p>
+     *
+     * @param user                The authenticated user.
+     * @param cartBatchRequestDTO The operations to apply.
+     * @param bindingResult       The result of input validation.
+     * @return ResponseEntity with a success message or validation errors.
+     * @throws ResourceNotFoundException if a product to add does not exist, or a product to remove is not in the cart.
+     * @throws InvalidDataException      if a product is inactive, a quantity is missing, or there is insufficient stock.
+     */
+    @Override
+    @Transactional
+    public ResponseEntity<Object> applyBatch(User user, CartBatchRequestDTO cartBatchRequestDTO, BindingResult bindingResult) {
+
+        if (bindingResult.hasErrors()) {
+            Map<String, String> errorMap = new HashMap<>();
+            bindingResult.getFieldErrors().forEach(error -> {
+                errorMap.put(error.getField(), error.getDefaultMessage());
+            });
+            return new ResponseEntity<>(errorMap, HttpStatus.BAD_REQUEST);
+        }
+
+        int userId = user.getId();
+        LocalDateTime reservedUntil = inventoryService.reservationDeadline();
+
+        // Compensating actions for the cart store, run newest first if the transaction doesn't commit
+        Deque<Runnable> undo = new ArrayDeque<>();
+        TransactionHooks.afterRollback(() -> undo.forEach(Runnable::run));
+
+        // Net stock change per product over the whole batch
+        Map<Integer, Integer> stockChanges = new LinkedHashMap<>();
+
+        for (CartOperationDTO operation : cartBatchRequestDTO.getOperations()) {
+            int productId = operation.getProductId();
+            String type = operation.getType().toUpperCase();
+            int quantity = operation.getQuantity() == null ? -1 : operation.getQuantity();
+
+            if (type.equals("REMOVE") || (type.equals("SET") && quantity == 0)) {
+                CartLine removed = cartStore.removeLine(userId, productId);
+                if (removed == null) {
+                    throw new ResourceNotFoundException("Product " + productId + " not found in the cart!");
+                }
+                undo.push(() -> cartStore.addQuantity(userId, productId, removed.getQuantity(), removed.getReservedUntil()));
+                stockChanges.merge(productId, -removed.getQuantity(), Integer::sum);
+            } else if (quantity <= 0) {
+                throw new InvalidDataException("Quantity must be greater than 0 for " + type + " of product " + productId + ".");
+            } else if (type.equals("ADD")) {
+                cartStore.addQuantity(userId, productId, quantity, reservedUntil);
+                undo.push(() -> cartStore.addQuantity(userId, productId, -quantity, null));
+                stockChanges.merge(productId, quantity, Integer::sum);
+            } else {
+                CartLine previous = cartStore.setLine(userId, productId, quantity, reservedUntil);
+                if (previous == null) {
+                    undo.push(() -> cartStore.removeLine(userId, productId));
+                } else {
+                    undo.push(() -> cartStore.setLine(userId, productId, previous.getQuantity(), previous.getReservedUntil()));
+                }
+                stockChanges.merge(productId, quantity - (previous == null ? 0 : previous.getQuantity()), Integer::sum);
+            }
+        }
 
+        // One locking query checks and adjusts the stock of every touched product
+        inventoryService.adjustStock(userId, stockChanges, reservedUntil);
 
-        return ResponseEntity.ok(Map.of("cartItems", cartItems));
+        return ResponseEntity.ok(Map.of(
+                "message", "Cart updated.",
+                "operations", cartBatchRequestDTO.getOperations().size()
+        ));
     }
 
+    // Products for all cart lines, keyed by id; categories are fetched in the same query
+    static Map<Integer, Product> loadProducts(ProductRepository productRepository, Map<Integer, CartLine> lines) {
+        Map<Integer, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllWithCategoryById(lines.keySet())) {
+            products.put(product.getId(), product);
+        }
+        return products;
+    }
+
+    // Lines whose product no longer exists are skipped; callers that consume the lines must release them
+    static List<CartItemDTO> toCartItemDTOs(Map<Integer, CartLine> lines, Map<Integer, Product> products) {
+        List<CartItemDTO> cartItems = new ArrayList<>(lines.size());
+        for (CartLine line : lines.values()) {
+            Product product = products.get(line.getProductId());
+            if (product != null) {
+                cartItems.add(new CartItemDTO(product.getId(), product.getName(), product.getPrice(),
+                        line.getQuantity(), product.getImageUrl(), product.getCategory().getId()));
+            }
+        }
+        return cartItems;
+    }
 }
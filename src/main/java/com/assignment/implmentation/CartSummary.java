@@ -0,0 +1,85 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.CartItemDTO;
+import com.assignment.DTO.CategoryDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-cart aggregates that promo rules are evaluated against.
+ * <p>
+ * Built with one pass over the cart, after which every rule type can compute
+ * its discount with constant-time lookups, so quoting all live promotions
+ * costs one cart pass plus one step per promotion. Category totals cover
+ * whole subtrees: a line counts towards its own category and every ancestor
+ * on its materialized path.
+ * </p>
+ */
+public final class CartSummary {
+
+    private final double subtotal;
+
+    // One line per product, as the cart store keeps them
+    private final Map<Integer, CartItemDTO> itemsByProduct;
+
+    // Line totals summed over each category's subtree
+    private final Map<Integer, Double> totalsByCategory;
+
+    private CartSummary(double subtotal, Map<Integer, CartItemDTO> itemsByProduct, Map<Integer, Double> totalsByCategory) {
+        this.subtotal = subtotal;
+        this.itemsByProduct = itemsByProduct;
+        this.totalsByCategory = totalsByCategory;
+    }
+
+    /**
+     * @param categories The category tree, or null to count each line only towards its own category.
+     */
+    public static CartSummary of(List<CartItemDTO> cartItems, CategoryTreeCache.Snapshot categories) {
+        double subtotal = 0.0;
+        Map<Integer, CartItemDTO> itemsByProduct = new HashMap<>(cartItems.size() * 2);
+        Map<Integer, Double> totalsByCategory = new HashMap<>();
+        for (CartItemDTO cartItem : cartItems) {
+            double lineTotal = cartItem.getPrice() * cartItem.getQuantity();
+            subtotal += lineTotal;
+            itemsByProduct.put(cartItem.getProductId(), cartItem);
+            if (cartItem.getCategoryId() != null) {
+                for (int categoryId : ancestry(cartItem.getCategoryId(), categories)) {
+                    totalsByCategory.merge(categoryId, lineTotal, Double::sum);
+                }
+            }
+        }
+        return new CartSummary(subtotal, itemsByProduct, totalsByCategory);
+    }
+
+    // The category and its ancestors, read from its path ("/1/4/9/"); just the category if it isn't in the tree
+    private static List<Integer> ancestry(int categoryId, CategoryTreeCache.Snapshot categories) {
+        CategoryDTO category = categories == null ? null : categories.find(categoryId);
+        if (category == null || category.getPath() == null) {
+            return List.of(categoryId);
+        }
+        List<Integer> ids = new ArrayList<>(category.getDepth() + 1);
+        for (String id : category.getPath().split("/")) {
+            if (!id.isEmpty()) {
+                ids.add(Integer.parseInt(id));
+            }
+        }
+        return ids;
+    }
+
+    public double getSubtotal() {
+        return subtotal;
+    }
+
+    // The cart line of a product, or null if it isn't in the cart
+    public CartItemDTO item(int productId) {
+        return itemsByProduct.get(productId);
+    }
+
+    // Total of the lines in the category or any of its subcategories
+    public double categoryTotal(int categoryId) {
+        return totalsByCategory.getOrDefault(categoryId, 0.0);
+    }
+}
@@ -2,6 +2,7 @@ package com.assignment.implmentation;
 
 import com.assignment.DTO.CategoryDTO;
 import com.assignment.entites.Category;
+import com.assignment.exception.InvalidDataException;
 import com.assignment.exception.ResourceNotFoundException;
 import com.assignment.repository.CategoryRepository;
 import com.assignment.services.CategoryService;
@@ -9,17 +10,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Implementation of the CategoryService interface.
  * <p>
  * This class provides functionality for adding and deleting categories.
  * </p>
+ * <p>
+ * Categories form a tree. Each one stores its parent and its materialized
+ * path (the ids from the root down to itself), so a subtree is a path prefix
+ * and moving a category rewrites its subtree in one statement. Reads are
+ * served from the {@link CategoryTreeCache} snapshot.
+ * </p>
  */
 
 @Service
@@ -28,6 +37,15 @@ public class CategoryServiceImp implements CategoryService {
     @Autowired
     CategoryRepository categoryRepository;
 
+    @Autowired
+    CategoryTreeCache categoryTreeCache;
+
+    @Autowired
+    ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    SuggestionTrie suggestionTrie;
+
     /**
      * Saves a new category based on the provided CategoryDTO.
      * Validates the provided category data and creates a new category if the
@@ -38,8 +56,10 @@ public class CategoryServiceImp implements CategoryService {
      *                      Used to check for validation errors.
      * @return ResponseEntity containing a success message if the category is
      * added, or an error map if validation fails.
+     * @throws ResourceNotFoundException if the parent category is not found.
      */
     @Override
+    @Transactional
     public ResponseEntity<Object> saveCategory(CategoryDTO categoryDTO, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
             Map<String, String> errorMap = new HashMap<>();
@@ -49,12 +69,19 @@ public class CategoryServiceImp implements CategoryService {
             return new ResponseEntity<>(errorMap, HttpStatus.BAD_REQUEST);
         }
 
+        Category parent = findParent(categoryDTO.getParentId());
+
         // Create a new Category object and set its name
         Category category = new Category();
         category.setName(categoryDTO.getName());
+        category.setParent(parent);
 
-        // Save the category
+        // Save the category; its path includes the generated ID
         categoryRepository.save(category);
+        category.setPath(childPath(parent, category.getId()));
+        category.setDepth(parent != null ? parent.getDepth() + 1 : 0);
+        categoryTreeCache.invalidate();
+        suggestionTrie.updateCategory(category.getId(), category.getName());
 
         // Return success response
         return ResponseEntity.ok(Map.of("message", "Category Added!"));
@@ -71,6 +98,7 @@ public class CategoryServiceImp implements CategoryService {
      * @return ResponseEntity containing a success message if the category
      * is found and marked as deleted.
      * @throws ResourceNotFoundException if the category is not found.
+     * @throws InvalidDataException      if the category still has subcategories.
      */
     @Override
     public ResponseEntity<Object> deleteCategory(int id) {
@@ -79,9 +107,15 @@ public class CategoryServiceImp implements CategoryService {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category Not Found!"));
 
+        if (categoryRepository.hasLiveChildren(id)) {
+            throw new InvalidDataException("Category has subcategories! Delete or move them first.");
+        }
+
         // Mark category as deleted and save it
         category.setDeleted(true);
         categoryRepository.save(category);
+        categoryTreeCache.invalidate();
+        suggestionTrie.updateCategory(id, null);
 
         // Return success message
         return ResponseEntity.ok(Map.of("message", "Category Deleted!"));
@@ -89,29 +123,52 @@ public class CategoryServiceImp implements CategoryService {
 
     }
 
+    /**
+     * Retrieves every category that is not deleted, in tree order, with its
+     * position in the tree and its product counts.
+     *
+     * @return ResponseEntity containing the categories, or a message if there are none.
+     */
     @Override
     public ResponseEntity<Object> findAllCategory() {
-        List<Category> categories = categoryRepository.findAll();
+        List<CategoryDTO> categoryDTOs = categoryTreeCache.get().getCategories();
 
         // Check if the list is empty
-        if (categories.isEmpty()) {
+        if (categoryDTOs.isEmpty()) {
             return ResponseEntity.ok(Map.of("message", "No categories found"));
         }
 
-        // Map Category to CategoryDTO directly in the stream
-        List<CategoryDTO> categoryDTOs = categories.stream()
-                .map(category -> {
-                    CategoryDTO dto = new CategoryDTO();
-                    dto.setName(category.getName());
-                    return dto;
-                })
-                .toList();
-
         // Return the response
         return ResponseEntity.ok(Map.of("data", categoryDTOs));
     }
 
+    /**
+     * Retrieves the category tree for navigation: top-level categories with
+     * their subcategories nested, each with the number of active products in
+     * it and in its whole subtree.
+     *
+     * @return ResponseEntity containing the top-level categories.
+     */
+    @Override
+    public ResponseEntity<Object> findCategoryTree() {
+        return ResponseEntity.ok(Map.of("categories", categoryTreeCache.get().getRoots()));
+    }
+
+    /**
+     * Renames a category and moves it under another parent.
+     * <p>
+     * A move rewrites the paths and depths of the whole subtree in one statement.
+     * </p>
+     *
+     * @param id            The ID of the category to update.
+     * @param categoryDTO   The new name and parent ID (null for a top-level category).
+     * @param bindingResult The result of input validation.
+     * @return ResponseEntity containing a success message or validation errors.
+     * @throws ResourceNotFoundException if the category or the new parent is not found.
+     * @throws InvalidDataException      if the new parent is the category itself or one of its subcategories.
+     */
     @Override
+    @Transactional
     public ResponseEntity<Object> updateCategory(int id, CategoryDTO categoryDTO, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
             Map<String, String> errorMap = new HashMap<>();
@@ -123,10 +180,52 @@ public class CategoryServiceImp implements CategoryService {
 
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category Not Found!"));
+        if (!category.getName().equals(categoryDTO.getName())) {
+            productSearchIndex.renameCategory(id, categoryDTO.getName());
+            suggestionTrie.updateCategory(id, categoryDTO.getName());
+        }
         category.setName(categoryDTO.getName());
-        categoryRepository.save(category);
+
+        Integer currentParentId = category.getParent() != null ? category.getParent().getId() : null;
+        if (!Objects.equals(currentParentId, categoryDTO.getParentId())) {
+            Category parent = findParent(categoryDTO.getParentId());
+            if (parent != null && parent.getPath().startsWith(category.getPath())) {
+                throw new InvalidDataException("A category cannot be moved under itself or one of its subcategories!");
+            }
+
+            String oldPath = category.getPath();
+            String newPath = childPath(parent, id);
+            int newDepth = parent != null ? parent.getDepth() + 1 : 0;
+            int depthDelta = newDepth - category.getDepth();
+
+            // The category itself is flushed before the bulk update, which then only matches its descendants
+            category.setParent(parent);
+            category.setPath(newPath);
+            category.setDepth(newDepth);
+            categoryRepository.save(category);
+            categoryRepository.movePaths(oldPath, newPath, depthDelta);
+        } else {
+            categoryRepository.save(category);
+        }
+        categoryTreeCache.invalidate();
 
         return ResponseEntity.ok(Map.of("message", "Category Updated!"));
     }
 
+    private Category findParent(Integer parentId) {
+        if (parentId == null) {
+            return null;
+        }
+        Category parent = categoryRepository.findById(parentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Parent category not found!"));
+        if (parent.isDeleted()) {
+            throw new ResourceNotFoundException("Parent category not found!");
+        }
+        return parent;
+    }
+
+    private static String childPath(Category parent, int id) {
+        return (parent != null ? parent.getPath() : "/") + id + "/";
+    }
+
 }
@@ -0,0 +1,188 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.CategoryDTO;
+import com.assignment.repository.CategoryRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory snapshot of the category tree with per-category product counts.
+ * <p>
+ * Built from the categories table alone: each row carries its materialized
+ * path and an active product count that product writes keep up to date, so
+ * the subtree totals shown in navigation menus are summed in memory instead
+ * of grouping the products table. Deleted categories and everything under
+ * them are left out. The snapshot is dropped when a category or a product
+ * count changes and rebuilt on the next read.
+ * </p>
+ */
+@Component
+public class CategoryTreeCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryTreeCache.class);
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final VersionedSnapshot<Snapshot> snapshot = new VersionedSnapshot<>(this::build);
+
+    /**
+     * Returns the current snapshot, building it if it was invalidated.
+     */
+    public Snapshot get() {
+        return snapshot.get();
+    }
+
+    /**
+     * Drops the snapshot now and, inside a transaction, again after it completes,
+     * so a read racing with the transaction cannot keep the old tree.
+     */
+    public void invalidate() {
+        snapshot.invalidate();
+        TransactionHooks.afterCompletion(snapshot::invalidate);
+    }
+
+    /**
+     * Gives categories created before the tree existed a root path. Their product
+     * counts were never maintained, so on such an upgrade all counts are recomputed.
+     */
+    @PostConstruct
+    public void initialize() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int initialized = categoryRepository.initializeMissingPaths();
+            if (initialized > 0) {
+                log.info("Initialized tree paths of {} categories, recounting products", initialized);
+                categoryRepository.recountActiveProducts();
+            }
+        });
+    }
+
+    /**
+     * Recounts active products per category, repairing any drift of the
+     * incrementally maintained counts.
+     */
+    @Scheduled(cron = "${category.counts.reconcile-cron:0 0 4 * * ?}")
+    public void reconcile() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                categoryRepository.recountActiveProducts());
+        invalidate();
+    }
+
+    private Snapshot build() {
+        List<CategoryRepository.CategoryNode> nodes = categoryRepository.findAllNodes();
+
+        // Parents come first, so a node whose parent is missing (deleted) is dropped with its subtree
+        Map<Integer, CategoryDTO> byId = new HashMap<>();
+        List<CategoryDTO> attached = new ArrayList<>();
+        List<CategoryDTO> roots = new ArrayList<>();
+        for (CategoryRepository.CategoryNode node : nodes) {
+            CategoryDTO parent = null;
+            if (node.getParentId() != null) {
+                parent = byId.get(node.getParentId());
+                if (parent == null) {
+                    continue;
+                }
+            }
+
+            CategoryDTO dto = new CategoryDTO();
+            dto.setId(node.getId());
+            dto.setName(node.getName());
+            dto.setParentId(node.getParentId());
+            dto.setPath(node.getPath());
+            dto.setDepth(node.getDepth());
+            dto.setProductCount(node.getActiveProductCount());
+            dto.setTotalProductCount(node.getActiveProductCount());
+            dto.setChildren(new ArrayList<>());
+
+            byId.put(dto.getId(), dto);
+            attached.add(dto);
+            if (parent == null) {
+                roots.add(dto);
+            } else {
+                parent.getChildren().add(dto);
+            }
+        }
+
+        // Deepest first, so every subtree total is complete before it is added to its parent
+        for (int i = attached.size() - 1; i >= 0; i--) {
+            CategoryDTO dto = attached.get(i);
+            if (dto.getParentId() != null) {
+                CategoryDTO parent = byId.get(dto.getParentId());
+                parent.setTotalProductCount(parent.getTotalProductCount() + dto.getTotalProductCount());
+            }
+        }
+
+        Comparator<CategoryDTO> byName = Comparator.comparing(CategoryDTO::getName, String.CASE_INSENSITIVE_ORDER);
+        roots.sort(byName);
+        attached.forEach(dto -> dto.getChildren().sort(byName));
+
+        List<CategoryDTO> flat = new ArrayList<>(attached.size());
+        Map<Integer, CategoryDTO> flatById = new HashMap<>();
+        for (CategoryDTO root : roots) {
+            flatten(root, flat, flatById);
+        }
+        return new Snapshot(Collections.unmodifiableList(roots), Collections.unmodifiableList(flat), flatById);
+    }
+
+    // Pre-order copy without the children, for the flat listing
+    private static void flatten(CategoryDTO node, List<CategoryDTO> flat, Map<Integer, CategoryDTO> flatById) {
+        CategoryDTO copy = new CategoryDTO();
+        copy.setId(node.getId());
+        copy.setName(node.getName());
+        copy.setParentId(node.getParentId());
+        copy.setPath(node.getPath());
+        copy.setDepth(node.getDepth());
+        copy.setProductCount(node.getProductCount());
+        copy.setTotalProductCount(node.getTotalProductCount());
+        flat.add(copy);
+        flatById.put(copy.getId(), copy);
+        for (CategoryDTO child : node.getChildren()) {
+            flatten(child, flat, flatById);
+        }
+    }
+
+    public static final class Snapshot {
+        private final List<CategoryDTO> roots;
+        private final List<CategoryDTO> categories;
+        private final Map<Integer, CategoryDTO> categoriesById;
+
+        private Snapshot(List<CategoryDTO> roots, List<CategoryDTO> categories, Map<Integer, CategoryDTO> categoriesById) {
+            this.roots = roots;
+            this.categories = categories;
+            this.categoriesById = categoriesById;
+        }
+
+        // Top-level categories, each with its children nested, siblings by name
+        public List<CategoryDTO> getRoots() {
+            return roots;
+        }
+
+        // Every live category in tree order, without nesting
+        public List<CategoryDTO> getCategories() {
+            return categories;
+        }
+
+        /**
+         * @return The live category with the given ID, or null if it is missing or deleted.
+         */
+        public CategoryDTO find(int categoryId) {
+            return categoriesById.get(categoryId);
+        }
+    }
+}
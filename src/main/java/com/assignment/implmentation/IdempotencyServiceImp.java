@@ -0,0 +1,253 @@
+package com.assignment.implmentation;
+
+import com.assignment.entites.IdempotencyRecord;
+import com.assignment.exception.ConflictException;
+import com.assignment.exception.InvalidDataException;
+import com.assignment.repository.IdempotencyRecordRepository;
+import com.assignment.services.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of the IdempotencyService interface.
+ * <p>
+ * The first request carrying an Idempotency-Key runs the action; while it runs,
+ * repeats of that key get a 409 instead of running the action again. Once it
+ * completes successfully, repeats get the stored status and body back, marked
+ * with an Idempotent-Replayed header. Failed requests free the key so the
+ * client can retry. Keys are scoped per user and expire after a TTL. Completed
+ * responses are kept in a bounded in-memory cache that evicts the least
+ * recently used ones, and optionally in the idempotency_keys table. With the
+ * table enabled a key is also claimed there with a PENDING row before the
+ * action runs, so two instances cannot both run it, and a response evicted from
+ * memory is still replayed from its row. Without the table, a key evicted
+ * before its TTL is forgotten.
+ * </p>
+ */
+@Service
+public class IdempotencyServiceImp implements IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyServiceImp.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${idempotency.database.enabled:false}")
+    private boolean databaseEnabled;
+
+    @Value("${idempotency.database.pending-timeout-seconds:60}")
+    private long pendingTimeoutSeconds;
+
+    private final long ttlMinutes;
+
+    // Keys whose first request is still running; bounded by the number of concurrent requests
+    private final ConcurrentHashMap<String, Entry> running = new ConcurrentHashMap<>();
+
+    private final BoundedTtlCache<String, Entry> completed;
+
+    public IdempotencyServiceImp(@Value("${idempotency.ttl-minutes:1440}") long ttlMinutes,
+                                 @Value("${idempotency.cache.max-size:10000}") int maxSize) {
+        this.ttlMinutes = ttlMinutes;
+        this.completed = new BoundedTtlCache<>(maxSize, ttlMinutes * 60_000);
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final long expiresAtMillis;
+        // Null while the first request is still running
+        private volatile ResponseEntity<Object> response;
+
+        private Entry(String fingerprint, long expiresAtMillis) {
+            this.fingerprint = fingerprint;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    /**
+     * Runs the action at most once per user and Idempotency-Key.
+     *
+     * @param userId         The authenticated user's id.
+     * @param idempotencyKey The Idempotency-Key header; the action simply runs if it is absent.
+     * @param fingerprint    Identifies the request, so a key can't be reused for a different one.
+     * @param action         The request handling to protect.
+     * @return The action's response, or the stored response of the first request.
+     * @throws ConflictException    if the first request with this key is still running.
+     * @throws InvalidDataException if the key is too long or was used for a different request.
+     */
+    @Override
+    public ResponseEntity<Object> execute(int userId, String idempotencyKey, String fingerprint,
+                                          Supplier<ResponseEntity<Object>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidDataException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters.");
+        }
+
+        String scopedKey = userId + ":" + idempotencyKey;
+        Entry done = completed.get(scopedKey);
+        if (done != null) {
+            return replay(done, fingerprint);
+        }
+
+        Entry entry = new Entry(fingerprint, System.currentTimeMillis() + ttlMinutes * 60_000);
+        Entry existing = running.putIfAbsent(scopedKey, entry);
+        if (existing != null) {
+            return replay(existing, fingerprint);
+        }
+
+        boolean claimed = false;
+        try {
+            // A first request may have completed between the lookup and taking the key
+            done = completed.get(scopedKey);
+            if (done != null) {
+                running.remove(scopedKey, entry);
+                return replay(done, fingerprint);
+            }
+
+            // Not known locally; another instance, an earlier run or an evicted entry may hold it
+            if (databaseEnabled) {
+                Optional<ResponseEntity<Object>> stored = claim(scopedKey, entry);
+                if (stored.isPresent()) {
+                    entry.response = stored.get();
+                    complete(scopedKey, entry);
+                    return replay(entry, fingerprint);
+                }
+                claimed = true;
+            }
+
+            ResponseEntity<Object> response = action.get();
+            if (response.getStatusCode().is2xxSuccessful()) {
+                entry.response = response;
+                if (claimed) {
+                    store(scopedKey, entry);
+                }
+                complete(scopedKey, entry);
+            } else {
+                release(scopedKey, entry, claimed);
+            }
+            return response;
+        } catch (RuntimeException e) {
+            release(scopedKey, entry, claimed);
+            throw e;
+        }
+    }
+
+    // Published before the running entry goes, so a repeat always finds one of them
+    private void complete(String scopedKey, Entry entry) {
+        completed.put(scopedKey, entry);
+        running.remove(scopedKey, entry);
+    }
+
+    // Frees the key locally and, if this request claimed it, in the database
+    private void release(String scopedKey, Entry entry, boolean claimed) {
+        running.remove(scopedKey, entry);
+        if (claimed) {
+            try {
+                idempotencyRecordRepository.deletePending(scopedKey);
+            } catch (RuntimeException e) {
+                // The claim lapses after its lease
+                log.warn("Could not release idempotency claim {}", scopedKey, e);
+            }
+        }
+    }
+
+    private static ResponseEntity<Object> replay(Entry entry, String fingerprint) {
+        if (!entry.fingerprint.equals(fingerprint)) {
+            throw new InvalidDataException("Idempotency-Key was already used for a different request.");
+        }
+        ResponseEntity<Object> response = entry.response;
+        if (response == null) {
+            throw new ConflictException("A request with this Idempotency-Key is still being processed.");
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .header("Idempotent-Replayed", "true")
+                .body(response.getBody());
+    }
+
+    /**
+     * Claims the key with a PENDING row that expires after a short lease.
+     * <p>
+     * If the insert hits the primary key, the existing row decides: an expired
+     * one is deleted and the claim retried once, a completed one is replayed and
+     * a pending one means the request is still running elsewhere.
+     * </p>
+     *
+     * @return The stored response if the key was already completed, or empty once claimed.
+     */
+    private Optional<ResponseEntity<Object>> claim(String scopedKey, Entry entry) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                idempotencyRecordRepository.insertPending(scopedKey, entry.fingerprint, now.plusSeconds(pendingTimeoutSeconds));
+                return Optional.empty();
+            } catch (DataIntegrityViolationException e) {
+                IdempotencyRecord record = idempotencyRecordRepository.findById(scopedKey).orElse(null);
+                if (record == null || (record.getExpiresAt().isBefore(now)
+                        && idempotencyRecordRepository.deleteIfExpired(scopedKey, now) > 0)) {
+                    continue;
+                }
+                if (!record.getFingerprint().equals(entry.fingerprint)) {
+                    throw new InvalidDataException("Idempotency-Key was already used for a different request.");
+                }
+                if (IdempotencyRecord.COMPLETED.equals(record.getStatus())) {
+                    return Optional.of(toResponse(record));
+                }
+                break;
+            }
+        }
+        throw new ConflictException("A request with this Idempotency-Key is still being processed.");
+    }
+
+    private ResponseEntity<Object> toResponse(IdempotencyRecord record) {
+        try {
+            Object body = objectMapper.readValue(record.getResponseBody(), Object.class);
+            return ResponseEntity.status(HttpStatusCode.valueOf(record.getStatusCode())).body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void store(String scopedKey, Entry entry) {
+        try {
+            idempotencyRecordRepository.complete(scopedKey, entry.response.getStatusCode().value(),
+                    objectMapper.writeValueAsString(entry.response.getBody()),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.expiresAtMillis), ZoneId.systemDefault()));
+        } catch (RuntimeException | JsonProcessingException e) {
+            // The in-memory entry still protects this instance
+            log.warn("Could not store idempotency record {}", scopedKey, e);
+        }
+    }
+
+    /**
+     * Drops expired keys from the database, if enabled. In memory, expired
+     * responses are ignored on lookup and evicted by newer ones.
+     */
+    @Scheduled(fixedDelayString = "${idempotency.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        if (databaseEnabled) {
+            idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.CartLine;
+import com.assignment.entites.CartItem;
+import com.assignment.repository.CartItemRepository;
+import com.assignment.repository.CartRepository;
+import com.assignment.repository.ProductRepository;
+import com.assignment.services.CartStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default CartStore: carts live in process memory and are written behind to
+ * the carts/cart_items tables.
+ * <p>
+ * Carts are spread over a fixed number of ConcurrentHashMap shards by user id
+ * and each cart is guarded by its own monitor, so users never contend with each
+ * other. Mutations only mark the user dirty; a scheduled flush replaces the
+ * user's cart_items rows with the current lines, so browse-and-add traffic does
+ * not touch the database. The tables are read once at startup to restore carts
+ * and flushed again on shutdown.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryCartStore implements CartStore {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryCartStore.class);
+
+    @Autowired
+    CartRepository cartRepository;
+
+    @Autowired
+    CartItemRepository cartItemRepository;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final ConcurrentHashMap<Integer, UserCart>[] shards;
+
+    private final Set<Integer> dirtyUsers = ConcurrentHashMap.newKeySet();
+
+    @SuppressWarnings("unchecked")
+    public InMemoryCartStore(@Value("${cart.store.shards:16}") int shardCount) {
+        // Round up to a power of two so the shard index is a mask
+        int size = Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1;
+        shards = new ConcurrentHashMap[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    private static final class UserCart {
+        private final LinkedHashMap<Integer, CartLine> lines = new LinkedHashMap<>();
+    }
+
+    private UserCart cart(int userId) {
+        return shards[userId & (shards.length - 1)].computeIfAbsent(userId, id -> new UserCart());
+    }
+
+    @Override
+    public Map<Integer, CartLine> getLines(int userId) {
+        UserCart cart = shards[userId & (shards.length - 1)].get(userId);
+        if (cart == null) {
+            return Map.of();
+        }
+        synchronized (cart) {
+            return new LinkedHashMap<>(cart.lines);
+        }
+    }
+
+    @Override
+    public CartLine addQuantity(int userId, int productId, int quantity, LocalDateTime reservedUntil) {
+        UserCart cart = cart(userId);
+        CartLine line;
+        synchronized (cart) {
+            CartLine existing = cart.lines.get(productId);
+            int newQuantity = existing == null ? quantity : existing.getQuantity() + quantity;
+            if (newQuantity <= 0) {
+                cart.lines.remove(productId);
+                line = null;
+            } else {
+                LocalDateTime deadline = reservedUntil != null || existing == null ? reservedUntil : existing.getReservedUntil();
+                line = new CartLine(productId, newQuantity, deadline);
+                cart.lines.put(productId, line);
+            }
+        }
+        dirtyUsers.add(userId);
+        return line;
+    }
+
+    @Override
+    public CartLine setLine(int userId, int productId, int quantity, LocalDateTime reservedUntil) {
+        UserCart cart = cart(userId);
+        CartLine previous;
+        synchronized (cart) {
+            previous = cart.lines.put(productId, new CartLine(productId, quantity, reservedUntil));
+        }
+        dirtyUsers.add(userId);
+        return previous;
+    }
+
+    @Override
+    public CartLine removeLine(int userId, int productId) {
+        UserCart cart = shards[userId & (shards.length - 1)].get(userId);
+        if (cart == null) {
+            return null;
+        }
+        CartLine removed;
+        synchronized (cart) {
+            removed = cart.lines.remove(productId);
+        }
+        if (removed != null) {
+            dirtyUsers.add(userId);
+        }
+        return removed;
+    }
+
+    @Override
+    public Map<Integer, CartLine> takeAll(int userId) {
+        UserCart cart = shards[userId & (shards.length - 1)].get(userId);
+        if (cart == null) {
+            return Map.of();
+        }
+        Map<Integer, CartLine> taken;
+        synchronized (cart) {
+            taken = new LinkedHashMap<>(cart.lines);
+            cart.lines.clear();
+        }
+        if (!taken.isEmpty()) {
+            dirtyUsers.add(userId);
+        }
+        return taken;
+    }
+
+    @Override
+    public void restore(int userId, Map<Integer, CartLine> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        UserCart cart = cart(userId);
+        synchronized (cart) {
+            lines.forEach((productId, line) -> cart.lines.merge(productId, line, InMemoryCartStore::merge));
+        }
+        dirtyUsers.add(userId);
+    }
+
+    @Override
+    public Map<Integer, Integer> removeExpired(LocalDateTime now) {
+        Map<Integer, Integer> released = new HashMap<>();
+        for (ConcurrentHashMap<Integer, UserCart> shard : shards) {
+            shard.forEach((userId, cart) -> {
+                boolean changed = false;
+                synchronized (cart) {
+                    Iterator<CartLine> iterator = cart.lines.values().iterator();
+                    while (iterator.hasNext()) {
+                        CartLine line = iterator.next();
+                        if (line.isExpired(now)) {
+                            iterator.remove();
+                            released.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+                            changed = true;
+                        }
+                    }
+                }
+                if (changed) {
+                    dirtyUsers.add(userId);
+                }
+            });
+        }
+        return released;
+    }
+
+    private static CartLine merge(CartLine current, CartLine restored) {
+        LocalDateTime reservedUntil = current.getReservedUntil() == null || (restored.getReservedUntil() != null
+                && restored.getReservedUntil().isAfter(current.getReservedUntil()))
+                ? restored.getReservedUntil() : current.getReservedUntil();
+        return new CartLine(current.getProductId(), current.getQuantity() + restored.getQuantity(), reservedUntil);
+    }
+
+    /**
+     * Restores the carts persisted by a previous run.
+     */
+    @PostConstruct
+    public void load() {
+        for (CartItemRepository.StoredCartLine stored : cartItemRepository.findAllStoredLines()) {
+            UserCart cart = cart(stored.getUserId());
+            cart.lines.put(stored.getProductId(),
+                    new CartLine(stored.getProductId(), stored.getQuantity(), stored.getReservedUntil()));
+        }
+    }
+
+    /**
+     * Writes the carts changed since the last flush to the database.
+     * <p>
+     * A user is taken off the dirty set before its lines are copied, so a change
+     * made during the flush marks it dirty again for the next run. Failed writes
+     * are retried on the next run.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:2000}")
+    @PreDestroy
+    public void flush() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (Integer userId : new ArrayList<>(dirtyUsers)) {
+            dirtyUsers.remove(userId);
+            Collection<CartLine> lines = getLines(userId).values();
+            try {
+                transactionTemplate.executeWithoutResult(status -> persist(userId, lines));
+            } catch (RuntimeException e) {
+                dirtyUsers.add(userId);
+                log.warn("Could not persist cart of user {}, will retry", userId, e);
+            }
+        }
+    }
+
+    private void persist(int userId, Collection<CartLine> lines) {
+        Optional<Integer> cartId = cartRepository.findIdByUserId(userId);
+        if (cartId.isEmpty()) {
+            return;
+        }
+
+        cartItemRepository.deleteByCartId(cartId.get());
+        List<CartItem> items = new ArrayList<>(lines.size());
+        for (CartLine line : lines) {
+            CartItem item = new CartItem();
+            item.setCart(cartRepository.getReferenceById(cartId.get()));
+            item.setProduct(productRepository.getReferenceById(line.getProductId()));
+            item.setQuantity(line.getQuantity());
+            item.setReservedUntil(line.getReservedUntil());
+            items.add(item);
+        }
+        cartItemRepository.saveAll(items);
+    }
+}
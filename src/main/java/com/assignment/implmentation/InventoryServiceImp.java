@@ -0,0 +1,342 @@
+package com.assignment.implmentation;
+
+import com.assignment.entites.Product;
+import com.assignment.entites.StockReservation;
+import com.assignment.exception.InvalidDataException;
+import com.assignment.exception.ResourceNotFoundException;
+import com.assignment.repository.ProductRepository;
+import com.assignment.repository.StockReservationRepository;
+import com.assignment.services.CartStore;
+import com.assignment.services.InventoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the InventoryService interface.
+ * <p>
+ * Stock is reserved and released with single guarded UPDATE statements on the
+ * products table instead of a read-modify-write of Product.sku, so concurrent
+ * buyers cannot lose updates or oversell. Every quantity taken for a cart is
+ * also recorded as a StockReservation row in the same transaction, so a crash
+ * before the cart store persists the line cannot lose track of it.
+ * Reservations expire after a configurable TTL and are returned to stock by a
+ * scheduled sweep.
+ * </p>
+ */
+@Service
+public class InventoryServiceImp implements InventoryService {
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    CartStore cartStore;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.reservation.ttl-minutes:30}")
+    private long reservationTtlMinutes;
+
+    @Value("${inventory.reservation.sweep-chunk-size:500}")
+    private int sweepChunkSize;
+
+    /**
+     * Atomically takes the requested quantity out of stock and records it as
+     * held for the user. Must run inside the caller's transaction.
+     *
+     * @param userId    The ID of the user whose cart holds the stock.
+     * @param productId The ID of the product to reserve.
+     * @param quantity  The quantity to reserve.
+     * @return The time until which the reservation is held.
+     * @throws ResourceNotFoundException if the product does not exist.
+     * @throws InvalidDataException      if the product is inactive or there is not enough stock left.
+     */
+    @Override
+    public LocalDateTime reserveStock(int userId, int productId, int quantity) {
+        if (quantity <= 0) {
+            throw new InvalidDataException("Quantity must be greater than 0.");
+        }
+
+        // The reservation row is written before the product row is locked, in the same
+        // order as adjustStock and the expiry sweep; a failed decrement rolls it back
+        LocalDateTime reservedUntil = reservationDeadline();
+        recordReservation(userId, productId, quantity, reservedUntil);
+
+        if (productRepository.decrementStock(productId, quantity) == 0) {
+            // Only the failure path reads the product, to tell the caller why
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found!"));
+            if (!product.getActive() || product.isDeleted()) {
+                throw new InvalidDataException("This product is no longer available.");
+            }
+            throw new InvalidDataException("Not enough stock available for this product.");
+        }
+        return reservedUntil;
+    }
+
+    /**
+     * @return The deadline for a reservation made now.
+     */
+    @Override
+    public LocalDateTime reservationDeadline() {
+        return LocalDateTime.now().plusMinutes(reservationTtlMinutes);
+    }
+
+    /**
+     * Applies several stock changes for one user's cart in one go.
+     * <p>
+     * All affected products are read and row-locked with a single query. Every
+     * positive change (a reservation) is validated against that snapshot before
+     * anything is written, so either all changes apply or none do. The new stock
+     * levels are written on flush as one batch of updates, and the user's
+     * reservations of every touched product are moved to the new deadline.
+     * A release (negative change) only returns what the user's reservation
+     * still holds, so stock the expiry sweep already returned is not counted twice.
+     * The user's reservations of all these products are locked before any
+     * product row, the same order reserveStock and the expiry sweep use.
+     * </p>
+     *
+     * @param userId          The ID of the user whose cart holds the stock.
+     * @param quantityChanges Quantity to reserve (positive) or release (negative) per product id.
+     * @param reservedUntil   The deadline of the user's reservations of these products.
+     * @throws ResourceNotFoundException if a product to reserve does not exist.
+     * @throws InvalidDataException      if a product to reserve is inactive or lacks stock.
+     */
+    @Override
+    @Transactional
+    public void adjustStock(int userId, Map<Integer, Integer> quantityChanges, LocalDateTime reservedUntil) {
+        Map<Integer, Integer> releases = new HashMap<>();
+        quantityChanges.forEach((productId, change) -> {
+            if (change < 0) {
+                releases.put(productId, -change);
+            }
+        });
+
+        List<StockReservation> reservations = stockReservationRepository.findForUpdate(userId, quantityChanges.keySet());
+        Map<Integer, StockReservation> reservationsByProduct = reservations.stream()
+                .collect(Collectors.toMap(StockReservation::getProductId, reservation -> reservation));
+
+        Map<Integer, Integer> stockChanges = new HashMap<>(quantityChanges);
+        releases.keySet().forEach(stockChanges::remove);
+        takeReserved(reservations, releases, reservedUntil).forEach((productId, taken) -> stockChanges.put(productId, -taken));
+
+        applyStockChanges(stockChanges);
+        quantityChanges.forEach((productId, change) -> {
+            if (change < 0) {
+                return;
+            }
+            StockReservation reservation = reservationsByProduct.get(productId);
+            if (reservation != null) {
+                // Rows are locked, so plain entity updates are safe here
+                reservation.setQuantity(reservation.getQuantity() + change);
+                reservation.setReservedUntil(reservedUntil);
+            } else if (change > 0) {
+                stockReservationRepository.save(newReservation(userId, productId, change, reservedUntil));
+            }
+        });
+    }
+
+    /**
+     * Turns the user's reservations into sold stock at checkout.
+     * <p>
+     * The reservations of the ordered products are deleted. Normally they match
+     * the ordered quantities exactly; where a reservation already expired or
+     * holds a different quantity, the difference is reserved or returned here,
+     * so an order never ships stock that is not taken out of the products table.
+     * </p>
+     *
+     * @param userId     The ID of the user placing the order.
+     * @param quantities The ordered quantity per product id.
+     * @throws InvalidDataException if stock for a lapsed reservation is no longer available.
+     */
+    @Override
+    @Transactional
+    public void consumeReservations(int userId, Map<Integer, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        List<StockReservation> reservations = stockReservationRepository.findForUpdate(userId, quantities.keySet());
+        Map<Integer, Integer> shortfall = new HashMap<>(quantities);
+        for (StockReservation reservation : reservations) {
+            shortfall.merge(reservation.getProductId(), -reservation.getQuantity(), Integer::sum);
+        }
+        stockReservationRepository.deleteAllInBatch(reservations);
+        applyStockChanges(shortfall);
+    }
+
+    private void applyStockChanges(Map<Integer, Integer> quantityChanges) {
+        Map<Integer, Integer> changes = quantityChanges.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        List<Product> products = productRepository.findAllByIdForUpdate(changes.keySet());
+        Map<Integer, Product> productsById = products.stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+
+        changes.forEach((productId, change) -> {
+            if (change < 0) {
+                return;
+            }
+            Product product = productsById.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found with ID: " + productId);
+            }
+            if (!product.getActive() || product.isDeleted()) {
+                throw new InvalidDataException("Product " + productId + " is no longer available.");
+            }
+            if (product.getSku() < change) {
+                throw new InvalidDataException("Not enough stock available for product " + productId + ".");
+            }
+        });
+
+        // Rows are locked, so plain entity updates are safe here
+        for (Product product : products) {
+            product.setSku(product.getSku() - changes.get(product.getId()));
+        }
+    }
+
+    /**
+     * Atomically returns the given quantity to stock and takes it off the
+     * user's reservation. Only what the reservation still holds is returned:
+     * if the expiry sweep already released it, the units are back in stock and
+     * must not be added a second time. Must run inside the caller's transaction.
+     *
+     * @param userId    The ID of the user whose cart held the stock.
+     * @param productId The ID of the product to release.
+     * @param quantity  The quantity to give back.
+     */
+    @Override
+    public void releaseStock(int userId, int productId, int quantity) {
+        if (quantity > 0) {
+            List<StockReservation> reservations = stockReservationRepository.findForUpdate(userId, List.of(productId));
+            takeReserved(reservations, Map.of(productId, quantity), null).forEach(productRepository::incrementStock);
+        }
+    }
+
+    /**
+     * Takes up to the given quantities off the user's locked reservations,
+     * deleting the ones that run empty.
+     *
+     * @param reservations  The user's reservations, locked by the caller.
+     * @param reservedUntil The new deadline of reservations with quantity left, or null to keep it.
+     * @return The quantity actually taken per product id; products without a reservation are absent.
+     */
+    private Map<Integer, Integer> takeReserved(List<StockReservation> reservations, Map<Integer, Integer> quantities,
+                                               LocalDateTime reservedUntil) {
+        Map<Integer, Integer> taken = new HashMap<>();
+        if (quantities.isEmpty()) {
+            return taken;
+        }
+
+        Map<Integer, Integer> remaining = new HashMap<>(quantities);
+        List<StockReservation> emptied = new ArrayList<>();
+        for (StockReservation reservation : reservations) {
+            int quantity = Math.min(remaining.getOrDefault(reservation.getProductId(), 0), reservation.getQuantity());
+            if (quantity <= 0) {
+                continue;
+            }
+            remaining.merge(reservation.getProductId(), -quantity, Integer::sum);
+            taken.merge(reservation.getProductId(), quantity, Integer::sum);
+            if (quantity == reservation.getQuantity()) {
+                emptied.add(reservation);
+            } else {
+                // Rows are locked, so plain entity updates are safe here
+                reservation.setQuantity(reservation.getQuantity() - quantity);
+                if (reservedUntil != null) {
+                    reservation.setReservedUntil(reservedUntil);
+                }
+            }
+        }
+        stockReservationRepository.deleteAllInBatch(emptied);
+        return taken;
+    }
+
+    // Adds to the user's reservation of a product and moves its deadline, creating the row if needed
+    private void recordReservation(int userId, int productId, int quantity, LocalDateTime reservedUntil) {
+        if (stockReservationRepository.addQuantity(userId, productId, quantity, reservedUntil) == 0) {
+            // Flushed now so the row is written before the caller locks the product
+            stockReservationRepository.saveAndFlush(newReservation(userId, productId, quantity, reservedUntil));
+        }
+    }
+
+    private static StockReservation newReservation(int userId, int productId, int quantity, LocalDateTime reservedUntil) {
+        StockReservation reservation = new StockReservation();
+        reservation.setUserId(userId);
+        reservation.setProductId(productId);
+        reservation.setQuantity(quantity);
+        reservation.setReservedUntil(reservedUntil);
+        return reservation;
+    }
+
+    /**
+     * Returns the stock of every item of an order, e.g. when it is cancelled.
+     * <p>
+     * All products are updated by one set-based UPDATE, however many lines the
+     * order has. Must run inside the caller's transaction.
+     * </p>
+     *
+     * @param orderId The ID of the order whose items go back to stock.
+     */
+    @Override
+    public void releaseOrderStock(int orderId) {
+        productRepository.restoreStockForOrder(orderId);
+    }
+
+    /**
+     * Releases the stock held by abandoned carts.
+     * <p>
+     * Expired reservations are handled in chunks of at most
+     * inventory.reservation.sweep-chunk-size rows, each in its own short
+     * transaction: the chunk is locked, returned to stock with one UPDATE per
+     * product and deleted, so the sweep never holds locks on every expired row
+     * at once. Only once every chunk has committed are the matching lines
+     * dropped from the cart store; after a failed chunk the carts are left
+     * for the next run, which also picks up the reservations still held.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:60000}")
+    @Override
+    public void releaseExpiredReservations() {
+        LocalDateTime now = LocalDateTime.now();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> {
+                List<StockReservation> expired =
+                        stockReservationRepository.findExpiredForUpdate(now, PageRequest.ofSize(sweepChunkSize));
+
+                // Summed per product so each product row is touched once
+                Map<Integer, Integer> quantities = new HashMap<>();
+                for (StockReservation reservation : expired) {
+                    quantities.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+                }
+                quantities.forEach(productRepository::incrementStock);
+                stockReservationRepository.deleteAllInBatch(expired);
+                return expired.size();
+            });
+        } while (chunk == sweepChunkSize);
+
+        cartStore.removeExpired(now);
+    }
+}
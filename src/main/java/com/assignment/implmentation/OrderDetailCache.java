@@ -0,0 +1,51 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.OrderDetailDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, short-lived cache of order details keyed by order id.
+ * <p>
+ * The order page is usually opened right after checkout and refreshed a few
+ * times, so details are kept for a short while with least-recently-used
+ * eviction. Code that changes an order (status, payment) should call
+ * {@link #evict(int)} so the next read sees the committed state.
+ * </p>
+ */
+@Component
+public class OrderDetailCache {
+
+    private final BoundedTtlCache<Integer, Entry> entries;
+
+    public OrderDetailCache(@Value("${order.detail-cache.max-size:10000}") int maxSize,
+                            @Value("${order.detail-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.entries = new BoundedTtlCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    /**
+     * Returns the cached detail of an order if it belongs to the given user.
+     *
+     * @return The detail, or null on a miss.
+     */
+    public OrderDetailDTO get(int orderId, int userId) {
+        Entry entry = entries.get(orderId);
+        return entry != null && entry.userId == userId ? entry.detail : null;
+    }
+
+    public void put(int userId, OrderDetailDTO detail) {
+        entries.put(detail.getId(), new Entry(userId, detail));
+    }
+
+    /**
+     * Evicts an order now and, inside a transaction, again after commit, so a
+     * read racing with the transaction cannot leave the old state cached.
+     */
+    public void evict(int orderId) {
+        entries.remove(orderId);
+        TransactionHooks.afterCompletion(() -> entries.remove(orderId));
+    }
+
+    private record Entry(int userId, OrderDetailDTO detail) {
+    }
+}
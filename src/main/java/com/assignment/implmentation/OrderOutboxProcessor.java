@@ -0,0 +1,231 @@
+package com.assignment.implmentation;
+
+import com.assignment.entites.*;
+import com.assignment.repository.*;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the order bookkeeping that does not have to block checkout.
+ * <p>
+ * Checkout commits the order, its items, the wallet debit and an outbox row in
+ * one transaction. Once that commits the event is handed to a virtual-thread
+ * worker, which records the Payment and Transaction and writes the OrderAudit.
+ * The worker locks the order row, so a cancellation either waits for it or has
+ * already committed, in which case no payment is recorded for the refunded
+ * order. Each event is claimed with a conditional UPDATE in the worker's own
+ * transaction, so it is handled once even if it is dispatched twice. Failed
+ * events are retried with exponential backoff. A scheduled poll picks up
+ * retries and anything that was not dispatched, e.g. after a restart.
+ * </p>
+ */
+@Component
+public class OrderOutboxProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderOutboxProcessor.class);
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    @Autowired
+    OrderOutboxRepository orderOutboxRepository;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    TransactionRepository transactionRepository;
+
+    @Autowired
+    PaymentRepository paymentRepository;
+
+    @Autowired
+    OrderAuditRepository orderAuditRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    OrderDetailCache orderDetailCache;
+
+    @Value("${order.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${order.outbox.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${order.outbox.batch-size:100}")
+    private int batchSize;
+
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Virtual threads are cheap, database connections are not
+    private final Semaphore permits;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public OrderOutboxProcessor(@Value("${order.outbox.max-concurrency:8}") int maxConcurrency) {
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Records an event for the order in the current transaction and dispatches it once that commits.
+     *
+     * @param order     The order the event belongs to; must already be persisted.
+     * @param eventType The event type, e.g. ORDER_PLACED.
+     */
+    public void enqueue(Order order, String eventType) {
+        OrderOutboxEvent event = new OrderOutboxEvent();
+        event.setOrderId(order.getId());
+        event.setEventType(eventType);
+        event.setNextAttemptAt(LocalDateTime.now());
+        orderOutboxRepository.save(event);
+
+        TransactionHooks.afterCommit(() -> dispatch(event.getId()));
+    }
+
+    /**
+     * Dispatches events that are due: retries, and events whose immediate dispatch was lost.
+     */
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        for (Long id : orderOutboxRepository.findDueIds(LocalDateTime.now(), PageRequest.of(0, batchSize))) {
+            dispatch(id);
+        }
+    }
+
+    private void dispatch(long id) {
+        if (!inFlight.add(id)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        process(id);
+                    } finally {
+                        permits.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.remove(id);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Shutting down; the poll picks the event up after restart
+            inFlight.remove(id);
+        }
+    }
+
+    private void process(long id) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (orderOutboxRepository.claim(id, LocalDateTime.now()) == 0) {
+                    return;  // already handled
+                }
+                OrderOutboxEvent event = orderOutboxRepository.findById(id).orElseThrow();
+                handle(event);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Order outbox event {} failed", id, e);
+            transactionTemplate.executeWithoutResult(status -> recordFailure(id, e));
+        }
+    }
+
+    private void handle(OrderOutboxEvent event) {
+        Order order = orderRepository.findByIdForUpdate(event.getOrderId())
+                .orElseThrow(() -> new IllegalStateException("Order " + event.getOrderId() + " not found"));
+
+        switch (event.getEventType()) {
+            case OrderOutboxEvent.ORDER_PLACED -> {
+                recordPayment(order);
+                orderDetailCache.evict(order.getId());
+                saveOrderAudit(order, "ORDER_PLACED", "Order successfully placed with total amount: " + order.getTotalAmount());
+            }
+            default -> throw new IllegalStateException("Unknown order outbox event type " + event.getEventType());
+        }
+    }
+
+    // Payment bookkeeping for a wallet checkout; the wallet itself was debited at checkout
+    private void recordPayment(Order order) {
+        if (order.getPayment() != null) {
+            return;
+        }
+        if (!"PLACED".equals(order.getStatus())) {
+            // Cancelled since checkout: the cancellation already refunded the debit
+            log.info("Skipping payment of order {}, which is {}", order.getId(), order.getStatus());
+            return;
+        }
+
+        Transaction transaction = new Transaction();
+        transaction.setAmount(order.getTotalAmount());
+        transaction.setTransactionStatus(true);
+        transaction.setTransactionDate(order.getOrderDate());
+
+        Payment payment = new Payment();
+        payment.setAmountPaid(order.getTotalAmount());
+        payment.setPaymentDate(order.getOrderDate());
+        payment.setPaymentMethod("WALLET");
+        payment.setTransaction(transaction);
+
+        transactionRepository.save(transaction);
+        paymentRepository.save(payment);
+        order.setPayment(payment);
+    }
+
+    private void saveOrderAudit(Order order, String action, String details) {
+        OrderAudit audit = new OrderAudit();
+        audit.setOrder(order);
+        audit.setUser(order.getUser());
+        audit.setAction(action);
+        audit.setDetails(details);
+        orderAuditRepository.save(audit);
+    }
+
+    private void recordFailure(long id, RuntimeException error) {
+        orderOutboxRepository.findById(id)
+                .filter(event -> OrderOutboxEvent.PENDING.equals(event.getStatus()))
+                .ifPresent(event -> {
+                    int attempts = event.getAttempts() + 1;
+                    event.setAttempts(attempts);
+                    event.setLastError(truncate(String.valueOf(error.getMessage())));
+
+                    if (attempts >= maxAttempts) {
+                        event.setStatus(OrderOutboxEvent.FAILED);
+                        log.error("Order outbox event {} for order {} gave up after {} attempts", id, event.getOrderId(), attempts);
+                    } else {
+                        long backoffMs = Math.min(retryBackoffMs << Math.min(attempts - 1, 20), MAX_BACKOFF.toMillis());
+                        event.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoffMs)));
+                    }
+                });
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -1,22 +1,36 @@
 package com.assignment.implmentation;
 
+import com.assignment.DTO.CartItemDTO;
+import com.assignment.DTO.CartLine;
 import com.assignment.DTO.OrderDTO;
-import com.assignment.config.JWTService;
+import com.assignment.DTO.OrderDetailDTO;
 import com.assignment.entites.*;
 import com.assignment.exception.InvalidDataException;
 import com.assignment.exception.ResourceNotFoundException;
 import com.assignment.repository.*;
+import com.assignment.services.CartStore;
+import com.assignment.services.InventoryService;
 import com.assignment.services.OrderService;
+import com.assignment.services.WalletLedgerService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Implementation of the OrderService interface.
@@ -27,25 +41,24 @@ import java.util.stream.Collectors;
  */
 @Service
 public class OrderServiceImpl implements OrderService {
-    @Autowired
-    private OrderRepository orderRepository;
 
-    @Autowired
-    private UserRepository userRepository;
+    private static final int DEFAULT_PAGE_SIZE = 20;
 
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Autowired
-    private OrderItemRepository orderItemRepository;
+    private OrderRepository orderRepository;
 
 
     @Autowired
-    private JWTService jwtService;
+    private OrderItemRepository orderItemRepository;
+
 
     @Autowired
     private WalletRepository walletRepository;
 
     @Autowired
-    private CartRepository cartRepository;
+    private CartStore cartStore;
 
     @Autowired
     private PromoCodeRepository promoCodeRepository;
@@ -53,41 +66,54 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private TransactionRepository transactionRepository;
 
-    @Autowired
-    private PaymentRepository paymentRepository;
-
     @Autowired
     private OrderAuditRepository orderAuditRepository;
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private WalletLedgerService walletLedgerService;
+
+    @Autowired
+    private OrderOutboxProcessor orderOutboxProcessor;
+
+    @Autowired
+    private OrderDetailCache orderDetailCache;
+
+    @Autowired
+    private PromoEngine promoEngine;
+
+    @Autowired
+    private PromoRedemptionLimiter promoRedemptionLimiter;
+
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
     /**
      * Places an order for the current authenticated user.
      * Validates user, cart, and promo code before placing the order. Deducts wallet balance
-     * and records the transaction, then creates order and order items.
+     * and creates order and order items.
+     * <p>
+     * Runs as a single transaction: all inserts are flushed together at commit, which lets
+     * Hibernate group them into JDBC batches, and any failure rolls the whole checkout back.
+     * Only the order, its items, the wallet debit and an outbox event are written here; the
+     * Payment/Transaction records and the audit log are written asynchronously by the
+     * OrderOutboxProcessor after commit.
+     * </p>
      *
-     * @param authorizationHeader Authorization header containing the JWT token.
+     * @param user                The authenticated user.
      * @param promoCode           Optional promo code for discount.
      * @return ResponseEntity containing success message and order ID.
      */
     @Override
-    public ResponseEntity<Object> placeOrder(String authorizationHeader, String promoCode) {
-
-
-        String token = authorizationHeader.replace("Bearer ", "");
-        String username = jwtService.extractUserName(token);
-        User currentUser = userRepository.findByUsername(username);
-
-        // ✅ Check if user exists
-        if (currentUser == null) {
-            throw new ResourceNotFoundException("User not found!");
-        }
-
-        // ✅ Get user with address and phone check
-        User user = userRepository.findById(currentUser.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found!"));
+    @Transactional
+    public ResponseEntity<Object> placeOrder(User user, String promoCode) {
 
+        // ✅ Address and phone check
         if (user.getAddress() == null || user.getAddress().isEmpty()) {
             throw new InvalidDataException("Address is required to place an order!");
         }
@@ -96,119 +122,105 @@ public class OrderServiceImpl implements OrderService {
             throw new InvalidDataException("Phone number is required to place an order!");
         }
 
-        // ✅ Get user's wallet and cart
+        // ✅ Get user's wallet
         Wallet wallet = walletRepository.findByUser(user)
                 .orElseThrow(() -> new ResourceNotFoundException("User wallet not found!"));
 
-        Cart cart = Optional.ofNullable(cartRepository.findByUser(user))
-                .orElseThrow(() -> new InvalidDataException("Cart not found!"));
-
-        if (cart.getCartItems().isEmpty()) {
+        // ✅ Take the cart lines atomically so a parallel checkout can't order them a second time
+        Map<Integer, CartLine> lines = cartStore.takeAll(user.getId());
+        if (lines.isEmpty()) {
             throw new InvalidDataException("Cart is empty!");
         }
+        restoreCartOnRollback(user.getId(), lines);
 
-        // ✅ Calculate total amount
-        double totalAmount = 0.0;
-        for (CartItem cartItem : cart.getCartItems()) {
-            totalAmount += cartItem.getProduct().getPrice() * cartItem.getQuantity();
-        }
+        // ✅ Load all products in one query, priced at their current price
+        Map<Integer, Product> products = CartServiceImpl.loadProducts(productRepository, lines);
+        List<CartItemDTO> cartItems = CartServiceImpl.toCartItemDTOs(lines, products);
 
-        // ✅ Check and apply promo code if provided
-        PromoCode activePromoCode = null;
-        if (promoCode != null && !promoCode.trim().isEmpty()) {
-            activePromoCode = promoCodeRepository.findByCode(promoCode)
-                    .orElseThrow(() -> new ResourceNotFoundException("Promo code not found!"));
+        // ✅ The ordered quantities leave the user's stock reservations
+        Map<Integer, Integer> orderedQuantities = new HashMap<>();
+        for (CartItemDTO cartItem : cartItems) {
+            orderedQuantities.put(cartItem.getProductId(), cartItem.getQuantity());
+        }
+        inventoryService.consumeReservations(user.getId(), orderedQuantities);
 
-            if (!activePromoCode.getActive()) {
-                throw new InvalidDataException("Promo code is not active!");
+        // ✅ Lines whose product is gone are not ordered; their reservations are released with the checkout
+        lines.forEach((productId, line) -> {
+            if (!products.containsKey(productId)) {
+                inventoryService.releaseStock(user.getId(), productId, line.getQuantity());
             }
+        });
 
-            if (activePromoCode.getExpiryDate() != null && activePromoCode.getExpiryDate().isBefore(LocalDate.now())) {
-                throw new InvalidDataException("Promo code has expired!");
+        // ✅ Calculate total amount; the summary also serves the promo rules
+        CartSummary cartSummary = CartSummary.of(cartItems, categoryTreeCache.get());
+        double totalAmount = cartSummary.getSubtotal();
+
+        // ✅ Check and apply promo code if provided, from the in-memory rule index
+        PromoRule promoRule = null;
+        if (promoCode != null && !promoCode.trim().isEmpty()) {
+            promoRule = promoEngine.find(promoCode);
+            if (promoRule == null) {
+                throw new ResourceNotFoundException("Promo code not found!");
             }
 
-            if (totalAmount < activePromoCode.getMinOrderAmount()) {
-                throw new InvalidDataException("Total amount does not meet the minimum order amount for this promo code!");
+            String rejectionReason = promoRule.rejectionReason(totalAmount, LocalDate.now());
+            if (rejectionReason != null) {
+                throw new InvalidDataException(rejectionReason);
             }
 
+            // ✅ Enforce usage limits; handed back automatically if the checkout rolls back
+            promoRedemptionLimiter.redeem(promoRule, user.getId());
+
             // ✅ Apply the discount if applicable
-            if (activePromoCode.getProductSpecific() && activePromoCode.getProduct() != null) {
-                for (CartItem cartItem : cart.getCartItems()) {
-                    if (cartItem.getProduct().equals(activePromoCode.getProduct())) {
-                        totalAmount -= cartItem.getProduct().getPrice() * cartItem.getQuantity() * (activePromoCode.getDiscountPercentage() / 100);
-                        break; // Apply discount only once
-                    }
-                }
-            } else {
-                // ✅ Apply general discount if promo code is valid
-                totalAmount -= totalAmount * (activePromoCode.getDiscountPercentage() / 100);
-            }
+            totalAmount -= promoRule.discount(cartSummary);
         }
 
-        // ✅ Create transaction (initially set as failed)
-        Transaction transaction = new Transaction();
-        transaction.setAmount(totalAmount);
-        transaction.setTransactionStatus(false);
-        transaction.setTransactionDate(LocalDate.now());
-        transactionRepository.save(transaction);
+        // ✅ Charge in exact cents; the order records the same rounded amount
+        BigDecimal amountDue = BigDecimal.valueOf(totalAmount).setScale(2, RoundingMode.HALF_UP);
+        totalAmount = amountDue.doubleValue();
 
-        // ✅ Check if wallet balance is sufficient
-        if (wallet.getBalance() < totalAmount) {
+        // ✅ Cheap early exit; the conditional debit below is what actually guards the balance
+        if (wallet.getBalance().compareTo(amountDue) < 0) {
             throw new InvalidDataException("Insufficient wallet balance!");
         }
 
-        // ✅ Deduct order total from wallet balance
-        wallet.setBalance(wallet.getBalance() - totalAmount);
-        walletRepository.save(wallet);
+        LocalDate today = LocalDate.now();
 
-        // ✅ Create the order
+        // ✅ Create the order; its payment record is added by the outbox processor
         Order order = new Order();
         order.setUser(user);
         order.setTotalAmount(totalAmount);
         order.setStatus("PLACED");
-        order.setOrderDate(LocalDate.now());
+        order.setOrderDate(today);
         order.setAddress(user.getAddress());
         order.setPhoneNumber(user.getPhoneNumber());
 
-        // ✅ Set promo code if applied
-        if (activePromoCode != null) {
-            order.setPromoCode(activePromoCode);
+        // ✅ Set promo code if applied (a reference, the code is not loaded)
+        if (promoRule != null) {
+            order.setPromoCode(promoCodeRepository.getReferenceById(promoRule.getId()));
         }
 
-        orderRepository.save(order);
-
-        // ✅ Save audit log
-        saveOrderAudit(order, user, "ORDER_PLACED", "Order successfully placed with total amount: " + totalAmount);
-
-        // ✅ Create OrderItems for each item in the cart
-        for (CartItem cartItem : cart.getCartItems()) {
+        // ✅ Create OrderItems for each item in the cart (cascaded with the order)
+        List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
+        for (CartItemDTO cartItem : cartItems) {
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
-            orderItem.setProduct(cartItem.getProduct());
+            orderItem.setProduct(products.get(cartItem.getProductId()));
             orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setPrice(cartItem.getProduct().getPrice());
-            orderItemRepository.save(orderItem);
+            orderItem.setPrice(cartItem.getPrice());
+            orderItems.add(orderItem);
         }
+        order.setOrderItems(orderItems);
 
-        // ✅ Create payment record
-        Payment payment = new Payment();
-        payment.setAmountPaid(totalAmount);
-        payment.setPaymentDate(LocalDate.now());
-        payment.setPaymentMethod("WALLET");
-        payment.setTransaction(transaction);
-        paymentRepository.save(payment);
-
-        // ✅ Link payment to order
-        order.setPayment(payment);
         orderRepository.save(order);
 
-        // ✅ Update transaction status to success
-        transaction.setTransactionStatus(true);
-        transactionRepository.save(transaction);
+        // ✅ Deduct order total from wallet balance; rolls the checkout back if a parallel order got there first
+        if (amountDue.signum() > 0) {
+            walletLedgerService.debit(wallet.getId(), amountDue, WalletLedgerEntry.ORDER_PAYMENT, order);
+        }
 
-        // ✅ Clear the user's cart after order
-        cart.getCartItems().clear();
-        cartRepository.save(cart);
+        // ✅ Payment bookkeeping and audit log run after commit
+        orderOutboxProcessor.enqueue(order, OrderOutboxEvent.ORDER_PLACED);
 
         // ✅ Return success message
         return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
@@ -217,6 +229,11 @@ public class OrderServiceImpl implements OrderService {
         ));
     }
 
+    // ✅ The cart was emptied up front; give the lines back if the order doesn't commit
+    private void restoreCartOnRollback(int userId, Map<Integer, CartLine> lines) {
+        TransactionHooks.afterRollback(() -> cartStore.restore(userId, lines));
+    }
+
     // ✅ Save order audit log
     private void saveOrderAudit(Order order, User user, String action, String details) {
         OrderAudit audit = new OrderAudit();
@@ -230,63 +247,51 @@ public class OrderServiceImpl implements OrderService {
     /**
      * Cancels an order by its ID and processes a refund to the user's wallet.
      * <p>
-     * Validates user authorization and order status before initiating cancellation.
+     * Everything happens in one transaction. The status moves from PLACED to CANCELLED
+     * with a conditional UPDATE, so only one of two concurrent cancellations succeeds and
+     * only placed orders are refunded. Stock for all items is restored with a single
+     * set-based UPDATE and the refund is an atomic ledger credit.
      * </p>
      *
-     * @param authorizationHeader Authorization header containing the JWT token.
+     * @param currentUser         The authenticated user.
      * @param orderId             ID of the order to be cancelled.
      * @return ResponseEntity containing success message and order ID.
+     * @throws ResourceNotFoundException if the order or the user's wallet does not exist.
+     * @throws InvalidDataException if the order belongs to another user or is not PLACED.
      */
     @Override
-    public ResponseEntity<Object> cancelOrder(String authorizationHeader, int orderId) {
+    @Transactional
+    public ResponseEntity<Object> cancelOrder(User currentUser, int orderId) {
 
-        String token = authorizationHeader.replace("Bearer ", "");
-        String username = jwtService.extractUserName(token);
-        User currentUser = userRepository.findByUsername(username);
-
-        if (currentUser == null) {
-            throw new ResourceNotFoundException("User not found!");
-        }
-        // Fetch the order by ID
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found!"));
-
-        // Ensure the order belongs to the current user
-        if (!order.getUser().equals(currentUser)) {
-            throw new InvalidDataException("You are not authorized to cancel this order!");
+        // ✅ Change the status only if the order is the user's and still PLACED
+        if (orderRepository.cancelIfPlaced(orderId, currentUser.getId(), LocalDateTime.now()) == 0) {
+            throw cancellationFailure(currentUser, orderId);
         }
+        orderDetailCache.evict(orderId);
 
-        // Check if the order is already cancelled
-        if (order.getStatus().equals("CANCELLED")) {
-            throw new InvalidDataException("This order has already been cancelled!");
-        }
-
-
-        // Optionally, allow cancellation even if the order is completed
-        if (order.getStatus().equals("PLACED")) {
-            // Change the order status to "CANCELLED"
-            order.setStatus("CANCELLED");
-            order.setOrderDate(LocalDate.now());  // Set cancellation date
-            orderRepository.save(order);  // Save the updated order status
-        }
+        Order order = orderRepository.getReferenceById(orderId);
+        OrderRepository.OrderCharge charge = orderRepository.findChargeById(orderId);
+        Double totalAmount = charge.getTotalAmount();
 
         // Refund the wallet balance
-        Wallet wallet = walletRepository.findByUser(currentUser)
+        int walletId = walletRepository.findIdByUserId(currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User wallet not found!"));
-        wallet.setBalance(wallet.getBalance() + order.getTotalAmount());
-        walletRepository.save(wallet);
+        BigDecimal refund = BigDecimal.valueOf(totalAmount).setScale(2, RoundingMode.HALF_UP);
+        if (refund.signum() > 0) {
+            walletLedgerService.credit(walletId, refund, WalletLedgerEntry.ORDER_REFUND, order);
+        }
 
+        // ✅ Return the stock of all order items in one statement
+        inventoryService.releaseOrderStock(orderId);
 
-        // Update the product stock in the cart items of the cancelled order
-        for (OrderItem orderItem : order.getOrderItems()) {
-            Product product = orderItem.getProduct();
-            product.setSku(product.getSku() + orderItem.getQuantity()); // Increase the stock
-            productRepository.save(product); // Save the updated product stock
+        // ✅ Give the promo code redemption back once the cancellation commits
+        if (charge.getPromoCodeId() != null) {
+            promoRedemptionLimiter.release(charge.getPromoCodeId(), currentUser.getId());
         }
 
         // Create a transaction to log the refund (optional)
         Transaction refundTransaction = new Transaction();
-        refundTransaction.setAmount(order.getTotalAmount());
+        refundTransaction.setAmount(totalAmount);
         refundTransaction.setTransactionStatus(true);
         refundTransaction.setTransactionDate(LocalDate.now());
         transactionRepository.save(refundTransaction);
@@ -296,48 +301,116 @@ public class OrderServiceImpl implements OrderService {
 
         return ResponseEntity.ok(Map.of(
                 "message", "Order cancelled successfully and amount refunded to your wallet.",
-                "orderId", order.getId()
+                "orderId", orderId
         ));
     }
 
+    // Works out why the conditional cancel matched no row
+    private RuntimeException cancellationFailure(User currentUser, int orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found!"));
+
+        // Ensure the order belongs to the current user
+        if (order.getUser().getId() != currentUser.getId()) {
+            return new InvalidDataException("You are not authorized to cancel this order!");
+        }
+
+        // Check if the order is already cancelled
+        if (order.getStatus().equals("CANCELLED")) {
+            return new InvalidDataException("This order has already been cancelled!");
+        }
+        return new InvalidDataException("Only placed orders can be cancelled!");
+    }
+
     /**
-     * Retrieves all orders for the authenticated user.
+     * Retrieves one page of the authenticated user's order history, newest first.
      * <p>
-     * The orders are mapped into OrderDTO objects for a simplified response.
+     * Only the OrderDTO columns are selected, through a constructor-projection query
+     * on the (user_id, order_date, id) index. Pages use keyset (cursor) pagination:
+     * each page continues after the last order of the previous one instead of using
+     * an offset, so a page costs the same however long the history is.
      * </p>
      *
-     * @param authorizationHeader The HTTP Authorization header containing the Bearer token.
-     * @return ResponseEntity containing a list of orders or a message if no orders exist.
+     * @param currentUser The authenticated user.
+     * @param limit       The page size, defaults to 20.
+     * @param cursor      The nextCursor of the previous page, or null for the first page.
+     * @return ResponseEntity containing the orders and the cursor of the next page
+     * (null on the last page), or a message if the user has no orders.
+     * @throws InvalidDataException if the limit or cursor is invalid.
      */
     @Override
-    public ResponseEntity<Object> getOrders(String authorizationHeader) {
-
-        // Extract the token and get the username
-        String token = authorizationHeader.replace("Bearer ", "");
-        String username = jwtService.extractUserName(token);
-
-        // Fetch user from the repository
-        User currentUser = userRepository.findByUsername(username);
-
-        if (currentUser == null) {
-            throw new ResourceNotFoundException("User not found!");
+    public ResponseEntity<Object> getOrders(User currentUser, Integer limit, String cursor) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new InvalidDataException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
         }
 
-        // Fetch all orders associated with the user
-        List<Order> orders = orderRepository.findByUser(currentUser);
+        // Fetch one extra row to know whether another page follows
+        Pageable page = PageRequest.ofSize(pageSize + 1);
+        List<OrderDTO> orderDTOs;
+        if (cursor == null) {
+            orderDTOs = orderRepository.findHistory(currentUser.getId(), page);
+        } else {
+            OrderDTO last = decodeCursor(cursor);
+            orderDTOs = orderRepository.findHistoryAfter(currentUser.getId(), last.getOrderDate(), last.getId(), page);
+        }
 
         // Check if the user has no orders
-        if (orders.isEmpty()) {
+        if (orderDTOs.isEmpty() && cursor == null) {
             return ResponseEntity.ok(Map.of("message", "No orders found!"));
         }
 
+        boolean hasNext = orderDTOs.size() > pageSize;
+        if (hasNext) {
+            orderDTOs = orderDTOs.subList(0, pageSize);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("orders", orderDTOs);
+        response.put("nextCursor", hasNext ? encodeCursor(orderDTOs.get(pageSize - 1)) : null);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Retrieves one order of the authenticated user with its items, promo code and payment.
+     * <p>
+     * The detail is assembled from two projection queries, one for the order with its
+     * promo code and payment and one for the items with their products, and kept in a
+     * short-lived cache since the order page is typically reloaded right after checkout.
+     * </p>
+     *
+     * @param currentUser The authenticated user.
+     * @param orderId     The ID of the order.
+     * @return ResponseEntity containing the order detail.
+     * @throws ResourceNotFoundException if the order does not exist or belongs to another user.
+     */
+    @Override
+    public ResponseEntity<Object> getOrder(User currentUser, int orderId) {
+        OrderDetailDTO detail = orderDetailCache.get(orderId, currentUser.getId());
+        if (detail == null) {
+            detail = orderRepository.findDetail(orderId, currentUser.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found!"));
+            detail.setItems(orderItemRepository.findDetailsByOrderId(orderId));
+            orderDetailCache.put(currentUser.getId(), detail);
+        }
+        return ResponseEntity.ok(detail);
+    }
 
-        // Map the orders to OrderDTO
-        List<OrderDTO> orderDTOs = orders.stream().map(order ->
-                new OrderDTO(order.getId(), order.getTotalAmount(), order.getStatus(), order.getOrderDate())
-        ).collect(Collectors.toList());
+    // The cursor is the (orderDate, id) keyset of the last order, as URL-safe Base64
+    private static String encodeCursor(OrderDTO last) {
+        String keys = last.getOrderDate() + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(keys.getBytes(StandardCharsets.UTF_8));
+    }
 
-        // Return the list of OrderDTOs
-        return ResponseEntity.ok(Map.of("orders", orderDTOs));
+    private static OrderDTO decodeCursor(String cursor) {
+        try {
+            String[] keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (keys.length != 2) {
+                throw new InvalidDataException("Invalid cursor.");
+            }
+            return new OrderDTO(Integer.parseInt(keys[1]), null, null, LocalDate.parse(keys[0]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidDataException("Invalid cursor.");
+        }
     }
 }
@@ -0,0 +1,107 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.ProductDTO;
+import com.assignment.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory snapshot of the product catalog served by GET /products/catalog.
+ * <p>
+ * The snapshot holds the already serialized JSON response and a strong ETag
+ * derived from it. Like the paged GET /products, it only lists active,
+ * non-deleted products. It is built on first use from a single fetch-join query and
+ * dropped whenever a product is saved, updated or deleted. Stock reservations
+ * made by carts do not invalidate it, so the listed SKU is informational; the
+ * inventory service remains the authority at add-to-cart time.
+ * </p>
+ */
+@Component
+public class ProductCatalogCache {
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final VersionedSnapshot<Snapshot> snapshot = new VersionedSnapshot<>(this::build);
+
+    /**
+     * Returns the current snapshot, building it if it was invalidated.
+     *
+     * @return The serialized catalog and its ETag.
+     */
+    public Snapshot get() {
+        return snapshot.get();
+    }
+
+    /**
+     * Drops the current snapshot so the next read rebuilds it. Inside a
+     * transaction it is dropped again after it completes, so a read racing with
+     * the transaction cannot keep the old catalog.
+     */
+    public void invalidate() {
+        snapshot.invalidate();
+        TransactionHooks.afterCompletion(snapshot::invalidate);
+    }
+
+    private Snapshot build() {
+        List<ProductDTO> productDTOs = productRepository.findAllListedWithCategory().stream()
+                .map(ProductServiceImp::toProductDTO)
+                .toList();
+
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(Map.of("products", productDTOs));
+            return new Snapshot(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final class Snapshot {
+        private final byte[] body;
+        private final String eTag;
+
+        private Snapshot(byte[] body, String eTag) {
+            this.body = body;
+            this.eTag = eTag;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        /**
+         * Checks an If-None-Match header against this snapshot's ETag.
+         *
+         * @param ifNoneMatch The raw header value, may be null.
+         * @return true if the client already holds this version.
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(eTag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
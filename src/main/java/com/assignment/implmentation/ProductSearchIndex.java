@@ -0,0 +1,674 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.CategoryDTO;
+import com.assignment.DTO.CategoryFacetDTO;
+import com.assignment.DTO.PriceFacetDTO;
+import com.assignment.DTO.ProductDTO;
+import com.assignment.entites.Product;
+import com.assignment.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process inverted index over the names and category names of listed
+ * (active, not deleted) products, serving GET /products/search.
+ * <p>
+ * Names are split into lower-cased words. Each word maps to a sorted array of
+ * product ids, with a flag per product telling whether the word is in the
+ * product name, its category name or both. The dictionary is sorted, so the
+ * last, possibly incomplete word of a query is expanded to every word it
+ * prefixes. Products must contain every query word; they are ranked by a
+ * BM25-style weight of the matched words (name above category, whole words
+ * above prefix expansions), favouring short names and names starting with the
+ * first query word. Category and price facets are counted over all matches.
+ * </p>
+ * <p>
+ * The index is loaded at startup in id batches and then kept up to date by
+ * product and category writes once they commit. A periodic reconcile re-reads
+ * the products changed since the previous run, which picks up writes made on
+ * other instances and repairs updates applied out of order. Posting arrays are
+ * replaced, never modified, so searches run without locks alongside a write.
+ * </p>
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    static final byte IN_NAME = 1;
+    static final byte IN_CATEGORY = 2;
+
+    private static final float NAME_WEIGHT = 2.0f;
+    private static final float CATEGORY_WEIGHT = 1.0f;
+    private static final float PREFIX_WEIGHT = 0.6f;
+    private static final float LEADING_WORD_BOOST = 1.5f;
+
+    // Lower bounds of the price facet ranges; the last range is open-ended
+    private static final double[] PRICE_RANGES = {0, 25, 50, 100, 250, 500, 1000};
+
+    private static final int CATEGORY_FACET_LIMIT = 20;
+
+    // Best first: higher score, then lower product id
+    static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparingInt(hit -> hit.product().getId());
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    CategoryTreeCache categoryTreeCache;
+
+    private final int maxPrefixTerms;
+
+    private final int loadBatchSize;
+
+    // How far before the previous run a reconcile looks, to catch transactions that committed late
+    @Value("${search.index.reconcile-lookback-ms:300000}")
+    private long reconcileLookbackMillis;
+
+    private volatile LocalDateTime reconciledAt;
+
+    private final ConcurrentSkipListMap<String, Postings> postings = new ConcurrentSkipListMap<>();
+
+    private final Map<Integer, Doc> docs = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Set<Integer>> docsByCategory = new ConcurrentHashMap<>();
+
+    public ProductSearchIndex(@Value("${search.index.max-prefix-terms:64}") int maxPrefixTerms,
+                              @Value("${search.index.load-batch-size:5000}") int loadBatchSize) {
+        this.maxPrefixTerms = maxPrefixTerms;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    /**
+     * Indexes every listed product, reading them in batches of ascending id so
+     * each word's product ids can simply be appended.
+     */
+    @PostConstruct
+    public synchronized void load() {
+        long started = System.currentTimeMillis();
+        reconciledAt = LocalDateTime.now();
+        Map<String, PostingsBuilder> builders = new HashMap<>();
+        int afterId = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findListedAfter(afterId, PageRequest.of(0, loadBatchSize));
+            for (Product product : batch) {
+                Doc doc = Doc.of(ProductServiceImp.toProductDTO(product));
+                docs.put(doc.id(), doc);
+                docsByCategory.computeIfAbsent(doc.product().getCategoryId(), id -> ConcurrentHashMap.newKeySet()).add(doc.id());
+                for (int i = 0; i < doc.terms().length; i++) {
+                    builders.computeIfAbsent(doc.terms()[i], term -> new PostingsBuilder()).add(doc.id(), doc.fields()[i]);
+                }
+                afterId = product.getId();
+            }
+        } while (batch.size() == loadBatchSize);
+
+        builders.forEach((term, builder) -> postings.put(term, builder.build()));
+        log.info("Indexed {} products ({} words) in {} ms", docs.size(), postings.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Re-indexes the products changed since the previous run, directly or
+     * through their category, in id batches.
+     */
+    @Scheduled(fixedDelayString = "${search.index.reconcile-interval-ms:60000}",
+            initialDelayString = "${search.index.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime since = reconciledAt.minus(reconcileLookbackMillis, ChronoUnit.MILLIS);
+        int afterId = 0;
+        int changed = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findChangedAfter(since, afterId, PageRequest.of(0, loadBatchSize));
+            SortedMap<Integer, Doc> updates = new TreeMap<>();
+            for (Product product : batch) {
+                boolean listed = product.getActive() && !product.isDeleted();
+                updates.put(product.getId(), listed ? Doc.of(ProductServiceImp.toProductDTO(product)) : null);
+                afterId = product.getId();
+            }
+            apply(updates);
+            changed += batch.size();
+        } while (batch.size() == loadBatchSize);
+        reconciledAt = started;
+        log.debug("Reconciled {} changed products into the search index", changed);
+    }
+
+    /**
+     * Indexes a saved product, or removes it if it is no longer listed. Inside a
+     * transaction this happens only once it commits.
+     *
+     * @param product The product, with its category loaded.
+     */
+    public void update(Product product) {
+        ProductDTO productDTO = ProductServiceImp.toProductDTO(product);
+        boolean listed = product.getActive() && !product.isDeleted();
+        TransactionHooks.afterCommit(() -> {
+            if (listed) {
+                put(Doc.of(productDTO));
+            } else {
+                remove(productDTO.getId());
+            }
+        });
+    }
+
+    /**
+     * Re-indexes the products of a renamed category. Inside a transaction this
+     * happens only once it commits.
+     */
+    public void renameCategory(int categoryId, String name) {
+        TransactionHooks.afterCommit(() -> applyCategoryName(categoryId, name));
+    }
+
+    private synchronized void applyCategoryName(int categoryId, String name) {
+        SortedMap<Integer, Doc> updates = new TreeMap<>();
+        for (Integer docId : docsByCategory.getOrDefault(categoryId, Set.of())) {
+            Doc doc = docs.get(docId);
+            if (doc != null) {
+                ProductDTO renamed = copy(doc.product());
+                renamed.setCategoryName(name);
+                updates.put(docId, Doc.of(renamed));
+            }
+        }
+        apply(updates);
+    }
+
+    /**
+     * Puts or, for a null doc, removes many products at once. Changes are
+     * collected per word first, so every affected posting array is rewritten
+     * once however many of its products change, where a put per product would
+     * copy a word shared by all of them once per product.
+     *
+     * @param updates The new docs keyed by product id, in ascending id order.
+     */
+    private synchronized void apply(SortedMap<Integer, Doc> updates) {
+        // Per word, the products whose flags change, ascending; no flags removes the product
+        Map<String, PostingsBuilder> changes = new HashMap<>();
+        updates.forEach((docId, doc) -> {
+            Doc previous = doc == null ? docs.remove(docId) : docs.put(docId, doc);
+            if (previous != null) {
+                if (doc == null || previous.product().getCategoryId() != doc.product().getCategoryId()) {
+                    removeFromCategory(previous.product().getCategoryId(), docId);
+                }
+                for (String term : previous.terms()) {
+                    if (doc == null || doc.fieldsOf(term) == 0) {
+                        changes.computeIfAbsent(term, key -> new PostingsBuilder()).add(docId, (byte) 0);
+                    }
+                }
+            }
+            if (doc != null) {
+                docsByCategory.computeIfAbsent(doc.product().getCategoryId(), id -> ConcurrentHashMap.newKeySet()).add(docId);
+                for (int i = 0; i < doc.terms().length; i++) {
+                    if (previous == null || previous.fieldsOf(doc.terms()[i]) != doc.fields()[i]) {
+                        changes.computeIfAbsent(doc.terms()[i], key -> new PostingsBuilder()).add(docId, doc.fields()[i]);
+                    }
+                }
+            }
+        });
+        changes.forEach((term, builder) -> postings.compute(term,
+                (key, current) -> (current == null ? Postings.EMPTY : current).merge(builder.build())));
+    }
+
+    // Only the words whose flags changed are rewritten, so a price or stock update touches no postings
+    private synchronized void put(Doc doc) {
+        Doc previous = docs.put(doc.id(), doc);
+        if (previous != null) {
+            if (previous.product().getCategoryId() != doc.product().getCategoryId()) {
+                removeFromCategory(previous.product().getCategoryId(), doc.id());
+            }
+            for (int i = 0; i < previous.terms().length; i++) {
+                if (doc.fieldsOf(previous.terms()[i]) == 0) {
+                    removePosting(previous.terms()[i], doc.id());
+                }
+            }
+        }
+        docsByCategory.computeIfAbsent(doc.product().getCategoryId(), id -> ConcurrentHashMap.newKeySet()).add(doc.id());
+        for (int i = 0; i < doc.terms().length; i++) {
+            if (previous == null || previous.fieldsOf(doc.terms()[i]) != doc.fields()[i]) {
+                putPosting(doc.terms()[i], doc.id(), doc.fields()[i]);
+            }
+        }
+    }
+
+    private synchronized void remove(int productId) {
+        Doc previous = docs.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        removeFromCategory(previous.product().getCategoryId(), productId);
+        for (String term : previous.terms()) {
+            removePosting(term, productId);
+        }
+    }
+
+    private void removeFromCategory(int categoryId, int docId) {
+        Set<Integer> categoryDocs = docsByCategory.get(categoryId);
+        if (categoryDocs != null) {
+            categoryDocs.remove(docId);
+        }
+    }
+
+    private void putPosting(String term, int docId, byte fields) {
+        postings.compute(term, (key, current) -> current == null
+                ? new Postings(new int[]{docId}, new byte[]{fields})
+                : current.with(docId, fields));
+    }
+
+    private void removePosting(String term, int docId) {
+        postings.computeIfPresent(term, (key, current) -> current.without(docId));
+    }
+
+    /**
+     * Searches the listed products.
+     *
+     * @param query      The words to match; the last one is matched as a prefix
+     *                   unless the query ends with a space.
+     * @param categoryId Only products in this category or its subcategories, or null.
+     * @param minPrice   Inclusive lower price bound, or null.
+     * @param maxPrice   Inclusive upper price bound, or null.
+     * @param limit      The maximum number of products returned.
+     * @param after      The last hit of the previous page, or null for the first page.
+     * @return The page of hits, the total number of matches and the facets,
+     * or null if the query contains no word.
+     */
+    public Result search(String query, Integer categoryId, Double minPrice, Double maxPrice, int limit, Hit after) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (words.isEmpty()) {
+            return null;
+        }
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        // Intersect from the rarest word, so the candidate set only shrinks
+        int docCount = Math.max(docs.size(), 1);
+        List<Match> matches = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            boolean prefix = lastIsPrefix && i == words.size() - 1;
+            matches.add(prefix ? matchPrefix(words.get(i), docCount) : matchWord(words.get(i), docCount));
+        }
+        matches.sort(Comparator.comparingInt(Match::size));
+        Match match = matches.get(0);
+        for (int i = 1; i < matches.size() && match.size() > 0; i++) {
+            match = match.intersect(matches.get(i));
+        }
+
+        Set<Integer> categoryIds = categoryId != null ? subtree(categoryId) : null;
+        String leadingWord = words.get(0);
+        Map<Integer, CategoryCount> categoryCounts = new HashMap<>();
+        int[] priceCounts = new int[PRICE_RANGES.length];
+        int total = 0;
+        // Worst hit on top, holding one extra hit to know whether there is a next page
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 2, RANKING.reversed());
+
+        for (int i = 0; i < match.size(); i++) {
+            Doc doc = docs.get(match.docIds[i]);
+            if (doc == null) {
+                continue;
+            }
+            ProductDTO product = doc.product();
+            if ((categoryIds != null && !categoryIds.contains(product.getCategoryId()))
+                    || (minPrice != null && product.getPrice() < minPrice)
+                    || (maxPrice != null && product.getPrice() > maxPrice)) {
+                continue;
+            }
+
+            total++;
+            categoryCounts.computeIfAbsent(product.getCategoryId(), id -> new CategoryCount(product.getCategoryName())).count++;
+            priceCounts[priceRange(product.getPrice())]++;
+
+            float score = match.scores[i] / (float) Math.sqrt(doc.nameLength());
+            if (doc.leadingWord().startsWith(leadingWord)) {
+                score *= LEADING_WORD_BOOST;
+            }
+            Hit hit = new Hit(product, score);
+            if (after != null && RANKING.compare(hit, after) <= 0) {
+                continue;
+            }
+            top.offer(hit);
+            if (top.size() > limit + 1) {
+                top.poll();
+            }
+        }
+
+        boolean hasNext = top.size() > limit;
+        if (hasNext) {
+            top.poll();
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(RANKING);
+
+        List<CategoryFacetDTO> categoryFacets = categoryCounts.entrySet().stream()
+                .map(entry -> new CategoryFacetDTO(entry.getKey(), entry.getValue().name, entry.getValue().count))
+                .sorted(Comparator.comparingInt(CategoryFacetDTO::getCount).reversed()
+                        .thenComparing(CategoryFacetDTO::getName))
+                .limit(CATEGORY_FACET_LIMIT)
+                .toList();
+        List<PriceFacetDTO> priceFacets = new ArrayList<>();
+        for (int i = 0; i < PRICE_RANGES.length; i++) {
+            if (priceCounts[i] > 0) {
+                Double upper = i + 1 < PRICE_RANGES.length ? PRICE_RANGES[i + 1] : null;
+                priceFacets.add(new PriceFacetDTO(PRICE_RANGES[i], upper, priceCounts[i]));
+            }
+        }
+        return new Result(hits, total, hasNext, categoryFacets, priceFacets);
+    }
+
+    private Match matchWord(String word, int docCount) {
+        Postings found = postings.get(word);
+        return found == null ? Match.EMPTY : Match.of(found, idf(found.size(), docCount));
+    }
+
+    // Expands to the most frequent words starting with the prefix, the prefix itself always included
+    private Match matchPrefix(String prefix, int docCount) {
+        List<Map.Entry<String, Postings>> expansions = new ArrayList<>(
+                postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).entrySet());
+        if (expansions.size() > maxPrefixTerms) {
+            expansions.sort(Comparator.comparing((Map.Entry<String, Postings> entry) -> !entry.getKey().equals(prefix))
+                    .thenComparing(entry -> -entry.getValue().size()));
+            expansions = expansions.subList(0, maxPrefixTerms);
+        }
+
+        Match match = Match.EMPTY;
+        for (Map.Entry<String, Postings> expansion : expansions) {
+            float weight = expansion.getKey().equals(prefix) ? 1.0f : PREFIX_WEIGHT;
+            match = match.union(Match.of(expansion.getValue(), idf(expansion.getValue().size(), docCount) * weight));
+        }
+        return match;
+    }
+
+    private static float idf(int docFrequency, int docCount) {
+        return (float) Math.log(1 + (docCount - docFrequency + 0.5) / (docFrequency + 0.5));
+    }
+
+    private Set<Integer> subtree(int categoryId) {
+        CategoryTreeCache.Snapshot tree = categoryTreeCache.get();
+        CategoryDTO root = tree.find(categoryId);
+        if (root == null) {
+            return Set.of(categoryId);
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (CategoryDTO category : tree.getCategories()) {
+            if (category.getPath().startsWith(root.getPath())) {
+                ids.add(category.getId());
+            }
+        }
+        return ids;
+    }
+
+    private static int priceRange(double price) {
+        int range = 0;
+        while (range + 1 < PRICE_RANGES.length && price >= PRICE_RANGES[range + 1]) {
+            range++;
+        }
+        return range;
+    }
+
+    /**
+     * Splits text into lower-cased words of letters and digits.
+     */
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static ProductDTO copy(ProductDTO source) {
+        ProductDTO copy = new ProductDTO();
+        copy.setId(source.getId());
+        copy.setSku(source.getSku());
+        copy.setName(source.getName());
+        copy.setPrice(source.getPrice());
+        copy.setImageUrl(source.getImageUrl());
+        copy.setCategoryId(source.getCategoryId());
+        copy.setCategoryName(source.getCategoryName());
+        copy.setActive(source.isActive());
+        return copy;
+    }
+
+    public record Hit(ProductDTO product, float score) {
+    }
+
+    public record Result(List<Hit> hits, int total, boolean hasNext,
+                         List<CategoryFacetDTO> categoryFacets, List<PriceFacetDTO> priceFacets) {
+    }
+
+    private static final class CategoryCount {
+        private final String name;
+        private int count;
+
+        private CategoryCount(String name) {
+            this.name = name;
+        }
+    }
+
+    // An indexed product: its API view and its distinct words with where each occurs
+    private record Doc(int id, ProductDTO product, String[] terms, byte[] fields, int nameLength, String leadingWord) {
+
+        static Doc of(ProductDTO product) {
+            List<String> nameWords = tokenize(product.getName());
+            Map<String, Byte> fieldsByTerm = new HashMap<>();
+            nameWords.forEach(word -> fieldsByTerm.merge(word, IN_NAME, (a, b) -> (byte) (a | b)));
+            tokenize(product.getCategoryName()).forEach(word -> fieldsByTerm.merge(word, IN_CATEGORY, (a, b) -> (byte) (a | b)));
+
+            String[] terms = fieldsByTerm.keySet().toArray(new String[0]);
+            byte[] fields = new byte[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                fields[i] = fieldsByTerm.get(terms[i]);
+            }
+            return new Doc(product.getId(), product, terms, fields, Math.max(nameWords.size(), 1),
+                    nameWords.isEmpty() ? "" : nameWords.get(0));
+        }
+
+        byte fieldsOf(String term) {
+            for (int i = 0; i < terms.length; i++) {
+                if (terms[i].equals(term)) {
+                    return fields[i];
+                }
+            }
+            return 0;
+        }
+    }
+
+    // Product ids containing a word, ascending, with the IN_NAME / IN_CATEGORY flags of each
+    private record Postings(int[] docIds, byte[] fields) {
+
+        static final Postings EMPTY = new Postings(new int[0], new byte[0]);
+
+        int size() {
+            return docIds.length;
+        }
+
+        Postings with(int docId, byte docFields) {
+            int index = Arrays.binarySearch(docIds, docId);
+            if (index >= 0) {
+                byte[] newFields = fields.clone();
+                newFields[index] = docFields;
+                return new Postings(docIds, newFields);
+            }
+            int insertAt = -index - 1;
+            int[] newIds = new int[docIds.length + 1];
+            byte[] newFields = new byte[docIds.length + 1];
+            System.arraycopy(docIds, 0, newIds, 0, insertAt);
+            System.arraycopy(fields, 0, newFields, 0, insertAt);
+            newIds[insertAt] = docId;
+            newFields[insertAt] = docFields;
+            System.arraycopy(docIds, insertAt, newIds, insertAt + 1, docIds.length - insertAt);
+            System.arraycopy(fields, insertAt, newFields, insertAt + 1, docIds.length - insertAt);
+            return new Postings(newIds, newFields);
+        }
+
+        // Null once empty, which drops the word from the dictionary
+        Postings without(int docId) {
+            int index = Arrays.binarySearch(docIds, docId);
+            if (index < 0) {
+                return this;
+            }
+            if (docIds.length == 1) {
+                return null;
+            }
+            int[] newIds = new int[docIds.length - 1];
+            byte[] newFields = new byte[docIds.length - 1];
+            System.arraycopy(docIds, 0, newIds, 0, index);
+            System.arraycopy(fields, 0, newFields, 0, index);
+            System.arraycopy(docIds, index + 1, newIds, index, docIds.length - index - 1);
+            System.arraycopy(fields, index + 1, newFields, index, docIds.length - index - 1);
+            return new Postings(newIds, newFields);
+        }
+
+        // Applies ascending changes in one pass, dropping products whose new flags are 0. Null once empty
+        Postings merge(Postings changes) {
+            int[] newIds = new int[docIds.length + changes.size()];
+            byte[] newFields = new byte[newIds.length];
+            int i = 0, j = 0, n = 0;
+            while (i < docIds.length || j < changes.size()) {
+                if (j == changes.size() || (i < docIds.length && docIds[i] < changes.docIds[j])) {
+                    newIds[n] = docIds[i];
+                    newFields[n++] = fields[i++];
+                } else {
+                    if (i < docIds.length && docIds[i] == changes.docIds[j]) {
+                        i++;
+                    }
+                    if (changes.fields[j] != 0) {
+                        newIds[n] = changes.docIds[j];
+                        newFields[n++] = changes.fields[j];
+                    }
+                    j++;
+                }
+            }
+            return n == 0 ? null : new Postings(Arrays.copyOf(newIds, n), Arrays.copyOf(newFields, n));
+        }
+    }
+
+    private static final class PostingsBuilder {
+        private int[] docIds = new int[4];
+        private byte[] fields = new byte[4];
+        private int size;
+
+        // Ids must arrive in ascending order
+        void add(int docId, byte docFields) {
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            docIds[size] = docId;
+            fields[size] = docFields;
+            size++;
+        }
+
+        Postings build() {
+            return new Postings(Arrays.copyOf(docIds, size), Arrays.copyOf(fields, size));
+        }
+    }
+
+    // Product ids matching a query word, ascending, with their scores
+    private static final class Match {
+        static final Match EMPTY = new Match(new int[0], new float[0], 0);
+
+        private final int[] docIds;
+        private final float[] scores;
+        private final int size;
+
+        private Match(int[] docIds, float[] scores, int size) {
+            this.docIds = docIds;
+            this.scores = scores;
+            this.size = size;
+        }
+
+        static Match of(Postings postings, float weight) {
+            int size = postings.size();
+            float[] scores = new float[size];
+            for (int i = 0; i < size; i++) {
+                byte docFields = postings.fields()[i];
+                float fieldWeight = ((docFields & IN_NAME) != 0 ? NAME_WEIGHT : 0)
+                        + ((docFields & IN_CATEGORY) != 0 ? CATEGORY_WEIGHT : 0);
+                scores[i] = weight * fieldWeight;
+            }
+            return new Match(postings.docIds(), scores, size);
+        }
+
+        int size() {
+            return size;
+        }
+
+        // Products matching either, keeping the better score
+        Match union(Match other) {
+            if (size == 0) {
+                return other;
+            }
+            if (other.size == 0) {
+                return this;
+            }
+            int[] ids = new int[size + other.size];
+            float[] merged = new float[size + other.size];
+            int i = 0, j = 0, n = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || (i < size && docIds[i] < other.docIds[j])) {
+                    ids[n] = docIds[i];
+                    merged[n++] = scores[i++];
+                } else if (i == size || other.docIds[j] < docIds[i]) {
+                    ids[n] = other.docIds[j];
+                    merged[n++] = other.scores[j++];
+                } else {
+                    ids[n] = docIds[i];
+                    merged[n++] = Math.max(scores[i++], other.scores[j++]);
+                }
+            }
+            return new Match(ids, merged, n);
+        }
+
+        // Products matching both, adding up the scores
+        Match intersect(Match other) {
+            int[] ids = new int[Math.min(size, other.size)];
+            float[] summed = new float[ids.length];
+            int i = 0, j = 0, n = 0;
+            while (i < size && j < other.size) {
+                if (docIds[i] < other.docIds[j]) {
+                    i++;
+                } else if (docIds[i] > other.docIds[j]) {
+                    j++;
+                } else {
+                    ids[n] = docIds[i];
+                    summed[n++] = scores[i++] + other.scores[j++];
+                }
+            }
+            return new Match(ids, summed, n);
+        }
+    }
+}
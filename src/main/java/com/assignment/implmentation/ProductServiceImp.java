@@ -1,21 +1,42 @@
 package com.assignment.implmentation;
 
 import com.assignment.DTO.ProductDTO;
+import com.assignment.DTO.ProductQueryDTO;
+import com.assignment.DTO.ProductSearchDTO;
+import com.assignment.DTO.SuggestionDTO;
 import com.assignment.entites.Category;
 import com.assignment.entites.Product;
+import com.assignment.exception.InvalidDataException;
 import com.assignment.exception.ResourceNotFoundException;
 import com.assignment.repository.CategoryRepository;
 import com.assignment.repository.ProductRepository;
 import com.assignment.services.ProductService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -34,10 +55,30 @@ public class ProductServiceImp implements ProductService {
     @Autowired
     CategoryRepository categoryRepository;
 
+    @Autowired
+    ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    CategoryTreeCache categoryTreeCache;
+
+    @Autowired
+    ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    SuggestionTrie suggestionTrie;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     /**
      * Saves a new product into the database.
      * <p>
      * Validates the product data and ensures the associated category exists.
+     * The category's active product count is updated in the same transaction.
      * </p>
      *
      * @param productDTO    The DTO containing product details.
@@ -45,6 +86,7 @@ public class ProductServiceImp implements ProductService {
      * @return ResponseEntity containing success message or validation errors.
      */
     @Override
+    @Transactional
     public ResponseEntity<Object> saveProduct(ProductDTO productDTO, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
             Map<String, String> errorMap = new HashMap<>();
@@ -68,6 +110,12 @@ public class ProductServiceImp implements ProductService {
 
         // Save the product
         productRepository.save(product);
+        if (isListed(product)) {
+            adjustProductCount(category.getId(), 1);
+        }
+        productSearchIndex.update(product);
+        suggestionTrie.update(product);
+        productCatalogCache.invalidate();
 
         // Return success response
 
@@ -78,7 +126,9 @@ public class ProductServiceImp implements ProductService {
     /**
      * Updates an existing product in the database.
      * <p>
-     * Ensures the product exists before updating its details.
+     * Ensures the product exists before updating its details. If the product
+     * changes category or is (de)activated, the active product counts of the
+     * categories involved are adjusted in the same transaction.
      * </p>
      *
      * @param productDTO    The DTO containing updated product details.
@@ -87,6 +137,7 @@ public class ProductServiceImp implements ProductService {
      */
 
     @Override
+    @Transactional
     public ResponseEntity<Object> updateProduct(ProductDTO productDTO, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
             Map<String, String> errorMap = new HashMap<>();
@@ -103,6 +154,9 @@ public class ProductServiceImp implements ProductService {
         Category category = categoryRepository.findById(productDTO.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found!"));
 
+        int previousCategoryId = existingProduct.getCategory().getId();
+        boolean wasListed = isListed(existingProduct);
+
         // The product exists, so update it
         existingProduct.setSku(productDTO.getSku());
         existingProduct.setName(productDTO.getName());
@@ -113,6 +167,17 @@ public class ProductServiceImp implements ProductService {
 
         // Save the updated product (this will update the existing one)
         productRepository.save(existingProduct);
+
+        boolean listed = isListed(existingProduct);
+        if (wasListed && (!listed || previousCategoryId != category.getId())) {
+            adjustProductCount(previousCategoryId, -1);
+        }
+        if (listed && (!wasListed || previousCategoryId != category.getId())) {
+            adjustProductCount(category.getId(), 1);
+        }
+        productSearchIndex.update(existingProduct);
+        suggestionTrie.update(existingProduct);
+        productCatalogCache.invalidate();
         return ResponseEntity.ok(Map.of("message", "Product updated successfully"));
     }
 
@@ -123,46 +188,280 @@ public class ProductServiceImp implements ProductService {
      * @return ResponseEntity containing success message.
      */
     @Override
+    @Transactional
     public ResponseEntity<Object> deleteProduct(int id) {
 
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found!"));
 
+        if (isListed(product)) {
+            adjustProductCount(product.getCategory().getId(), -1);
+        }
         product.setDeleted(true);
         product.setActive(false);
         productRepository.save(product);
+        productSearchIndex.update(product);
+        suggestionTrie.update(product);
+        productCatalogCache.invalidate();
 
         return ResponseEntity.ok(Map.of("message", "Product deleted successfully"));
     }
 
 
     /**
-     * Retrieves all products from the database.
+     * Retrieves all listed products in one response, for clients that cache the
+     * whole catalog.
+     * <p>
+     * Served from the pre-serialized catalog snapshot. If the client's
+     * If-None-Match header matches the snapshot's ETag, 304 Not Modified is
+     * returned without a body.
+     * </p>
+     *
+     * @param ifNoneMatch The If-None-Match header sent by the client, may be null.
+     * @return ResponseEntity containing a list of all active, non-deleted products.
+     */
+    @Override
+    public ResponseEntity<Object> findAllProduct(String ifNoneMatch) {
+        ProductCatalogCache.Snapshot snapshot = productCatalogCache.get();
+
+        if (snapshot.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.getETag())
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.getETag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(snapshot.getBody());
+    }
+
+    /**
+     * Retrieves one page of products using keyset (cursor) pagination.
+     * <p>
+     * Filters by category, price range and active status, sorted by the requested
+     * order with the product ID as tie-breaker. Each page continues after the last
+     * row of the previous one instead of using an offset, so query time stays flat
+     * however deep the client pages.
+     * </p>
+     *
+     * @param productQueryDTO The filters, sort order, page size and cursor.
+     * @return ResponseEntity containing the products and the cursor of the next page
+     * (null on the last page).
+     * @throws InvalidDataException if the limit, sort order or cursor is invalid, or the
+     *                              cursor was issued for a different sort order.
+     */
+    @Override
+    public ResponseEntity<Object> findProducts(ProductQueryDTO productQueryDTO) {
+        int limit = productQueryDTO.getLimit() != null ? productQueryDTO.getLimit() : DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidDataException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+
+        String sortName = productQueryDTO.getSort() != null ? productQueryDTO.getSort() : "id";
+        Sort sort = resolveSort(sortName);
+        ScrollPosition position = productQueryDTO.getCursor() != null
+                ? decodeCursor(productQueryDTO.getCursor(), sortName, sort)
+                : ScrollPosition.keyset();
+
+        Window<Product> window = productRepository.findBy(productFilter(productQueryDTO),
+                query -> query.sortBy(sort).limit(limit).scroll(position));
+
+        List<ProductDTO> productDTOs = window.getContent().stream()
+                .map(ProductServiceImp::toProductDTO)
+                .toList();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("products", productDTOs);
+        response.put("nextCursor", window.hasNext() ? encodeCursor(sortName, window.positionAt(window.size() - 1)) : null);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Searches listed products by words of their name and category name.
+     * <p>
+     * Served from the in-memory {@link ProductSearchIndex}; the last word of the
+     * query may be incomplete, so it also works as you type. Results are ranked
+     * by relevance and come with category and price range counts over all
+     * matches, for narrowing the search.
+     * </p>
+     *
+     * @param productSearchDTO The query, filters, page size and cursor.
+     * @return ResponseEntity containing the products, the total number of matches,
+     * the facets and the cursor of the next page (null on the last page).
+     * @throws InvalidDataException if the query, limit, price range or cursor is invalid.
+     */
+    @Override
+    public ResponseEntity<Object> searchProducts(ProductSearchDTO productSearchDTO) {
+        String query = productSearchDTO.getQ();
+        if (query == null || query.isBlank()) {
+            throw new InvalidDataException("Search query is required.");
+        }
+        int limit = productSearchDTO.getLimit() != null ? productSearchDTO.getLimit() : DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidDataException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        if (productSearchDTO.getMinPrice() != null && productSearchDTO.getMaxPrice() != null
+                && productSearchDTO.getMinPrice() > productSearchDTO.getMaxPrice()) {
+            throw new InvalidDataException("Minimum price cannot be greater than maximum price.");
+        }
+        ProductSearchIndex.Hit after = productSearchDTO.getCursor() != null
+                ? decodeSearchCursor(productSearchDTO.getCursor())
+                : null;
+
+        ProductSearchIndex.Result result = productSearchIndex.search(query, productSearchDTO.getCategoryId(),
+                productSearchDTO.getMinPrice(), productSearchDTO.getMaxPrice(), limit, after);
+        if (result == null) {
+            throw new InvalidDataException("Search query must contain letters or digits.");
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("products", result.hits().stream().map(ProductSearchIndex.Hit::product).toList());
+        response.put("total", result.total());
+        response.put("facets", Map.of("categories", result.categoryFacets(), "prices", result.priceFacets()));
+        response.put("nextCursor", result.hasNext()
+                ? encodeSearchCursor(result.hits().get(result.hits().size() - 1))
+                : null);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Suggests product and category names for what the user has typed so far.
+     * <p>
+     * Answered from the in-memory {@link SuggestionTrie} without any database
+     * access; an empty input gives no suggestions.
+     * </p>
      *
-     * @return ResponseEntity containing a list of all products.
+     * @param query The typed text.
+     * @param limit The maximum number of suggestions, defaults to the configured maximum.
+     * @return ResponseEntity containing the suggestions, best first.
+     * @throws InvalidDataException if the limit is out of range.
      */
     @Override
-    public ResponseEntity<Object> findAllProduct() {
-        // Fetch the list of products from the database
-        List<Product> products = productRepository.findAll();
-
-        // Convert the list of products to a list of ProductDTO manually
-        List<ProductDTO> productDTOs = products.stream().map(product -> {
-            ProductDTO dto = new ProductDTO();
-            dto.setId(product.getId());
-            dto.setSku(product.getSku());
-            dto.setName(product.getName());
-            dto.setPrice(product.getPrice());
-            dto.setImageUrl(product.getImageUrl());
-            dto.setCategoryId(product.getCategory().getId());
-            // ✅ Set category name dynamically
-            dto.setCategoryName(product.getCategory().getName());
-
-            dto.setActive(product.getActive());
-            return dto;
-        }).collect(Collectors.toList());
-
-        // Prepare the response with the DTO list
-        return ResponseEntity.ok(Map.of("products", productDTOs));
+    public ResponseEntity<Object> suggestProducts(String query, Integer limit) {
+        int maxResults = suggestionTrie.getMaxResults();
+        int size = limit != null ? limit : maxResults;
+        if (size < 1 || size > maxResults) {
+            throw new InvalidDataException("Limit must be between 1 and " + maxResults + ".");
+        }
+        List<SuggestionDTO> suggestions = query == null || query.isBlank()
+                ? List.of()
+                : suggestionTrie.suggest(query, size);
+        return ResponseEntity.ok(Map.of("suggestions", suggestions));
+    }
+
+    private static Specification<Product> productFilter(ProductQueryDTO productQueryDTO) {
+        return (root, query, criteriaBuilder) -> {
+            // Load the category in the same query (skipped for count queries)
+            if (query.getResultType() != Long.class) {
+                root.fetch("category");
+            }
+
+            List<Predicate> predicates = new ArrayList<>();
+            if (!Boolean.FALSE.equals(productQueryDTO.getActiveOnly())) {
+                predicates.add(criteriaBuilder.isTrue(root.get("isActive")));
+                predicates.add(criteriaBuilder.isFalse(root.get("isDeleted")));
+            }
+            if (productQueryDTO.getCategoryId() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("category").get("id"), productQueryDTO.getCategoryId()));
+            }
+            if (productQueryDTO.getMinPrice() != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("price"), productQueryDTO.getMinPrice()));
+            }
+            if (productQueryDTO.getMaxPrice() != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("price"), productQueryDTO.getMaxPrice()));
+            }
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static Sort resolveSort(String sort) {
+        return switch (sort) {
+            case "id" -> Sort.by(Sort.Direction.ASC, "id");
+            case "newest" -> Sort.by(Sort.Direction.DESC, "id");
+            case "price_asc" -> Sort.by(Sort.Direction.ASC, "price", "id");
+            case "price_desc" -> Sort.by(Sort.Direction.DESC, "price", "id");
+            case "name" -> Sort.by(Sort.Direction.ASC, "name", "id");
+            default -> throw new InvalidDataException("Sort must be one of id, newest, price_asc, price_desc, name.");
+        };
+    }
+
+    // The cursor is the sort order plus the keyset of the last row, as URL-safe Base64 JSON
+    private record Cursor(String sort, LinkedHashMap<String, Object> keys) {
+    }
+
+    private String encodeCursor(String sortName, ScrollPosition position) {
+        try {
+            Cursor cursor = new Cursor(sortName, new LinkedHashMap<>(((KeysetScrollPosition) position).getKeys()));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(cursor));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // A cursor only continues the sort it was issued for: its keys must be exactly that sort's properties
+    private ScrollPosition decodeCursor(String cursor, String sortName, Sort sort) {
+        Cursor decoded;
+        try {
+            decoded = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), Cursor.class);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidDataException("Invalid cursor.");
+        }
+        if (decoded == null || decoded.keys() == null) {
+            throw new InvalidDataException("Invalid cursor.");
+        }
+        Set<String> properties = sort.stream().map(Sort.Order::getProperty).collect(Collectors.toSet());
+        if (!sortName.equals(decoded.sort()) || !properties.equals(decoded.keys().keySet())) {
+            throw new InvalidDataException("Cursor does not match the requested sort order.");
+        }
+        return ScrollPosition.forward(decoded.keys());
+    }
+
+    // The search cursor is the (score, id) of the last hit, as URL-safe Base64
+    private static String encodeSearchCursor(ProductSearchIndex.Hit last) {
+        String keys = last.score() + ":" + last.product().getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(keys.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ProductSearchIndex.Hit decodeSearchCursor(String cursor) {
+        try {
+            String[] keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (keys.length != 2) {
+                throw new InvalidDataException("Invalid cursor.");
+            }
+            ProductDTO last = new ProductDTO();
+            last.setId(Integer.parseInt(keys[1]));
+            return new ProductSearchIndex.Hit(last, Float.parseFloat(keys[0]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDataException("Invalid cursor.");
+        }
+    }
+
+    // Counted in its category's active product count
+    private static boolean isListed(Product product) {
+        return product.getActive() && !product.isDeleted();
+    }
+
+    private void adjustProductCount(int categoryId, int delta) {
+        categoryRepository.adjustActiveProductCount(categoryId, delta);
+        categoryTreeCache.invalidate();
+    }
+
+    // Maps a product (with its category loaded) to the DTO exposed by the API
+    static ProductDTO toProductDTO(Product product) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(product.getId());
+        dto.setSku(product.getSku());
+        dto.setName(product.getName());
+        dto.setPrice(product.getPrice());
+        dto.setImageUrl(product.getImageUrl());
+        dto.setCategoryId(product.getCategory().getId());
+        // ✅ Set category name dynamically
+        dto.setCategoryName(product.getCategory().getName());
+
+        dto.setActive(product.getActive());
+        return dto;
     }
 }
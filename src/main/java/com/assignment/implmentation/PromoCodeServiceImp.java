@@ -1,18 +1,30 @@
 package com.assignment.implmentation;
 
+import com.assignment.DTO.CartItemDTO;
+import com.assignment.DTO.CartLine;
 import com.assignment.DTO.PromoCodeDTO;
+import com.assignment.entites.Category;
 import com.assignment.entites.Product;
 import com.assignment.entites.PromoCode;
+import com.assignment.entites.User;
 import com.assignment.exception.InvalidDataException;
 import com.assignment.exception.ResourceNotFoundException;
+import com.assignment.repository.CategoryRepository;
 import com.assignment.repository.ProductRepository;
 import com.assignment.repository.PromoCodeRepository;
+import com.assignment.services.CartStore;
 import com.assignment.services.PromoCodeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.BindingResult;
 
 import java.time.LocalDate;
@@ -32,18 +44,41 @@ import java.util.stream.Collectors;
 @Service
 public class PromoCodeServiceImp implements PromoCodeService {
 
+    private static final Logger log = LoggerFactory.getLogger(PromoCodeServiceImp.class);
+
     @Autowired
     PromoCodeRepository promoCodeRepository;
 
     @Autowired
     ProductRepository productRepository;
 
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    PromoEngine promoEngine;
+
+    @Autowired
+    CartStore cartStore;
+
+    @Autowired
+    CategoryTreeCache categoryTreeCache;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Value("${promo.expiry.chunk-size:500}")
+    private int expiryChunkSize;
+
     /**
      * Creates a new promo code based on the provided DTO.
      * <p>
      * Validates the input data and ensures that the associated product exists
      * if the promo code is product-specific. If validation errors occur,
-     * a map of error messages is returned.
+     * a map of error messages is returned. Each promo type also requires its
+     * own settings: a percentage (PERCENTAGE), a percentage and category
+     * (CATEGORY), an amount (FIXED_AMOUNT), tiers (TIERED), or a product with
+     * buy and free quantities (BUY_X_GET_Y).
      * </p>
      *
      * @param promoCodeDTO  The DTO containing promo code details.
@@ -61,17 +96,51 @@ public class PromoCodeServiceImp implements PromoCodeService {
         }
 
 
+        String promoType = promoCodeDTO.getPromoType() != null ? promoCodeDTO.getPromoType() : PromoCode.PERCENTAGE;
+
         LocalDate expiryDateParsed = LocalDate.parse(promoCodeDTO.getExpiryDate());
         PromoCode promoCode = new PromoCode();
         promoCode.setCode(promoCodeDTO.getCode());
-        promoCode.setDiscountPercentage(promoCodeDTO.getDiscountPercentage());
+        promoCode.setPromoType(promoType);
+        promoCode.setDiscountPercentage(promoCodeDTO.getDiscountPercentage() != null ? promoCodeDTO.getDiscountPercentage() : 0.0);
         promoCode.setMinOrderAmount(promoCodeDTO.getMinOrderAmount());
         promoCode.setProductSpecific(promoCodeDTO.getIsProductSpecific());
         promoCode.setActive(promoCodeDTO.getIsActive());
         promoCode.setExpiryDate(expiryDateParsed);
+        promoCode.setMaxRedemptions(promoCodeDTO.getMaxRedemptions());
+        promoCode.setMaxRedemptionsPerUser(promoCodeDTO.getMaxRedemptionsPerUser());
+
+        switch (promoType) {
+            case PromoCode.PERCENTAGE -> requireSetting(promoCodeDTO.getDiscountPercentage(), "Discount percentage", promoType);
+            case PromoCode.CATEGORY -> {
+                requireSetting(promoCodeDTO.getDiscountPercentage(), "Discount percentage", promoType);
+                requireSetting(promoCodeDTO.getCategoryId(), "Category ID", promoType);
+                Category category = categoryRepository.findById(promoCodeDTO.getCategoryId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Category with ID " + promoCodeDTO.getCategoryId() + " does not exist."));
+                promoCode.setCategory(category);
+            }
+            case PromoCode.FIXED_AMOUNT -> {
+                requireSetting(promoCodeDTO.getDiscountAmount(), "Discount amount", promoType);
+                promoCode.setDiscountAmount(promoCodeDTO.getDiscountAmount());
+            }
+            case PromoCode.TIERED -> {
+                if (promoCodeDTO.getTiers() == null || promoCodeDTO.getTiers().isEmpty()) {
+                    throw new InvalidDataException("At least one tier is required for TIERED promo codes.");
+                }
+                promoCode.setTiers(PromoRule.formatTiers(promoCodeDTO.getTiers()));
+            }
+            case PromoCode.BUY_X_GET_Y -> {
+                requireSetting(promoCodeDTO.getProductId(), "Product ID", promoType);
+                requireSetting(promoCodeDTO.getBuyQuantity(), "Buy quantity", promoType);
+                requireSetting(promoCodeDTO.getFreeQuantity(), "Free quantity", promoType);
+                promoCode.setBuyQuantity(promoCodeDTO.getBuyQuantity());
+                promoCode.setFreeQuantity(promoCodeDTO.getFreeQuantity());
+            }
+            default -> throw new InvalidDataException("Unknown promo type " + promoType + ".");
+        }
 
         // Validate product if the promo code is product-specific
-        if (promoCodeDTO.getIsProductSpecific()) {
+        if (promoCodeDTO.getIsProductSpecific() || promoType.equals(PromoCode.BUY_X_GET_Y)) {
             if (promoCodeDTO.getProductId() == null) {
                 throw new InvalidDataException("Product ID is required when the promo code is product-specific.");
             }
@@ -84,36 +153,50 @@ public class PromoCodeServiceImp implements PromoCodeService {
 
         // Save the promo code to the database
         promoCodeRepository.save(promoCode);
+        promoEngine.refresh();
         return ResponseEntity.ok(Map.of("message", "Promo code created successfully"));
     }
 
+    private static void requireSetting(Object value, String name, String promoType) {
+        if (value == null) {
+            throw new InvalidDataException(name + " is required for " + promoType + " promo codes.");
+        }
+    }
+
     /**
      * Automatically deactivates expired promo codes at a scheduled time.
      * <p>
-     * This method runs at 5:30 PM every day and checks for promo codes
-     * whose expiry date has passed but are still active. Any such promo codes
-     * are deactivated and updated in the database.
+     * Codes whose expiry date has passed but are still active are deactivated with
+     * bulk UPDATEs of at most promo.expiry.chunk-size rows, each chunk in its own
+     * short transaction so locks are never held across the whole table. Until it
+     * runs, the promo engine already rejects expired codes in memory.
      * </p>
      */
-    @Scheduled(cron = "0 30 17 * * ?")
+    @Scheduled(cron = "${promo.expiry.cron:0 30 17 * * ?}")
     @Override
     public void deactivateExpiredPromoCodes() {
-        // Fetch all promo codes that have expired and are still active
-        List<PromoCode> expiredPromoCodes = promoCodeRepository.findByExpiryDateBeforeAndIsActiveTrue(LocalDate.now());
-
-        // Deactivate each expired promo code
-        if (!expiredPromoCodes.isEmpty()) {
-            for (PromoCode promoCode : expiredPromoCodes) {
-                promoCode.setActive(false);  // Deactivate the expired promo code
-                promoCodeRepository.save(promoCode);  // Save the updated promo code
-                System.out.println("Deactivated expired promo code: " + promoCode.getCode());
-            }
+        LocalDate today = LocalDate.now();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        int deactivated = 0;
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> {
+                List<Integer> ids = promoCodeRepository.findExpiredActiveIds(today, PageRequest.ofSize(expiryChunkSize));
+                return ids.isEmpty() ? 0 : promoCodeRepository.deactivateAll(ids);
+            });
+            deactivated += chunk;
+        } while (chunk == expiryChunkSize);
+
+        if (deactivated > 0) {
+            log.info("Deactivated {} expired promo codes", deactivated);
+            promoEngine.refresh();
         }
     }
 
     @Override
     public ResponseEntity<Object> findAllPromoCode() {
-        List<PromoCode> promoCodes = promoCodeRepository.findAll();
+        List<PromoCode> promoCodes = promoCodeRepository.findAllWithProduct();
 
         if (promoCodes.isEmpty()) {
             throw new ResourceNotFoundException("No promo codes found.");
@@ -127,8 +210,8 @@ public class PromoCodeServiceImp implements PromoCodeService {
             dto.setMinOrderAmount(promoCode.getMinOrderAmount());
             dto.setIsProductSpecific(promoCode.getProductSpecific());
 
-            // ✅ Get product name if the promo code is product-specific
-            if (promoCode.getProduct() != null && promoCode.getProductSpecific()) {
+            // ✅ Get product name if the promo code is product-specific (or buy-X-get-Y)
+            if (promoCode.getProduct() != null) {
                 dto.setProductName(promoCode.getProduct().getName()); // Get product name
             } else {
                 dto.setProductName("Applicable to all products");
@@ -136,9 +219,46 @@ public class PromoCodeServiceImp implements PromoCodeService {
 
             dto.setIsActive(promoCode.getActive());
             dto.setExpiryDate(promoCode.getExpiryDate().toString());
+            dto.setPromoType(promoCode.getPromoType() != null ? promoCode.getPromoType() : PromoCode.PERCENTAGE);
+            dto.setCategoryId(promoCode.getCategory() != null ? promoCode.getCategory().getId() : null);
+            dto.setDiscountAmount(promoCode.getDiscountAmount());
+            dto.setBuyQuantity(promoCode.getBuyQuantity());
+            dto.setFreeQuantity(promoCode.getFreeQuantity());
+            dto.setTiers(promoCode.getTiers() != null ? PromoRule.parseTiers(promoCode.getTiers()) : null);
+            dto.setMaxRedemptions(promoCode.getMaxRedemptions());
+            dto.setMaxRedemptionsPerUser(promoCode.getMaxRedemptionsPerUser());
+            dto.setRedemptionCount(promoCode.getRedemptionCount());
             return dto;
         }).collect(Collectors.toList());
 
         return ResponseEntity.ok(Map.of("promoCodes", promoCodeDTOList));
     }
+
+    /**
+     * Quotes promo codes against the user's current cart.
+     * <p>
+     * With a code, returns the discount that code would give or why it can't be
+     * used; without one, returns every live code that lowers the price, best first.
+     * Codes are evaluated by the in-memory promo engine.
+     * </p>
+     *
+     * @param user The authenticated user.
+     * @param code Optional promo code to quote.
+     * @return ResponseEntity containing the quote or quotes.
+     * @throws ResourceNotFoundException if the code does not exist.
+     */
+    @Override
+    public ResponseEntity<Object> quotePromoCodes(User user, String code) {
+        Map<Integer, CartLine> lines = cartStore.getLines(user.getId());
+        if (lines.isEmpty()) {
+            throw new InvalidDataException("Cart is empty!");
+        }
+        List<CartItemDTO> cartItems = CartServiceImpl.toCartItemDTOs(lines, CartServiceImpl.loadProducts(productRepository, lines));
+
+        CartSummary cart = CartSummary.of(cartItems, categoryTreeCache.get());
+        if (code != null && !code.isBlank()) {
+            return ResponseEntity.ok(promoEngine.quote(code, cart));
+        }
+        return ResponseEntity.ok(Map.of("quotes", promoEngine.quoteAll(cart)));
+    }
 }
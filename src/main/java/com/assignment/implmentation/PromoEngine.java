@@ -0,0 +1,165 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.PromoQuoteDTO;
+import com.assignment.entites.PromoCode;
+import com.assignment.exception.ResourceNotFoundException;
+import com.assignment.repository.PromoCodeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory index of compiled promo code rules used for checkout and quotes.
+ * <p>
+ * Every promo code is compiled into a {@link PromoRule} once, when the index is
+ * built, so evaluating codes against a cart needs no database access. The index
+ * is rebuilt whenever a promo code is written on this instance and periodically
+ * to pick up writes made elsewhere. Codes are matched case-insensitively, like
+ * the lookup on the promocodes table did.
+ * </p>
+ */
+@Component
+public class PromoEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PromoEngine.class);
+
+    @Autowired
+    PromoCodeRepository promoCodeRepository;
+
+    private final VersionedSnapshot<Index> index = new VersionedSnapshot<>(this::build);
+
+    /**
+     * Looks up the compiled rule of a promo code.
+     * <p>
+     * A code found past its expiry date while still active is marked inactive
+     * in the index right away, so it drops out of quotes; the promocodes row is
+     * left to the scheduled expiry sweep, keeping checkout to its own
+     * connection. Expired codes are rejected by {@link PromoRule#rejectionReason}
+     * either way.
+     * </p>
+     *
+     * @param code The promo code as entered by the user.
+     * @return The rule, or null if no such code exists.
+     */
+    public PromoRule find(String code) {
+        PromoRule rule = index.get().rulesByCode.get(normalize(code));
+        if (rule != null && rule.isActive()) {
+            LocalDate today = LocalDate.now();
+            if (rule.isExpired(today)) {
+                index.update(current -> current.withDeactivated(rule));
+            }
+        }
+        return rule;
+    }
+
+    /**
+     * Quotes one promo code against a cart.
+     *
+     * @param code The promo code as entered by the user.
+     * @param cart The summary of the priced cart.
+     * @return The quote, marked not applicable with the reason if the code can't be used.
+     * @throws ResourceNotFoundException if no such code exists.
+     */
+    public PromoQuoteDTO quote(String code, CartSummary cart) {
+        PromoRule rule = find(code);
+        if (rule == null) {
+            throw new ResourceNotFoundException("Promo code not found!");
+        }
+        return quote(rule, cart, LocalDate.now());
+    }
+
+    /**
+     * Quotes every live promo code that lowers the price of a cart, best first.
+     * <p>
+     * The cart was summarized in one pass and each rule reads that summary in
+     * constant time, so the cost is linear in cart size plus the number of codes.
+     * </p>
+     *
+     * @param cart The summary of the priced cart.
+     * @return The applicable quotes ordered by discount, largest first.
+     */
+    public List<PromoQuoteDTO> quoteAll(CartSummary cart) {
+        LocalDate today = LocalDate.now();
+
+        List<PromoQuoteDTO> quotes = new ArrayList<>();
+        for (PromoRule rule : index.get().activeRules) {
+            PromoQuoteDTO quote = quote(rule, cart, today);
+            if (quote.isApplicable() && quote.getDiscount() > 0) {
+                quotes.add(quote);
+            }
+        }
+        quotes.sort(Comparator.comparingDouble(PromoQuoteDTO::getDiscount).reversed());
+        return quotes;
+    }
+
+    private static PromoQuoteDTO quote(PromoRule rule, CartSummary cart, LocalDate today) {
+        double subtotal = cart.getSubtotal();
+        String reason = rule.rejectionReason(subtotal, today);
+        if (reason != null) {
+            return new PromoQuoteDTO(rule.getCode(), false, reason, cents(subtotal), 0.0, cents(subtotal));
+        }
+        double discount = rule.discount(cart);
+        return new PromoQuoteDTO(rule.getCode(), true, null, cents(subtotal), cents(discount), cents(subtotal - discount));
+    }
+
+    private static double cents(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    /**
+     * Rebuilds the index from the database. Called after promo codes are written.
+     */
+    @Scheduled(fixedDelayString = "${promo.engine.refresh-interval-ms:60000}",
+            initialDelayString = "${promo.engine.refresh-interval-ms:60000}")
+    public void refresh() {
+        index.invalidate();
+        index.get();
+    }
+
+    private Index build() {
+        Map<String, PromoRule> rulesByCode = new HashMap<>();
+        List<PromoRule> activeRules = new ArrayList<>();
+        for (PromoCode promoCode : promoCodeRepository.findAllWithProduct()) {
+            PromoRule rule;
+            try {
+                rule = PromoRule.compile(promoCode);
+            } catch (IllegalStateException e) {
+                // Leave the code out rather than fail every checkout
+                log.warn("Skipping promo code {}: {}", promoCode.getCode(), e.getMessage());
+                continue;
+            }
+            rulesByCode.put(normalize(rule.getCode()), rule);
+            if (rule.isActive()) {
+                activeRules.add(rule);
+            }
+        }
+        return new Index(Map.copyOf(rulesByCode), List.copyOf(activeRules));
+    }
+
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private record Index(Map<String, PromoRule> rulesByCode, List<PromoRule> activeRules) {
+
+        Index withDeactivated(PromoRule rule) {
+            Map<String, PromoRule> codes = new HashMap<>(rulesByCode);
+            codes.put(normalize(rule.getCode()), rule.deactivated());
+            List<PromoRule> active = new ArrayList<>(activeRules);
+            active.removeIf(activeRule -> activeRule.getId() == rule.getId());
+            return new Index(Map.copyOf(codes), List.copyOf(active));
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.assignment.implmentation;
+
+import com.assignment.exception.ConflictException;
+import com.assignment.exception.InvalidDataException;
+import com.assignment.entites.PromoUserRedemption;
+import com.assignment.repository.OrderRepository;
+import com.assignment.repository.PromoCodeRepository;
+import com.assignment.repository.PromoUserRedemptionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Enforces promo code redemption limits at checkout and keeps usage counts.
+ * <p>
+ * The global cap is enforced without touching the promocodes row on every
+ * redemption. Each instance leases blocks of redemptions from the row with a
+ * conditional UPDATE that can never exceed maxRedemptions, and hands them out
+ * from striped atomic counters, so concurrent checkouts of a popular code
+ * rarely contend on the same counter and hit the database once per block.
+ * A block is leased by the checkout that found the counters empty, in its own
+ * transaction and without holding any lock in this JVM, so leasing never needs
+ * a second pooled connection; the rest of the block joins the counters once
+ * that checkout commits, and a rollback undoes the lease in the database.
+ * A block is at most a quarter of what is left on the code, down to single
+ * redemptions near the cap, so one instance cannot hold the last redemptions
+ * while others turn users away. Leases left idle for a whole flush interval
+ * are returned, as is everything on shutdown; a crash can only leave a code
+ * under-used, never over-used.
+ * </p>
+ * <p>
+ * The per-user limit is kept in the promo_user_redemptions table, one counter
+ * row per code and user, incremented with a conditional UPDATE in the checkout
+ * transaction, so it holds across instances. Usage counts are accumulated in
+ * memory and added to redemptionCount by a periodic flush.
+ * </p>
+ */
+@Component
+public class PromoRedemptionLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(PromoRedemptionLimiter.class);
+
+    // A lease takes at most 1/LEASE_SHARE of the redemptions left on a code
+    private static final int LEASE_SHARE = 4;
+
+    @Autowired
+    PromoCodeRepository promoCodeRepository;
+
+    @Autowired
+    PromoUserRedemptionRepository promoUserRedemptionRepository;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Value("${promo.redemptions.lease-size:20}")
+    private int leaseSize;
+
+    private final int stripeCount = Math.max(1, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2));
+
+    private final Map<Integer, LeasePool> pools = new ConcurrentHashMap<>();
+
+    private final Map<Integer, UsageCounter> usage = new ConcurrentHashMap<>();
+
+    /**
+     * Redeems a promo code for the current checkout.
+     * <p>
+     * Must run inside the checkout transaction: the redemption is counted when it
+     * commits and handed back when it rolls back.
+     * </p>
+     *
+     * @param rule   The validated promo code rule.
+     * @param userId The user placing the order.
+     * @throws InvalidDataException if the global or per-user limit has been reached.
+     * @throws ConflictException    if the same user is redeeming the code for the first time in another checkout.
+     */
+    public void redeem(PromoRule rule, int userId) {
+        int promoId = rule.getId();
+
+        if (rule.getMaxRedemptionsPerUser() > 0) {
+            countUserRedemption(promoId, userId, rule.getMaxRedemptionsPerUser());
+        }
+
+        if (rule.getMaxRedemptions() > 0) {
+            LeasePool pool = pools.computeIfAbsent(promoId, LeasePool::new);
+            if (pool.tryAcquire()) {
+                TransactionHooks.afterRollback(pool::release);
+            } else {
+                int leased = pool.lease();
+                if (leased == 0) {
+                    throw new InvalidDataException("Promo code usage limit has been reached!");
+                }
+                // One redemption is this checkout's; a rollback undoes the whole lease in the database
+                if (leased > 1) {
+                    TransactionHooks.afterCommit(() -> pool.add(leased - 1));
+                }
+            }
+        }
+
+        TransactionHooks.afterCommit(() -> usage.computeIfAbsent(promoId, id -> new UsageCounter()).redemptions.increment());
+    }
+
+    // Counts the redemption against the user's limit; the row stays locked until the checkout ends
+    private void countUserRedemption(int promoId, int userId, int limit) {
+        if (promoUserRedemptionRepository.incrementBelow(promoId, userId, limit) == 1) {
+            return;
+        }
+        if (promoUserRedemptionRepository.existsById(new PromoUserRedemption.Key(promoId, userId))) {
+            throw new InvalidDataException("You have already used this promo code the maximum number of times!");
+        }
+
+        // No counter yet: start from the orders the user already placed with the code
+        long used = orderRepository.countRedemptions(promoId, userId);
+        if (used >= limit) {
+            throw new InvalidDataException("You have already used this promo code the maximum number of times!");
+        }
+        try {
+            promoUserRedemptionRepository.insert(promoId, userId, (int) used + 1);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("This promo code is already being redeemed in another checkout.");
+        }
+    }
+
+    /**
+     * Gives a redemption back after its order was cancelled.
+     * <p>
+     * Must run inside the cancelling transaction: the user's counter is
+     * decremented in it, and the global redemption goes back to this
+     * instance's lease pool, or to the promocodes row if there is none, once it
+     * commits.
+     * </p>
+     *
+     * @param promoId The ID of the promo code used by the order.
+     * @param userId  The user who placed the order.
+     */
+    public void release(int promoId, int userId) {
+        promoUserRedemptionRepository.decrement(promoId, userId);
+        TransactionHooks.afterCommit(() -> {
+            usage.computeIfAbsent(promoId, id -> new UsageCounter()).redemptions.decrement();
+            LeasePool pool = pools.get(promoId);
+            if (pool != null) {
+                pool.release();
+                return;
+            }
+            try {
+                promoCodeRepository.returnRedemptions(promoId, 1);
+            } catch (RuntimeException e) {
+                // The code is left under-used, never over-used
+                log.warn("Could not return a redemption of promo code {}", promoId, e);
+            }
+        });
+    }
+
+    /**
+     * Adds the redemptions counted since the last flush to each code's
+     * redemptionCount, and returns leases no checkout drew from since then.
+     */
+    @Scheduled(fixedDelayString = "${promo.redemptions.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        usage.forEach((promoId, counter) -> {
+            // sum() may miss increments racing with it; they are picked up by the next flush
+            long total = counter.redemptions.sum();
+            int delta = (int) (total - counter.flushed);
+            if (delta != 0) {
+                try {
+                    promoCodeRepository.addRedemptions(promoId, delta);
+                    counter.flushed = total;
+                } catch (RuntimeException e) {
+                    log.warn("Could not flush redemption count of promo code {}", promoId, e);
+                }
+            }
+        });
+
+        pools.forEach((promoId, pool) -> {
+            if (!pool.checkUsed()) {
+                returnLeased(promoId, pool);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        pools.forEach(this::returnLeased);
+    }
+
+    private void returnLeased(int promoId, LeasePool pool) {
+        int unused = pool.drain();
+        if (unused > 0) {
+            try {
+                promoCodeRepository.returnRedemptions(promoId, unused);
+            } catch (RuntimeException e) {
+                log.warn("Could not return {} leased redemptions of promo code {}", unused, promoId, e);
+            }
+        }
+    }
+
+    private static final class UsageCounter {
+        private final LongAdder redemptions = new LongAdder();
+        // Guarded by the flush() monitor
+        private long flushed;
+    }
+
+    // Redemptions leased from the database and not handed out yet, spread over stripes
+    private final class LeasePool {
+        private final int promoId;
+        private final AtomicInteger[] stripes;
+        // Set by tryAcquire, cleared by each flush
+        private volatile boolean used;
+
+        private LeasePool(int promoId) {
+            this.promoId = promoId;
+            this.stripes = new AtomicInteger[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new AtomicInteger();
+            }
+        }
+
+        private int stripeIndex() {
+            return (int) (Thread.currentThread().threadId() & (stripeCount - 1));
+        }
+
+        // Takes a redemption from the counters; false if they are all empty
+        private boolean tryAcquire() {
+            if (!used) {
+                used = true;
+            }
+            int start = stripeIndex();
+            for (int i = 0; i < stripeCount; i++) {
+                AtomicInteger stripe = stripes[(start + i) & (stripeCount - 1)];
+                int available;
+                while ((available = stripe.get()) > 0) {
+                    if (stripe.compareAndSet(available, available - 1)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        // Halves the block until it fits within its share of what is left; runs in the caller's transaction
+        private int lease() {
+            for (int count = leaseSize; count > 0; count /= 2) {
+                if (promoCodeRepository.reserveRedemptions(promoId, count, LEASE_SHARE) == 1) {
+                    return count;
+                }
+            }
+            return 0;
+        }
+
+        private void release() {
+            add(1);
+        }
+
+        private void add(int count) {
+            stripes[stripeIndex()].addAndGet(count);
+        }
+
+        // Whether a checkout drew from the pool since the last call
+        private boolean checkUsed() {
+            boolean wasUsed = used;
+            used = false;
+            return wasUsed;
+        }
+
+        private int drain() {
+            int unused = 0;
+            for (AtomicInteger stripe : stripes) {
+                unused += stripe.getAndSet(0);
+            }
+            return unused;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.CartItemDTO;
+import com.assignment.DTO.PromoTierDTO;
+import com.assignment.entites.PromoCode;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A promo code compiled into the checks and arithmetic needed at checkout.
+ * <p>
+ * Each promotion type is compiled into a {@link Discount} that only captures
+ * primitives and reads a {@link CartSummary}, so evaluating a rule touches no
+ * entity, no database and no cart line beyond constant-time lookups.
+ * </p>
+ */
+public final class PromoRule {
+
+    @FunctionalInterface
+    interface Discount {
+        double apply(CartSummary cart);
+    }
+
+    private final int id;
+    private final String code;
+    private final String promoType;
+    private final boolean active;
+    private final double minOrderAmount;
+    // Last valid day, Long.MAX_VALUE if the code never expires
+    private final long expiryEpochDay;
+    // 0 for no limit
+    private final int maxRedemptions;
+    private final int maxRedemptionsPerUser;
+    private final Discount discount;
+
+    private PromoRule(int id, String code, String promoType, boolean active, double minOrderAmount,
+                      long expiryEpochDay, int maxRedemptions, int maxRedemptionsPerUser, Discount discount) {
+        this.id = id;
+        this.code = code;
+        this.promoType = promoType;
+        this.active = active;
+        this.minOrderAmount = minOrderAmount;
+        this.expiryEpochDay = expiryEpochDay;
+        this.maxRedemptions = maxRedemptions;
+        this.maxRedemptionsPerUser = maxRedemptionsPerUser;
+        this.discount = discount;
+    }
+
+    /**
+     * Compiles a promo code, with its product and category loaded.
+     *
+     * @throws IllegalStateException if the code lacks the settings its type needs.
+     */
+    public static PromoRule compile(PromoCode promoCode) {
+        String promoType = promoCode.getPromoType() != null ? promoCode.getPromoType() : PromoCode.PERCENTAGE;
+        return new PromoRule(
+                promoCode.getId(),
+                promoCode.getCode(),
+                promoType,
+                Boolean.TRUE.equals(promoCode.getActive()),
+                promoCode.getMinOrderAmount() != null ? promoCode.getMinOrderAmount() : 0.0,
+                promoCode.getExpiryDate() != null ? promoCode.getExpiryDate().toEpochDay() : Long.MAX_VALUE,
+                promoCode.getMaxRedemptions() != null ? promoCode.getMaxRedemptions() : 0,
+                promoCode.getMaxRedemptionsPerUser() != null ? promoCode.getMaxRedemptionsPerUser() : 0,
+                compileDiscount(promoType, promoCode));
+    }
+
+    private static Discount compileDiscount(String promoType, PromoCode promoCode) {
+        double fraction = promoCode.getDiscountPercentage() != null ? promoCode.getDiscountPercentage() / 100 : 0.0;
+        return switch (promoType) {
+            case PromoCode.PERCENTAGE -> {
+                if (Boolean.TRUE.equals(promoCode.getProductSpecific()) && promoCode.getProduct() != null) {
+                    int productId = promoCode.getProduct().getId();
+                    yield cart -> {
+                        CartItemDTO item = cart.item(productId);
+                        return item == null ? 0.0 : item.getPrice() * item.getQuantity() * fraction;
+                    };
+                }
+                yield cart -> cart.getSubtotal() * fraction;
+            }
+            case PromoCode.CATEGORY -> {
+                int categoryId = required(promoCode.getCategory(), promoCode).getId();
+                yield cart -> cart.categoryTotal(categoryId) * fraction;
+            }
+            case PromoCode.FIXED_AMOUNT -> {
+                double amount = required(promoCode.getDiscountAmount(), promoCode);
+                yield cart -> Math.min(amount, cart.getSubtotal());
+            }
+            case PromoCode.TIERED -> {
+                // Highest threshold first, so the first tier reached is the best one
+                List<PromoTierDTO> tiers = parseTiers(required(promoCode.getTiers(), promoCode));
+                int count = tiers.size();
+                double[] thresholds = new double[count];
+                double[] fractions = new double[count];
+                for (int i = 0; i < count; i++) {
+                    PromoTierDTO tier = tiers.get(count - 1 - i);
+                    thresholds[i] = tier.getMinOrderAmount();
+                    fractions[i] = tier.getDiscountPercentage() / 100;
+                }
+                yield cart -> {
+                    double subtotal = cart.getSubtotal();
+                    for (int i = 0; i < thresholds.length; i++) {
+                        if (subtotal >= thresholds[i]) {
+                            return subtotal * fractions[i];
+                        }
+                    }
+                    return 0.0;
+                };
+            }
+            case PromoCode.BUY_X_GET_Y -> {
+                int productId = required(promoCode.getProduct(), promoCode).getId();
+                int buy = required(promoCode.getBuyQuantity(), promoCode);
+                int free = required(promoCode.getFreeQuantity(), promoCode);
+                yield cart -> {
+                    CartItemDTO item = cart.item(productId);
+                    if (item == null) {
+                        return 0.0;
+                    }
+                    int freeUnits = item.getQuantity() / (buy + free) * free;
+                    return freeUnits * item.getPrice();
+                };
+            }
+            default -> throw new IllegalStateException("Unknown promo type " + promoType + " of promo code " + promoCode.getCode());
+        };
+    }
+
+    private static <T> T required(T value, PromoCode promoCode) {
+        if (value == null) {
+            throw new IllegalStateException("Promo code " + promoCode.getCode() + " is missing settings for type " + promoCode.getPromoType());
+        }
+        return value;
+    }
+
+    // Tiers are stored as "minOrderAmount:discountPercentage" pairs, ascending by amount
+    static String formatTiers(List<PromoTierDTO> tiers) {
+        return tiers.stream()
+                .sorted(Comparator.comparingDouble(PromoTierDTO::getMinOrderAmount))
+                .map(tier -> tier.getMinOrderAmount() + ":" + tier.getDiscountPercentage())
+                .collect(Collectors.joining(","));
+    }
+
+    static List<PromoTierDTO> parseTiers(String tiers) {
+        return Arrays.stream(tiers.split(","))
+                .map(tier -> tier.split(":"))
+                .map(parts -> new PromoTierDTO(Double.parseDouble(parts[0]), Double.parseDouble(parts[1])))
+                .sorted(Comparator.comparingDouble(PromoTierDTO::getMinOrderAmount))
+                .toList();
+    }
+
+    /**
+     * Checks whether the code can be used for a cart with the given subtotal.
+     *
+     * @return null if it can, otherwise the reason it can't.
+     */
+    public String rejectionReason(double subtotal, LocalDate today) {
+        // Expiry first: expired codes are deactivated, but should still say why
+        if (isExpired(today)) {
+            return "Promo code has expired!";
+        }
+        if (!active) {
+            return "Promo code is not active!";
+        }
+        if (subtotal < minOrderAmount) {
+            return "Total amount does not meet the minimum order amount for this promo code!";
+        }
+        return null;
+    }
+
+    /**
+     * Computes the discount for a cart that passed {@link #rejectionReason}.
+     * Product and category promotions give nothing if the cart has no matching line.
+     */
+    public double discount(CartSummary cart) {
+        return discount.apply(cart);
+    }
+
+    public boolean isExpired(LocalDate today) {
+        return expiryEpochDay < today.toEpochDay();
+    }
+
+    // The same rule with the active flag cleared
+    PromoRule deactivated() {
+        return new PromoRule(id, code, promoType, false, minOrderAmount, expiryEpochDay,
+                maxRedemptions, maxRedemptionsPerUser, discount);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getPromoType() {
+        return promoType;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public int getMaxRedemptions() {
+        return maxRedemptions;
+    }
+
+    public int getMaxRedemptionsPerUser() {
+        return maxRedemptionsPerUser;
+    }
+}
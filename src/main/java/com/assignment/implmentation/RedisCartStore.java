@@ -0,0 +1,210 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.CartLine;
+import com.assignment.services.CartStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * CartStore backed by Redis or any server speaking its protocol (Valkey,
+ * KeyDB, Dragonfly, ...), enabled with cart.store.type=redis.
+ * <p>
+ * Each cart is a hash of product id to quantity. Reservation deadlines are kept
+ * in one sorted set scored by epoch millis, which lets the expiry sweep find
+ * expired lines without scanning every cart. Removals run as small Lua scripts
+ * so a line is only ever handed back once.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store.type", havingValue = "redis")
+public class RedisCartStore implements CartStore {
+
+    // KEYS[1] = cart hash, KEYS[2] = reservation set, ARGV[1] = product id, ARGV[2] = reservation member;
+    // returns {quantity, deadline or ''}
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Object>> REMOVE_LINE = new DefaultRedisScript<>(
+            "local q = redis.call('HGET', KEYS[1], ARGV[1]) " +
+                    "if not q then return nil end " +
+                    "local s = redis.call('ZSCORE', KEYS[2], ARGV[2]) " +
+                    "redis.call('HDEL', KEYS[1], ARGV[1]) " +
+                    "redis.call('ZREM', KEYS[2], ARGV[2]) " +
+                    "return {q, s or ''}", (Class<List<Object>>) (Class) List.class);
+
+    // KEYS as above, ARGV[1] = product id, ARGV[2] = reservation member, ARGV[3] = delta, ARGV[4] = deadline or ''
+    private static final RedisScript<Long> ADD_QUANTITY = new DefaultRedisScript<>(
+            "local q = redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[3]) " +
+                    "if q <= 0 then " +
+                    "  redis.call('HDEL', KEYS[1], ARGV[1]) " +
+                    "  redis.call('ZREM', KEYS[2], ARGV[2]) " +
+                    "  return 0 " +
+                    "end " +
+                    "if ARGV[4] ~= '' then redis.call('ZADD', KEYS[2], ARGV[4], ARGV[2]) end " +
+                    "return q", Long.class);
+
+    // KEYS as above, ARGV[1] = product id, ARGV[2] = reservation member, ARGV[3] = quantity, ARGV[4] = deadline or '';
+    // returns the replaced line as {quantity, deadline or ''}
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Object>> SET_LINE = new DefaultRedisScript<>(
+            "local old = redis.call('HGET', KEYS[1], ARGV[1]) " +
+                    "local s = redis.call('ZSCORE', KEYS[2], ARGV[2]) " +
+                    "redis.call('HSET', KEYS[1], ARGV[1], ARGV[3]) " +
+                    "if ARGV[4] ~= '' then redis.call('ZADD', KEYS[2], ARGV[4], ARGV[2]) end " +
+                    "if not old then return nil end " +
+                    "return {old, s or ''}", (Class<List<Object>>) (Class) List.class);
+
+    // Same as REMOVE_LINE, but only if the reservation is still expired at ARGV[3]
+    private static final RedisScript<Long> REMOVE_EXPIRED_LINE = new DefaultRedisScript<>(
+            "local s = redis.call('ZSCORE', KEYS[2], ARGV[2]) " +
+                    "if not s or tonumber(s) > tonumber(ARGV[3]) then return nil end " +
+                    "local q = redis.call('HGET', KEYS[1], ARGV[1]) " +
+                    "redis.call('HDEL', KEYS[1], ARGV[1]) " +
+                    "redis.call('ZREM', KEYS[2], ARGV[2]) " +
+                    "if not q then return nil end " +
+                    "return tonumber(q)", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String keyPrefix;
+
+    private final String reservationsKey;
+
+    public RedisCartStore(StringRedisTemplate redisTemplate,
+                          @Value("${cart.store.redis.key-prefix:cart:}") String keyPrefix) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.reservationsKey = keyPrefix + "reservations";
+    }
+
+    private String cartKey(int userId) {
+        return keyPrefix + userId;
+    }
+
+    private static String member(int userId, int productId) {
+        return userId + ":" + productId;
+    }
+
+    @Override
+    public Map<Integer, CartLine> getLines(int userId) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(cartKey(userId));
+        if (entries.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Integer> productIds = entries.keySet().stream()
+                .map(key -> Integer.parseInt((String) key))
+                .sorted()
+                .toList();
+        Object[] members = productIds.stream().map(productId -> member(userId, productId)).toArray();
+        List<Double> scores = redisTemplate.opsForZSet().score(reservationsKey, members);
+
+        Map<Integer, CartLine> lines = new LinkedHashMap<>();
+        for (int i = 0; i < productIds.size(); i++) {
+            int productId = productIds.get(i);
+            int quantity = Integer.parseInt((String) entries.get(String.valueOf(productId)));
+            Double score = scores == null ? null : scores.get(i);
+            lines.put(productId, new CartLine(productId, quantity, score == null ? null : fromMillis(score.longValue())));
+        }
+        return lines;
+    }
+
+    @Override
+    public CartLine addQuantity(int userId, int productId, int quantity, LocalDateTime reservedUntil) {
+        Long newQuantity = redisTemplate.execute(ADD_QUANTITY, List.of(cartKey(userId), reservationsKey),
+                String.valueOf(productId), member(userId, productId), String.valueOf(quantity), deadline(reservedUntil));
+        if (newQuantity == null || newQuantity <= 0) {
+            return null;
+        }
+        return new CartLine(productId, newQuantity.intValue(), reservedUntil);
+    }
+
+    @Override
+    public CartLine setLine(int userId, int productId, int quantity, LocalDateTime reservedUntil) {
+        List<Object> previous = redisTemplate.execute(SET_LINE, List.of(cartKey(userId), reservationsKey),
+                String.valueOf(productId), member(userId, productId), String.valueOf(quantity), deadline(reservedUntil));
+        return toLine(productId, previous);
+    }
+
+    @Override
+    public CartLine removeLine(int userId, int productId) {
+        List<Object> removed = redisTemplate.execute(REMOVE_LINE, List.of(cartKey(userId), reservationsKey),
+                String.valueOf(productId), member(userId, productId));
+        return toLine(productId, removed);
+    }
+
+    @Override
+    public Map<Integer, CartLine> takeAll(int userId) {
+        Map<Integer, CartLine> taken = new LinkedHashMap<>();
+        for (Integer productId : getLines(userId).keySet()) {
+            // Each line is removed atomically, so a concurrent takeAll can't get it too
+            CartLine removed = removeLine(userId, productId);
+            if (removed != null) {
+                taken.put(productId, removed);
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Turns a {quantity, deadline or ''} script reply into a line, keeping the
+     * deadline so a rollback that puts the line back also restores its
+     * reservation entry.
+     */
+    private static CartLine toLine(int productId, List<Object> reply) {
+        if (reply == null || reply.isEmpty()) {
+            return null;
+        }
+        int quantity = Integer.parseInt(String.valueOf(reply.get(0)));
+        String score = reply.size() > 1 ? String.valueOf(reply.get(1)) : "";
+        LocalDateTime reservedUntil = score.isEmpty() ? null : fromMillis((long) Double.parseDouble(score));
+        return new CartLine(productId, quantity, reservedUntil);
+    }
+
+    @Override
+    public void restore(int userId, Map<Integer, CartLine> lines) {
+        lines.values().forEach(line ->
+                addQuantity(userId, line.getProductId(), line.getQuantity(), line.getReservedUntil()));
+    }
+
+    @Override
+    public Map<Integer, Integer> removeExpired(LocalDateTime now) {
+        long nowMillis = toMillis(now);
+        Set<String> expired = redisTemplate.opsForZSet().rangeByScore(reservationsKey, 0, nowMillis);
+        Map<Integer, Integer> released = new HashMap<>();
+        if (expired == null) {
+            return released;
+        }
+
+        for (String member : expired) {
+            int separator = member.indexOf(':');
+            int userId = Integer.parseInt(member.substring(0, separator));
+            int productId = Integer.parseInt(member.substring(separator + 1));
+            Long quantity = redisTemplate.execute(REMOVE_EXPIRED_LINE, List.of(cartKey(userId), reservationsKey),
+                    String.valueOf(productId), member, String.valueOf(nowMillis));
+            if (quantity != null) {
+                released.merge(productId, quantity.intValue(), Integer::sum);
+            }
+        }
+        return released;
+    }
+
+    private static String deadline(LocalDateTime reservedUntil) {
+        return reservedUntil == null ? "" : String.valueOf(toMillis(reservedUntil));
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
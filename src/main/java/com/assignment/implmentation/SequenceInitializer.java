@@ -0,0 +1,62 @@
+package com.assignment.implmentation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+/**
+ * Moves pooled id sequences past the ids already in their tables.
+ * <p>
+ * These tables used IDENTITY ids before switching to pooled sequences. MySQL
+ * emulates a sequence with a *_seq table whose next_val starts at 1, so on an
+ * existing database new ids would collide with old rows. The pooled optimizer
+ * hands out the block (next_val - allocationSize, next_val], so next_val is
+ * raised to at least max(id) + allocationSize + 1. Sequences already past
+ * that are left alone, which makes this a no-op once done.
+ * </p>
+ */
+@Component
+public class SequenceInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceInitializer.class);
+
+    // Must match the allocationSize of the entities' @SequenceGenerator
+    static final int ALLOCATION_SIZE = 50;
+
+    // Sequence table -> table whose ids it generates
+    static final Map<String, String> SEQUENCES = Map.of(
+            "orders_seq", "orders",
+            "order_items_seq", "order_items",
+            "order_audit_seq", "order_audit",
+            "payments_seq", "payments",
+            "transactions_seq", "transactions");
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @PostConstruct
+    public void initialize() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        SEQUENCES.forEach((sequence, table) -> transactionTemplate.executeWithoutResult(status -> {
+            int updated = entityManager.createNativeQuery(
+                    "update " + sequence + " set next_val = (select coalesce(max(id), 0) + " + (ALLOCATION_SIZE + 1)
+                            + " from " + table + ") where next_val <= (select coalesce(max(id), 0) + "
+                            + ALLOCATION_SIZE + " from " + table + ")")
+                    .executeUpdate();
+            if (updated > 0) {
+                log.info("Moved {} past the existing ids in {}", sequence, table);
+            }
+        }));
+    }
+}
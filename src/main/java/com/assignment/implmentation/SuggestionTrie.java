@@ -0,0 +1,496 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.SuggestionDTO;
+import com.assignment.entites.Product;
+import com.assignment.repository.CategoryRepository;
+import com.assignment.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typeahead suggestions for product and category names, served by
+ * GET /products/suggest without touching the database.
+ * <p>
+ * Names are normalized to lower-cased words and stored in a radix trie under
+ * every word start, so "ru" suggests both "Runner 2" and "Trail Runner Pro".
+ * Each node keeps its best few suggestions, ranked by name starts first, then
+ * shorter names, so a lookup is a walk down the typed characters. Keys are cut
+ * after {@link #MAX_KEY_LENGTH} characters; longer input is matched against the
+ * full names of the few entries stored where the cut keys end.
+ * </p>
+ * <p>
+ * The trie is persistent: a write copies the nodes on the path it changes and
+ * publishes a new root, so lookups never lock or see a half-applied change.
+ * It is built from the products and categories tables at startup and updated
+ * by product and category writes once they commit. Like the search index, it
+ * periodically re-reads the products and categories changed since the previous
+ * run, to pick up writes from other instances and repair updates applied out
+ * of order.
+ * </p>
+ */
+@Component
+public class SuggestionTrie {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionTrie.class);
+
+    static final int MAX_KEY_LENGTH = 24;
+
+    private static final Placement[] NO_PLACEMENTS = new Placement[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    // Name starts first, then shorter names, categories before products, then alphabetically
+    private static final Comparator<Placement> RANKING = (a, b) -> {
+        if ((a.offset() == 0) != (b.offset() == 0)) {
+            return a.offset() == 0 ? -1 : 1;
+        }
+        Entry x = a.entry();
+        Entry y = b.entry();
+        int order = Integer.compare(x.normalized().length(), y.normalized().length());
+        if (order == 0) {
+            order = Boolean.compare(!x.isCategory(), !y.isCategory());
+        }
+        if (order == 0) {
+            order = x.normalized().compareTo(y.normalized());
+        }
+        return order != 0 ? order : Integer.compare(x.suggestion().getId(), y.suggestion().getId());
+    };
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    private final int maxResults;
+
+    private final int loadBatchSize;
+
+    // How far before the previous run a reconcile looks, to catch transactions that committed late
+    @Value("${search.index.reconcile-lookback-ms:300000}")
+    private long reconcileLookbackMillis;
+
+    private volatile LocalDateTime reconciledAt;
+
+    private volatile Node root = new Node("", NO_CHILDREN, NO_PLACEMENTS, NO_PLACEMENTS);
+
+    // Current entry of each product and category, keyed "<type>:<id>"; guarded by this
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public SuggestionTrie(@Value("${suggest.max-results:10}") int maxResults,
+                          @Value("${search.index.load-batch-size:5000}") int loadBatchSize) {
+        this.maxResults = maxResults;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    /**
+     * Builds the trie from every live category and listed product, from all keys
+     * sorted at once instead of one insert at a time.
+     */
+    @PostConstruct
+    public synchronized void load() {
+        long started = System.currentTimeMillis();
+        reconciledAt = LocalDateTime.now();
+        entries.clear();
+        for (CategoryRepository.CategoryNode category : categoryRepository.findAllNodes()) {
+            addEntry(SuggestionDTO.CATEGORY, category.getId(), category.getName());
+        }
+        int afterId = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findListedAfter(afterId, PageRequest.of(0, loadBatchSize));
+            for (Product product : batch) {
+                addEntry(SuggestionDTO.PRODUCT, product.getId(), product.getName());
+                afterId = product.getId();
+            }
+        } while (batch.size() == loadBatchSize);
+
+        List<KeyedPlacement> keyed = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            for (Placement placement : entry.placements()) {
+                keyed.add(new KeyedPlacement(placement.key(), placement));
+            }
+        }
+        keyed.sort(Comparator.comparing(KeyedPlacement::key));
+        root = build(keyed, 0, keyed.size(), 0, "");
+        log.info("Built suggestions for {} names ({} keys) in {} ms", entries.size(), keyed.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    private void addEntry(String type, int id, String name) {
+        Entry entry = Entry.of(new SuggestionDTO(name, type, id));
+        if (entry != null) {
+            entries.put(type + ":" + id, entry);
+        }
+    }
+
+    // Keys in [from, to) are sorted and share their first depth characters
+    private Node build(List<KeyedPlacement> keyed, int from, int to, int depth, String label) {
+        int index = from;
+        List<Placement> terminals = new ArrayList<>();
+        while (index < to && keyed.get(index).key().length() == depth) {
+            terminals.add(keyed.get(index++).placement());
+        }
+        terminals.sort(RANKING);
+
+        List<Node> children = new ArrayList<>();
+        while (index < to) {
+            char first = keyed.get(index).key().charAt(depth);
+            int end = index;
+            while (end < to && keyed.get(end).key().charAt(depth) == first) {
+                end++;
+            }
+            // Sorted keys: the group's common prefix is that of its first and last key
+            String firstKey = keyed.get(index).key();
+            int childDepth = depth + commonPrefix(firstKey, depth, keyed.get(end - 1).key(), depth);
+            children.add(build(keyed, index, end, childDepth, firstKey.substring(depth, childDepth)));
+            index = end;
+        }
+        return node(label, children.toArray(NO_CHILDREN), terminals.toArray(NO_PLACEMENTS));
+    }
+
+    /**
+     * Re-applies the categories and products changed since the previous run.
+     * Unchanged names are skipped, so only real changes rewrite the trie.
+     */
+    @Scheduled(fixedDelayString = "${search.index.reconcile-interval-ms:60000}",
+            initialDelayString = "${search.index.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime since = reconciledAt.minus(reconcileLookbackMillis, ChronoUnit.MILLIS);
+        for (CategoryRepository.CategoryName category : categoryRepository.findChangedSince(since)) {
+            replace(SuggestionDTO.CATEGORY, category.getId(), category.isDeleted() ? null : category.getName());
+        }
+        int afterId = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findChangedAfter(since, afterId, PageRequest.of(0, loadBatchSize));
+            for (Product product : batch) {
+                boolean listed = product.getActive() && !product.isDeleted();
+                replace(SuggestionDTO.PRODUCT, product.getId(), listed ? product.getName() : null);
+                afterId = product.getId();
+            }
+        } while (batch.size() == loadBatchSize);
+        reconciledAt = started;
+    }
+
+    /**
+     * Updates the suggestions of a saved product: it is suggested while active
+     * and not deleted. Inside a transaction this happens only once it commits.
+     */
+    public void update(Product product) {
+        int id = product.getId();
+        String name = product.getName();
+        boolean listed = product.getActive() && !product.isDeleted();
+        TransactionHooks.afterCommit(() -> replace(SuggestionDTO.PRODUCT, id, listed ? name : null));
+    }
+
+    /**
+     * Updates the suggestions of a saved category. Inside a transaction this
+     * happens only once it commits.
+     *
+     * @param name The category name, or null if it was deleted.
+     */
+    public void updateCategory(int id, String name) {
+        TransactionHooks.afterCommit(() -> replace(SuggestionDTO.CATEGORY, id, name));
+    }
+
+    private synchronized void replace(String type, int id, String name) {
+        String entryKey = type + ":" + id;
+        Entry previous = entries.get(entryKey);
+        if (previous != null && name != null && previous.suggestion().getText().equals(name)) {
+            return;
+        }
+
+        Node updated = root;
+        if (previous != null) {
+            entries.remove(entryKey);
+            for (Placement placement : previous.placements()) {
+                updated = remove(updated, placement.key(), 0, placement);
+            }
+        }
+        Entry entry = name != null ? Entry.of(new SuggestionDTO(name, type, id)) : null;
+        if (entry != null) {
+            entries.put(entryKey, entry);
+            for (Placement placement : entry.placements()) {
+                updated = insert(updated, placement.key(), 0, placement);
+            }
+        }
+        root = updated;
+    }
+
+    private Node insert(Node node, String key, int depth, Placement placement) {
+        if (depth == key.length()) {
+            Placement[] terminals = Arrays.copyOf(node.terminals(), node.terminals().length + 1);
+            terminals[terminals.length - 1] = placement;
+            Arrays.sort(terminals, RANKING);
+            return node(node.label(), node.children(), terminals);
+        }
+
+        int childIndex = node.childIndex(key.charAt(depth));
+        if (childIndex < 0) {
+            Node leaf = node(key.substring(depth), NO_CHILDREN, new Placement[]{placement});
+            return node(node.label(), withChild(node.children(), leaf), node.terminals());
+        }
+
+        Node child = node.children()[childIndex];
+        int common = commonPrefix(child.label(), 0, key, depth);
+        if (common < child.label().length()) {
+            // The key leaves the edge midway: split it at that point
+            Node lower = node(child.label().substring(common), child.children(), child.terminals());
+            child = node(child.label().substring(0, common), new Node[]{lower}, NO_PLACEMENTS);
+        }
+        return node(node.label(), replaceChild(node.children(), childIndex, insert(child, key, depth + common, placement)),
+                node.terminals());
+    }
+
+    private Node remove(Node node, String key, int depth, Placement placement) {
+        if (depth == key.length()) {
+            Placement[] terminals = Arrays.stream(node.terminals())
+                    .filter(terminal -> !terminal.equals(placement))
+                    .toArray(Placement[]::new);
+            return node(node.label(), node.children(), terminals);
+        }
+
+        int childIndex = node.childIndex(key.charAt(depth));
+        if (childIndex < 0 || !key.startsWith(node.children()[childIndex].label(), depth)) {
+            return node;
+        }
+        Node child = node.children()[childIndex];
+        Node updated = remove(child, key, depth + child.label().length(), placement);
+
+        // Drop emptied nodes and merge a node left with a single child into it, keeping the trie compressed
+        Node[] children;
+        if (updated.terminals().length == 0 && updated.children().length == 0) {
+            children = withoutChild(node.children(), childIndex);
+        } else if (updated.terminals().length == 0 && updated.children().length == 1) {
+            Node only = updated.children()[0];
+            children = replaceChild(node.children(), childIndex,
+                    new Node(updated.label() + only.label(), only.children(), only.terminals(), only.top()));
+        } else {
+            children = replaceChild(node.children(), childIndex, updated);
+        }
+        return node(node.label(), children, node.terminals());
+    }
+
+    /**
+     * Suggests product and category names matching what has been typed so far.
+     *
+     * @param query The typed text; its last word may be incomplete.
+     * @param limit The maximum number of suggestions, at most {@link #getMaxResults()}.
+     * @return Distinct suggestions, best first.
+     */
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        String prefix = String.join(" ", ProductSearchIndex.tokenize(query));
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        // A finished last word only matches whole words
+        if (Character.isWhitespace(query.charAt(query.length() - 1))) {
+            prefix += " ";
+        }
+        String walked = prefix.length() > MAX_KEY_LENGTH ? prefix.substring(0, MAX_KEY_LENGTH) : prefix;
+
+        Node node = root;
+        int depth = 0;
+        while (depth < walked.length()) {
+            int childIndex = node.childIndex(walked.charAt(depth));
+            if (childIndex < 0) {
+                return List.of();
+            }
+            Node child = node.children()[childIndex];
+            int common = commonPrefix(child.label(), 0, walked, depth);
+            if (depth + common < walked.length() && common < child.label().length()) {
+                return List.of();
+            }
+            node = child;
+            depth += child.label().length();
+        }
+
+        Placement[] candidates = node.top();
+        if (prefix.length() > walked.length()) {
+            // Cut keys all end at this node: match the rest of the input against the full names
+            String fullPrefix = prefix;
+            candidates = Arrays.stream(node.terminals())
+                    .filter(placement -> placement.entry().normalized().startsWith(fullPrefix, placement.offset()))
+                    .toArray(Placement[]::new);
+        }
+
+        List<SuggestionDTO> suggestions = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        for (Placement placement : candidates) {
+            SuggestionDTO suggestion = placement.entry().suggestion();
+            if (seen.add(suggestion.getType() + ":" + suggestion.getText())) {
+                suggestions.add(suggestion);
+                if (suggestions.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    // Creates a node with its best maxResults placements, merged from its own and its children's sorted lists
+    private Node node(String label, Node[] children, Placement[] terminals) {
+        if (children.length == 0 && terminals.length <= maxResults) {
+            return new Node(label, children, terminals, terminals);
+        }
+        Placement[][] sources = new Placement[children.length + 1][];
+        sources[0] = terminals;
+        for (int i = 0; i < children.length; i++) {
+            sources[i + 1] = children[i].top();
+        }
+        int[] heads = new int[sources.length];
+
+        Placement[] top = new Placement[maxResults];
+        int size = 0;
+        while (size < maxResults) {
+            int best = -1;
+            for (int i = 0; i < sources.length; i++) {
+                if (heads[i] < sources[i].length
+                        && (best < 0 || RANKING.compare(sources[i][heads[i]], sources[best][heads[best]]) < 0)) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            Placement candidate = sources[best][heads[best]++];
+            // An entry can be reached through several of its words; keep its best placement
+            if (!containsEntry(top, size, candidate.entry())) {
+                top[size++] = candidate;
+            }
+        }
+        return new Node(label, children, terminals, size == top.length ? top : Arrays.copyOf(top, size));
+    }
+
+    private static boolean containsEntry(Placement[] placements, int size, Entry entry) {
+        for (int i = 0; i < size; i++) {
+            if (placements[i].entry() == entry) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int commonPrefix(String a, int aFrom, String b, int bFrom) {
+        int length = 0;
+        while (aFrom + length < a.length() && bFrom + length < b.length()
+                && a.charAt(aFrom + length) == b.charAt(bFrom + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static Node[] withChild(Node[] children, Node child) {
+        int insertAt = 0;
+        while (insertAt < children.length && children[insertAt].label().charAt(0) < child.label().charAt(0)) {
+            insertAt++;
+        }
+        Node[] updated = new Node[children.length + 1];
+        System.arraycopy(children, 0, updated, 0, insertAt);
+        updated[insertAt] = child;
+        System.arraycopy(children, insertAt, updated, insertAt + 1, children.length - insertAt);
+        return updated;
+    }
+
+    private static Node[] replaceChild(Node[] children, int index, Node child) {
+        Node[] updated = children.clone();
+        updated[index] = child;
+        return updated;
+    }
+
+    private static Node[] withoutChild(Node[] children, int index) {
+        Node[] updated = new Node[children.length - 1];
+        System.arraycopy(children, 0, updated, 0, index);
+        System.arraycopy(children, index + 1, updated, index, children.length - index - 1);
+        return updated;
+    }
+
+    // A suggestion with its normalized name, e.g. "trail runner pro"
+    private record Entry(SuggestionDTO suggestion, String normalized) {
+
+        // Null if the name has no letters or digits
+        static Entry of(SuggestionDTO suggestion) {
+            String normalized = String.join(" ", ProductSearchIndex.tokenize(suggestion.getText()));
+            return normalized.isEmpty() ? null : new Entry(suggestion, normalized);
+        }
+
+        boolean isCategory() {
+            return suggestion.getType().equals(SuggestionDTO.CATEGORY);
+        }
+
+        // One placement per word start
+        List<Placement> placements() {
+            List<Placement> placements = new ArrayList<>();
+            placements.add(new Placement(this, 0));
+            for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+                placements.add(new Placement(this, i + 1));
+            }
+            return placements;
+        }
+
+        // Identity semantics: two products with the same name are separate entries
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    // An entry stored under the part of its name starting at offset
+    private record Placement(Entry entry, int offset) {
+
+        String key() {
+            return entry.normalized().substring(offset, Math.min(entry.normalized().length(), offset + MAX_KEY_LENGTH));
+        }
+    }
+
+    private record KeyedPlacement(String key, Placement placement) {
+    }
+
+    // Children are sorted by the first character of their label, which is unique among siblings
+    private record Node(String label, Node[] children, Placement[] terminals, Placement[] top) {
+
+        int childIndex(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label().charAt(0);
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+    }
+}
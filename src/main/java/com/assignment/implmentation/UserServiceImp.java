@@ -2,6 +2,8 @@ package com.assignment.implmentation;
 
 import com.assignment.DTO.*;
 import com.assignment.config.JWTService;
+import com.assignment.config.PasswordHashingService;
+import com.assignment.config.UserPrincipalCache;
 import com.assignment.entites.*;
 import com.assignment.exception.InvalidDataException;
 import com.assignment.exception.ResourceNotFoundException;
@@ -10,14 +12,12 @@ import com.assignment.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.BindingResult;
 
+import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -50,9 +50,10 @@ public class UserServiceImp implements UserService {
     JWTService jwtService;
 
     @Autowired
-    AuthenticationManager authenticationManager;
+    PasswordHashingService passwordHashingService;
 
-    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
+    @Autowired
+    UserPrincipalCache userPrincipalCache;
 
 
     /**
@@ -60,15 +61,16 @@ public class UserServiceImp implements UserService {
      * <p>
      * It checks for duplicate usernames and emails, assigns a role (USER or ADMIN),
      * and creates a wallet and cart for regular users. Returns a success message
-     * or validation errors.
+     * or validation errors. The password is hashed on the bcrypt pool, so the
+     * request thread is released while the hash runs.
      * </p>
      *
      * @param userRegistrationDTO The DTO containing registration details.
      * @param bindingResult       The result of input validation.
-     * @return ResponseEntity containing success or error message.
+     * @return A future ResponseEntity containing success or error message.
      */
     @Override
-    public ResponseEntity<Object> register(UserRegistrationDTO userRegistrationDTO, BindingResult bindingResult) {
+    public CompletableFuture<ResponseEntity<Object>> register(UserRegistrationDTO userRegistrationDTO, BindingResult bindingResult) {
 
 
         if (bindingResult.hasErrors()) {
@@ -76,7 +78,7 @@ public class UserServiceImp implements UserService {
             bindingResult.getFieldErrors().forEach(error -> {
                 errorMap.put(error.getField(), error.getDefaultMessage());
             });
-            return new ResponseEntity<>(errorMap, HttpStatus.BAD_REQUEST);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(errorMap, HttpStatus.BAD_REQUEST));
         }
 
         // Check for duplicate username and email
@@ -91,9 +93,15 @@ public class UserServiceImp implements UserService {
         Role role = roleRepository.findById(userRegistrationDTO.getRole().equalsIgnoreCase("ADMIN") ? 2 : 1)
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found"));
 
+        return passwordHashingService.encode(userRegistrationDTO.getPassword())
+                .thenApply(hash -> createUser(userRegistrationDTO, role, hash));
+    }
+
+    private ResponseEntity<Object> createUser(UserRegistrationDTO userRegistrationDTO, Role role, String passwordHash) {
+
         User user = new User();
         user.setUsername(userRegistrationDTO.getUsername());
-        user.setPassword(encoder.encode(userRegistrationDTO.getPassword()));
+        user.setPassword(passwordHash);
         user.setEmail(userRegistrationDTO.getEmail());
         user.setRole(role);
 
@@ -128,23 +136,25 @@ public class UserServiceImp implements UserService {
     /**
      * Authenticates a user and generates a JWT token if the credentials are valid.
      * <p>
-     * Verifies username and password using bcrypt and Spring Security’s authentication manager.
+     * The password is verified exactly once, on the bcrypt pool, so the request
+     * thread is released while the hash runs. If the stored hash was produced with
+     * a different work factor it is transparently re-hashed with the current one.
      * Returns a JWT token and success message or error message if authentication fails.
      * </p>
      *
      * @param loginDTO      The DTO containing login details.
      * @param bindingResult The result of input validation.
-     * @return ResponseEntity containing a token and message or error information.
+     * @return A future ResponseEntity containing a token and message or error information.
      */
     @Override
-    public ResponseEntity<Object> login(LoginDTO loginDTO, BindingResult bindingResult) {
+    public CompletableFuture<ResponseEntity<Object>> login(LoginDTO loginDTO, BindingResult bindingResult) {
 
         if (bindingResult.hasErrors()) {
             Map<String, String> errorMap = new HashMap<>();
             bindingResult.getFieldErrors().forEach(error -> {
                 errorMap.put(error.getField(), error.getDefaultMessage());
             });
-            return new ResponseEntity<>(errorMap, HttpStatus.BAD_REQUEST);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(errorMap, HttpStatus.BAD_REQUEST));
         }
 
 
@@ -156,41 +166,43 @@ public class UserServiceImp implements UserService {
             throw new InvalidDataException("User not found!");
         }
 
-        // Verify the password using bcrypt or other encoding mechanism
-        if (!encoder.matches(loginDTO.getPassword(), existingUser.getPassword())) {
-            throw new InvalidDataException("Bad credentials!");
-        }
-
-        Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(loginDTO.getUsername(), loginDTO.getPassword()));
-
-        if (authentication.isAuthenticated()) {
-            String token = jwtService.generateToken(loginDTO.getUsername(), existingUser.getRole().getName());
-
-            return ResponseEntity.ok(Map.of(
-                    "token", token,
-                    "message", "Login Successful!"
-            ));
-
-        }
-
-        throw new InvalidDataException("Login Failed!"); // Return false if the user is not found
+        // ✅ Verify the password once, off the request thread
+        return passwordHashingService.matches(loginDTO.getPassword(), existingUser.getPassword())
+                .thenApply(matches -> {
+                    if (!matches) {
+                        throw new InvalidDataException("Bad credentials!");
+                    }
+
+                    // ✅ Upgrade hashes created with an older work factor (we're already on the bcrypt pool)
+                    if (passwordHashingService.needsRehash(existingUser.getPassword())) {
+                        existingUser.setPassword(passwordHashingService.getEncoder().encode(loginDTO.getPassword()));
+                        userRepository.save(existingUser);
+                    }
+
+                    String token = jwtService.generateToken(loginDTO.getUsername(), existingUser.getRole().getName());
+
+                    ResponseEntity<Object> response = ResponseEntity.ok(Map.of(
+                            "token", token,
+                            "message", "Login Successful!"
+                    ));
+                    return response;
+                });
     }
 
 
     /**
      * Updates the address and phone number for the authenticated user.
      * <p>
-     * Extracts the username from the JWT token provided in the authorization header
-     * and updates the user’s address and phone number.
+     * Updates the authenticated user’s address and phone number.
      * </p>
      *
-     * @param authorizationHeader The authorization header containing the JWT token.
+     * @param currentUser         The authenticated user.
      * @param addressRequestDTO   The DTO containing address and phone number.
      * @param bindingResult       The result of input validation.
      * @return ResponseEntity with success message or validation errors.
      */
     @Override
-    public ResponseEntity<Object> updateAddress(String authorizationHeader, AddressRequestDTO addressRequestDTO, BindingResult bindingResult) {
+    public ResponseEntity<Object> updateAddress(User currentUser, AddressRequestDTO addressRequestDTO, BindingResult bindingResult) {
 
         if (bindingResult.hasErrors()) {
             Map<String, String> errorMap = new HashMap<>();
@@ -201,9 +213,8 @@ public class UserServiceImp implements UserService {
         }
 
 
-        String token = authorizationHeader.replace("Bearer ", "");
-        String username = jwtService.extractUserName(token);
-        User user = Optional.ofNullable(userRepository.findByUsername(username))
+        // Reload the user; the resolved one is a shared, detached copy
+        User user = userRepository.findById(currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found!"));
 
 
@@ -213,16 +224,15 @@ public class UserServiceImp implements UserService {
 
         // Save the updated user entity
         userRepository.save(user);
+        userPrincipalCache.evict(user.getUsername());
 
         return ResponseEntity.ok(Map.of("message", "Address and phone number updated successfully!"));
     }
 
     @Override
-    public ResponseEntity<Object> updateUserProfile(String authorizationHeader, UserDTO userDTO) {
-        String token = authorizationHeader.replace("Bearer ", "");
-        String username = jwtService.extractUserName(token);
-
-        User user = Optional.ofNullable(userRepository.findByUsername(username))
+    public ResponseEntity<Object> updateUserProfile(User currentUser, UserDTO userDTO) {
+        // Reload the user; the resolved one is a shared, detached copy
+        User user = userRepository.findById(currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found!"));
 
         // ✅ Update fields if provided
@@ -238,20 +248,19 @@ public class UserServiceImp implements UserService {
 
         // ✅ Save updated user
         userRepository.save(user);
+        userPrincipalCache.evict(user.getUsername());
 
         // ✅ Return updated profile
         return ResponseEntity.ok(Map.of("message", "Profile updated successfully!"));
     }
 
     @Override
-    public ResponseEntity<Object> getUserProfile(String authorizationHeader) {
-        String token = authorizationHeader.replace("Bearer ", "");
-        String username = jwtService.extractUserName(token);
-        User user = Optional.ofNullable(userRepository.findByUsername(username))
-                .orElseThrow(() -> new ResourceNotFoundException("User not found!"));
+    public ResponseEntity<Object> getUserProfile(User user) {
+        // The resolved user may be cached, so read the live wallet balance
+        Optional<Wallet> wallet = walletRepository.findByUser(user);
 
         // Map to UserDTO
-        double walletBalance = user.getWallet() != null ? user.getWallet().getBalance() : 0.0;
+        BigDecimal walletBalance = wallet.map(Wallet::getBalance).orElse(BigDecimal.ZERO);
 
 
 
@@ -260,7 +269,7 @@ public class UserServiceImp implements UserService {
                 user.getUsername(),
                 user.getEmail(),
                 user.getRole().getName(),
-                user.getWallet() != null,
+                wallet.isPresent(),
                 user.getAddress(),
                 user.getPhoneNumber(),
                 walletBalance)));
@@ -285,7 +294,7 @@ public class UserServiceImp implements UserService {
             String roleName = (user.getRole() != null) ? user.getRole().getName() : "No Role";
             boolean hasWallet = (user.getWallet() != null);
 
-            double walletBalance = user.getWallet() != null ? user.getWallet().getBalance() : 0.0;
+            BigDecimal walletBalance = user.getWallet() != null ? user.getWallet().getBalance() : BigDecimal.ZERO;
             return new UserDTO(
                     user.getId(),
                     user.getUsername(),
@@ -337,6 +346,7 @@ public class UserServiceImp implements UserService {
         // Soft delete the user by setting the deleted flag to true
         user.setDeleted(true);
         userRepository.save(user);
+        userPrincipalCache.evict(user.getUsername());
 
         return ResponseEntity.ok(Map.of("message", "User deleted successfully!"));
 
@@ -0,0 +1,71 @@
+package com.assignment.implmentation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lazily built, immutable snapshot that writes can invalidate.
+ * <p>
+ * Once built, a read is a single volatile read. The first read after an
+ * invalidation rebuilds the snapshot, one thread at a time. A build that an
+ * invalidation overtook is still returned to its caller but not published, so
+ * a snapshot loaded before a write can never stay cached after it.
+ * </p>
+ *
+ * @param <T> The snapshot type.
+ */
+public final class VersionedSnapshot<T> {
+
+    private final Supplier<T> builder;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile T snapshot;
+
+    public VersionedSnapshot(Supplier<T> builder) {
+        this.builder = builder;
+    }
+
+    /**
+     * @return The current snapshot, built first if it was invalidated.
+     */
+    public T get() {
+        T current = snapshot;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (this) {
+            if (snapshot != null) {
+                return snapshot;
+            }
+            long buildVersion = version.get();
+            T built = builder.get();
+            if (version.get() == buildVersion) {
+                snapshot = built;
+            }
+            return built;
+        }
+    }
+
+    /**
+     * Drops the snapshot so the next read rebuilds it, and makes any build in
+     * progress unpublishable.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        snapshot = null;
+    }
+
+    /**
+     * Replaces the published snapshot with a changed copy. Does nothing if
+     * there is none; the next build picks the change up from the source.
+     */
+    public synchronized void update(UnaryOperator<T> change) {
+        T current = snapshot;
+        if (current != null) {
+            snapshot = change.apply(current);
+        }
+    }
+}
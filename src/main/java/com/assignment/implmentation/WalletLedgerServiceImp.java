@@ -0,0 +1,142 @@
+package com.assignment.implmentation;
+
+import com.assignment.entites.Order;
+import com.assignment.entites.Wallet;
+import com.assignment.entites.WalletLedgerEntry;
+import com.assignment.exception.InvalidDataException;
+import com.assignment.exception.ResourceNotFoundException;
+import com.assignment.repository.WalletLedgerRepository;
+import com.assignment.repository.WalletRepository;
+import com.assignment.services.WalletLedgerService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Implementation of the WalletLedgerService interface.
+ * <p>
+ * Every balance change is a conditional UPDATE on the wallet row plus an
+ * append to the wallet ledger, in the caller's transaction. Balances are never
+ * read, modified in Java and written back, so parallel top-ups and checkouts for
+ * the same user cannot overwrite each other, and reading a balance stays a
+ * single-row lookup.
+ * </p>
+ */
+@Service
+public class WalletLedgerServiceImp implements WalletLedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletLedgerServiceImp.class);
+
+    @Autowired
+    WalletRepository walletRepository;
+
+    @Autowired
+    WalletLedgerRepository walletLedgerRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    /**
+     * Migrates wallets created before the ledger existed.
+     * <p>
+     * Their balance column is still a DOUBLE, since ddl-auto=update never
+     * changes an existing column, so it is converted to DECIMAL(19,2). Each
+     * wallet with a balance but no ledger entries then gets one OPENING_BALANCE
+     * entry, so every balance equals the sum of its entries. Both steps are
+     * no-ops once done.
+     * </p>
+     */
+    @PostConstruct
+    public void initialize() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            String columnType = walletRepository.findBalanceColumnType().orElse("decimal");
+            if (!columnType.equalsIgnoreCase("decimal")) {
+                log.info("Converting wallets.balance from {} to DECIMAL(19,2)", columnType);
+                walletRepository.convertBalanceToDecimal();
+            }
+        });
+
+        // Locked so a top-up can't land between reading a balance and recording it
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Wallet> wallets = walletRepository.findUnledgeredForUpdate();
+            if (wallets.isEmpty()) {
+                return;
+            }
+            log.info("Recording opening balances of {} wallets in the ledger", wallets.size());
+            walletLedgerRepository.saveAll(wallets.stream()
+                    .map(wallet -> entry(wallet, wallet.getBalance(), WalletLedgerEntry.OPENING_BALANCE, null))
+                    .toList());
+        });
+    }
+
+    /**
+     * Adds a positive amount to the wallet and records the credit.
+     *
+     * @param walletId  ID of the wallet to credit.
+     * @param amount    Positive amount with at most two decimal places.
+     * @param entryType Ledger entry type, e.g. TOP_UP or ORDER_REFUND.
+     * @param order     Related order, or null.
+     * @throws ResourceNotFoundException If the wallet does not exist.
+     */
+    @Override
+    @Transactional
+    public void credit(int walletId, BigDecimal amount, String entryType, Order order) {
+        requirePositive(amount);
+
+        if (walletRepository.credit(walletId, amount) == 0) {
+            throw new ResourceNotFoundException("User wallet not found!");
+        }
+        append(walletId, amount, entryType, order);
+    }
+
+    /**
+     * Subtracts a positive amount from the wallet if the balance covers it and records the debit.
+     *
+     * @param walletId  ID of the wallet to debit.
+     * @param amount    Positive amount with at most two decimal places.
+     * @param entryType Ledger entry type, e.g. ORDER_PAYMENT.
+     * @param order     Related order, or null.
+     * @throws InvalidDataException If the balance is insufficient.
+     */
+    @Override
+    @Transactional
+    public void debit(int walletId, BigDecimal amount, String entryType, Order order) {
+        requirePositive(amount);
+
+        if (walletRepository.debit(walletId, amount) == 0) {
+            throw new InvalidDataException("Insufficient wallet balance!");
+        }
+        append(walletId, amount.negate(), entryType, order);
+    }
+
+    private void append(int walletId, BigDecimal signedAmount, String entryType, Order order) {
+        walletLedgerRepository.save(entry(walletRepository.getReferenceById(walletId), signedAmount, entryType, order));
+    }
+
+    private static WalletLedgerEntry entry(Wallet wallet, BigDecimal signedAmount, String entryType, Order order) {
+        WalletLedgerEntry entry = new WalletLedgerEntry();
+        entry.setWallet(wallet);
+        entry.setAmount(signedAmount);
+        entry.setEntryType(entryType);
+        entry.setOrder(order);
+        return entry;
+    }
+
+    private static void requirePositive(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new InvalidDataException("Amount must be greater than zero!");
+        }
+        if (amount.stripTrailingZeros().scale() > 2) {
+            throw new InvalidDataException("Amount can have at most 2 decimal places!");
+        }
+    }
+}
@@ -1,15 +1,17 @@
 package com.assignment.implmentation;
 
-import com.assignment.entites.User;
-import com.assignment.entites.Wallet;
+import com.assignment.entites.WalletLedgerEntry;
+import com.assignment.exception.InvalidDataException;
 import com.assignment.exception.ResourceNotFoundException;
-import com.assignment.repository.UserRepository;
 import com.assignment.repository.WalletRepository;
+import com.assignment.services.WalletLedgerService;
 import com.assignment.services.WalletService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.Map;
 
 
@@ -24,39 +26,44 @@ import java.util.Map;
 public class WalletServiceImp implements WalletService {
 
     @Autowired
-    UserRepository userRepository;
+    WalletRepository walletRepository;
 
     @Autowired
-    WalletRepository walletRepository;
+    WalletLedgerService walletLedgerService;
 
 
     /**
      * Updates the balance of a user's wallet by adding a specified value.
      * <p>
-     * This method retrieves the user by their ID and accesses their wallet.
-     * It adds the specified value to the current balance and saves the updated
-     * wallet to the repository.
+     * A positive value is recorded as a top-up and a negative value as an
+     * adjustment, which is refused if it would take the balance below zero.
+     * The change is applied with a conditional update and appended to the
+     * wallet ledger, so concurrent top-ups and checkouts never lose money.
      * </p>
      *
      * @param id    The ID of the user whose wallet balance is being updated.
      * @param value The amount to be added to the current wallet balance.
      * @return ResponseEntity containing a success message or error information.
-     * @throws ResourceNotFoundException If the user with the specified ID is not found.
+     * @throws ResourceNotFoundException If the user with the specified ID has no wallet.
      */
     @Override
-    public ResponseEntity<Object> updateWallet(int id, double value) {
-        // Find user by ID or throw ResourceNotFoundException if not found
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
+    @Transactional
+    public ResponseEntity<Object> updateWallet(int id, BigDecimal value) {
+        // Find the user's wallet or throw ResourceNotFoundException if not found
+        int walletId = walletRepository.findIdByUserId(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found for user with ID: " + id));
 
-        // Retrieve the user's wallet
-        Wallet wallet = user.getWallet();
-        double currentBalance = wallet.getBalance();
+        if (value.signum() == 0) {
+            throw new InvalidDataException("Amount must not be zero!");
+        }
 
         // Update wallet balance
-        wallet.setBalance(currentBalance + value);
+        if (value.signum() > 0) {
+            walletLedgerService.credit(walletId, value, WalletLedgerEntry.TOP_UP, null);
+        } else {
+            walletLedgerService.debit(walletId, value.negate(), WalletLedgerEntry.ADJUSTMENT, null);
+        }
 
-        walletRepository.save(wallet);
         return ResponseEntity.ok(Map.of("message", "Balance added successfully!"));
     }
 }
@@ -1,12 +1,32 @@
 package com.assignment.repository;
 
-import com.assignment.entites.Cart;
 import com.assignment.entites.CartItem;
-import com.assignment.entites.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Integer> {
-    Optional<CartItem> findByCartAndProduct(Cart cart, Product product);
+
+    // Persisted copy of a cart line, read back by the in-memory cart store at startup
+    interface StoredCartLine {
+        int getUserId();
+
+        int getProductId();
+
+        int getQuantity();
+
+        LocalDateTime getReservedUntil();
+    }
+
+    @Query("select c.user.id as userId, ci.product.id as productId, ci.quantity as quantity, ci.reservedUntil as reservedUntil " +
+            "from CartItem ci join ci.cart c order by ci.id")
+    List<StoredCartLine> findAllStoredLines();
+
+    @Modifying
+    @Query("delete from CartItem ci where ci.cart.id = :cartId")
+    int deleteByCartId(@Param("cartId") int cartId);
 }
@@ -3,10 +3,15 @@ package com.assignment.repository;
 import com.assignment.entites.Cart;
 import com.assignment.entites.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Integer> {
 
     Cart findByUser(User user);
+
+    @Query("select c.id from Cart c where c.user.id = :userId")
+    Optional<Integer> findIdByUserId(@Param("userId") int userId);
 }
@@ -2,6 +2,69 @@ package com.assignment.repository;
 
 import com.assignment.entites.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface CategoryRepository extends JpaRepository<Category, Integer> {
+
+    interface CategoryNode {
+        int getId();
+
+        String getName();
+
+        Integer getParentId();
+
+        String getPath();
+
+        int getDepth();
+
+        int getActiveProductCount();
+    }
+
+    interface CategoryName {
+        int getId();
+
+        String getName();
+
+        boolean isDeleted();
+    }
+
+    // Categories changed since a time, deleted or not
+    @Query("select c.id as id, c.name as name, c.isDeleted as deleted from Category c where c.updatedAt >= :since")
+    List<CategoryName> findChangedSince(@Param("since") LocalDateTime since);
+
+    // Every live category, parents before children
+    @Query("select c.id as id, c.name as name, p.id as parentId, c.path as path, c.depth as depth, " +
+            "c.activeProductCount as activeProductCount " +
+            "from Category c left join c.parent p where c.isDeleted = false order by c.depth, c.id")
+    List<CategoryNode> findAllNodes();
+
+    @Query("select count(c) > 0 from Category c where c.parent.id = :parentId and c.isDeleted = false")
+    boolean hasLiveChildren(@Param("parentId") int parentId);
+
+    @Modifying
+    @Query("update Category c set c.activeProductCount = c.activeProductCount + :delta where c.id = :id")
+    int adjustActiveProductCount(@Param("id") int id, @Param("delta") int delta);
+
+    // Moves a subtree: rewrites the path prefix and shifts the depth of every category under it
+    @Modifying
+    @Query("update Category c set c.path = concat(:newPrefix, substring(c.path, length(:oldPrefix) + 1)), " +
+            "c.depth = c.depth + :depthDelta where c.path like concat(:oldPrefix, '%')")
+    int movePaths(@Param("oldPrefix") String oldPrefix, @Param("newPrefix") String newPrefix,
+                  @Param("depthDelta") int depthDelta);
+
+    // Categories created before the tree existed become roots
+    @Modifying
+    @Query("update Category c set c.path = concat('/', cast(c.id as string), '/'), c.depth = 0 where c.path is null")
+    int initializeMissingPaths();
+
+    // Full recount, only used to repair drift of the incrementally maintained counts
+    @Modifying
+    @Query("update Category c set c.activeProductCount = " +
+            "(select count(p) from Product p where p.category = c and p.isActive = true and p.isDeleted = false)")
+    int recountActiveProducts();
 }
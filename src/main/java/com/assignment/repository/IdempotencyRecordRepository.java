@@ -0,0 +1,43 @@
+package com.assignment.repository;
+
+import com.assignment.entites.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Claims a key; fails with a duplicate key error if another request holds it
+    @Transactional
+    @Modifying
+    @Query("insert into IdempotencyRecord (scopedKey, fingerprint, status, statusCode, responseBody, expiresAt) " +
+            "values (:scopedKey, :fingerprint, 'PENDING', 0, '', :expiresAt)")
+    int insertPending(@Param("scopedKey") String scopedKey, @Param("fingerprint") String fingerprint,
+                      @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.status = 'COMPLETED', r.statusCode = :statusCode, " +
+            "r.responseBody = :responseBody, r.expiresAt = :expiresAt where r.scopedKey = :scopedKey and r.status = 'PENDING'")
+    int complete(@Param("scopedKey") String scopedKey, @Param("statusCode") int statusCode,
+                 @Param("responseBody") String responseBody, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.scopedKey = :scopedKey and r.status = 'PENDING'")
+    int deletePending(@Param("scopedKey") String scopedKey);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.scopedKey = :scopedKey and r.expiresAt < :now")
+    int deleteIfExpired(@Param("scopedKey") String scopedKey, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,7 +1,16 @@
 package com.assignment.repository;
 
+import com.assignment.DTO.OrderItemDTO;
 import com.assignment.entites.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
+
+    @Query("select new com.assignment.DTO.OrderItemDTO(p.id, p.name, p.imageUrl, i.price, i.quantity) " +
+            "from OrderItem i join i.product p where i.order.id = :orderId order by i.id")
+    List<OrderItemDTO> findDetailsByOrderId(@Param("orderId") int orderId);
 }
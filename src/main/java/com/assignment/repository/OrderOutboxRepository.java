@@ -0,0 +1,23 @@
+package com.assignment.repository;
+
+import com.assignment.entites.OrderOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    @Query("select e.id from OrderOutboxEvent e where e.status = 'PENDING' and e.nextAttemptAt <= :now order by e.id")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Claims a pending event; the row lock is held until the worker's transaction ends
+    @Modifying
+    @Query("update OrderOutboxEvent e set e.status = 'DONE', e.attempts = e.attempts + 1, e.processedAt = :now " +
+            "where e.id = :id and e.status = 'PENDING'")
+    int claim(@Param("id") long id, @Param("now") LocalDateTime now);
+}
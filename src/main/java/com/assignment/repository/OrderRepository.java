@@ -1,11 +1,68 @@
 package com.assignment.repository;
 
+import com.assignment.DTO.OrderDTO;
+import com.assignment.DTO.OrderDetailDTO;
 import com.assignment.entites.Order;
-import com.assignment.entites.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Integer> {
-    List<Order> findByUser(User currentUser);
+
+    @Query("select new com.assignment.DTO.OrderDTO(o.id, o.totalAmount, o.Status, o.orderDate) " +
+            "from Order o where o.user.id = :userId " +
+            "order by o.orderDate desc, o.id desc")
+    List<OrderDTO> findHistory(@Param("userId") int userId, Pageable pageable);
+
+    // Keyset continuation: orders strictly before (orderDate, id) in history order
+    @Query("select new com.assignment.DTO.OrderDTO(o.id, o.totalAmount, o.Status, o.orderDate) " +
+            "from Order o where o.user.id = :userId " +
+            "and (o.orderDate < :orderDate or (o.orderDate = :orderDate and o.id < :id)) " +
+            "order by o.orderDate desc, o.id desc")
+    List<OrderDTO> findHistoryAfter(@Param("userId") int userId, @Param("orderDate") LocalDate orderDate,
+                                    @Param("id") int id, Pageable pageable);
+
+    // Order header with its promo code and payment, without loading the entities
+    @Query("select new com.assignment.DTO.OrderDetailDTO(o.id, o.Status, o.orderDate, o.totalAmount, " +
+            "o.address, o.phoneNumber, pc.code, pc.discountPercentage, " +
+            "pay.paymentMethod, pay.amountPaid, pay.paymentDate, o.cancelledAt) " +
+            "from Order o left join o.promoCode pc left join o.payment pay " +
+            "where o.id = :orderId and o.user.id = :userId")
+    Optional<OrderDetailDTO> findDetail(@Param("orderId") int orderId, @Param("userId") int userId);
+
+    // Conditional status change: only one concurrent cancellation of a PLACED order can succeed.
+    // orderDate is left alone so a cancelled order keeps its place in the keyset-paged history.
+    @Modifying
+    @Query("update Order o set o.Status = 'CANCELLED', o.cancelledAt = :now " +
+            "where o.id = :orderId and o.user.id = :userId and o.Status = 'PLACED'")
+    int cancelIfPlaced(@Param("orderId") int orderId, @Param("userId") int userId, @Param("now") LocalDateTime now);
+
+    // What was charged for an order: its total and the promo code it redeemed
+    interface OrderCharge {
+        Double getTotalAmount();
+
+        Integer getPromoCodeId();
+    }
+
+    @Query("select o.totalAmount as totalAmount, pc.id as promoCodeId " +
+            "from Order o left join o.promoCode pc where o.id = :orderId")
+    OrderCharge findChargeById(@Param("orderId") int orderId);
+
+    @Query("select count(o) from Order o " +
+            "where o.promoCode.id = :promoCodeId and o.user.id = :userId and o.Status <> 'CANCELLED'")
+    long countRedemptions(@Param("promoCodeId") int promoCodeId, @Param("userId") int userId);
+
+    // Holds off cancelIfPlaced until the caller's transaction ends, and sees a cancellation that already committed
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id = :orderId")
+    Optional<Order> findByIdForUpdate(@Param("orderId") int orderId);
 }
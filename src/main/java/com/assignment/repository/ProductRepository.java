@@ -1,7 +1,62 @@
 package com.assignment.repository;
 
 import com.assignment.entites.Product;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface ProductRepository extends JpaRepository<Product, Integer> {
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductRepository extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product> {
+
+    // Loads every listed product together with its category in a single query
+    @Query("select p from Product p join fetch p.category " +
+            "where p.isActive = true and p.isDeleted = false order by p.id")
+    List<Product> findAllListedWithCategory();
+
+    // Loads the given products together with their categories in a single query
+    @Query("select p from Product p join fetch p.category where p.id in :ids")
+    List<Product> findAllWithCategoryById(@Param("ids") Collection<Integer> ids);
+
+    // One id-ordered batch of listed products with their categories, for loading the search index
+    @Query("select p from Product p join fetch p.category " +
+            "where p.isActive = true and p.isDeleted = false and p.id > :afterId order by p.id")
+    List<Product> findListedAfter(@Param("afterId") int afterId, Pageable pageable);
+
+    // One id-ordered batch of products changed since a time, directly or through their category, listed or not
+    @Query("select p from Product p join fetch p.category c " +
+            "where (p.updatedAt >= :since or c.updatedAt >= :since) and p.id > :afterId order by p.id")
+    List<Product> findChangedAfter(@Param("since") LocalDateTime since, @Param("afterId") int afterId, Pageable pageable);
+
+    // Guarded decrement: only succeeds (returns 1) for an available product while enough stock is left
+    @Transactional
+    @Modifying
+    @Query("update Product p set p.sku = p.sku - :quantity " +
+            "where p.id = :productId and p.sku >= :quantity and p.isActive = true and p.isDeleted = false")
+    int decrementStock(@Param("productId") int productId, @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying
+    @Query("update Product p set p.sku = p.sku + :quantity where p.id = :productId")
+    int incrementStock(@Param("productId") int productId, @Param("quantity") int quantity);
+
+    // Returns the quantities of all items of an order to stock in one statement
+    @Modifying
+    @Query("update Product p set p.sku = p.sku + " +
+            "(select sum(i.quantity) from OrderItem i where i.order.id = :orderId and i.product.id = p.id) " +
+            "where p.id in (select i.product.id from OrderItem i where i.order.id = :orderId)")
+    int restoreStockForOrder(@Param("orderId") int orderId);
+
+    // Locks the rows in id order so concurrent batches can't deadlock each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id in :ids order by p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Integer> ids);
 }
@@ -1,14 +1,49 @@
 package com.assignment.repository;
 
 import com.assignment.entites.PromoCode;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 public interface PromoCodeRepository extends JpaRepository<PromoCode, Integer> {
-    Optional<PromoCode> findByCode(String promoCode);
 
-    List<PromoCode> findByExpiryDateBeforeAndIsActiveTrue(LocalDate currentDate);
+    // One chunk of expired codes that are still active, in id order
+    @Query("select pc.id from PromoCode pc where pc.isActive = true and pc.expiryDate < :today order by pc.id")
+    List<Integer> findExpiredActiveIds(@Param("today") LocalDate today, Pageable pageable);
+
+    @Modifying
+    @Query("update PromoCode pc set pc.isActive = false where pc.id in :ids")
+    int deactivateAll(@Param("ids") Collection<Integer> ids);
+
+    // Leases redemptions against the global cap; fails (returns 0) if fewer than :count are left, or if
+    // :count is more than 1/:share of what is left, so one lease never takes the rest of a code.
+    // Runs in the checkout's transaction, on its connection: the lease commits or rolls back with it
+    @Modifying
+    @Query("update PromoCode pc set pc.reservedRedemptions = pc.reservedRedemptions + :count " +
+            "where pc.id = :id and pc.reservedRedemptions + :count <= pc.maxRedemptions " +
+            "and (:count = 1 or :count * :share <= pc.maxRedemptions - pc.reservedRedemptions)")
+    int reserveRedemptions(@Param("id") int id, @Param("count") int count, @Param("share") int share);
+
+    // A no-op for codes without a global cap, which never lease
+    @Transactional
+    @Modifying
+    @Query("update PromoCode pc set pc.reservedRedemptions = pc.reservedRedemptions - :count " +
+            "where pc.id = :id and pc.reservedRedemptions >= :count")
+    int returnRedemptions(@Param("id") int id, @Param("count") int count);
+
+    @Transactional
+    @Modifying
+    @Query("update PromoCode pc set pc.redemptionCount = pc.redemptionCount + :delta where pc.id = :id")
+    int addRedemptions(@Param("id") int id, @Param("delta") int delta);
+
+    // Loads every promo code with its product (and the product's category) and category in a single query
+    @Query("select pc from PromoCode pc left join fetch pc.product p left join fetch p.category left join fetch pc.category")
+    List<PromoCode> findAllWithProduct();
 }
@@ -0,0 +1,26 @@
+package com.assignment.repository;
+
+import com.assignment.entites.PromoUserRedemption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface PromoUserRedemptionRepository extends JpaRepository<PromoUserRedemption, PromoUserRedemption.Key> {
+
+    // Counts one more redemption unless the user is at the limit; returns 0 then, or if there is no row yet
+    @Modifying
+    @Query("update PromoUserRedemption r set r.redemptions = r.redemptions + 1 " +
+            "where r.promoId = :promoId and r.userId = :userId and r.redemptions < :limit")
+    int incrementBelow(@Param("promoId") int promoId, @Param("userId") int userId, @Param("limit") int limit);
+
+    // First redemption of the code by the user; fails with a duplicate key error if a parallel checkout got there first
+    @Modifying
+    @Query("insert into PromoUserRedemption (promoId, userId, redemptions) values (:promoId, :userId, :redemptions)")
+    int insert(@Param("promoId") int promoId, @Param("userId") int userId, @Param("redemptions") int redemptions);
+
+    @Modifying
+    @Query("update PromoUserRedemption r set r.redemptions = r.redemptions - 1 " +
+            "where r.promoId = :promoId and r.userId = :userId and r.redemptions > 0")
+    int decrement(@Param("promoId") int promoId, @Param("userId") int userId);
+}
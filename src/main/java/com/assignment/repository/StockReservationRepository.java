@@ -0,0 +1,33 @@
+package com.assignment.repository;
+
+import com.assignment.entites.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // Adds to an existing reservation and moves its deadline; returns 0 if the user holds none for the product
+    @Modifying
+    @Query("update StockReservation r set r.quantity = r.quantity + :quantity, r.reservedUntil = :reservedUntil " +
+            "where r.userId = :userId and r.productId = :productId")
+    int addQuantity(@Param("userId") int userId, @Param("productId") int productId,
+                    @Param("quantity") int quantity, @Param("reservedUntil") LocalDateTime reservedUntil);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from StockReservation r where r.userId = :userId and r.productId in :productIds")
+    List<StockReservation> findForUpdate(@Param("userId") int userId, @Param("productIds") Collection<Integer> productIds);
+
+    // One chunk of the expiry sweep; the page size bounds how many rows it locks
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from StockReservation r where r.reservedUntil < :now order by r.id")
+    List<StockReservation> findExpiredForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,7 @@
+package com.assignment.repository;
+
+import com.assignment.entites.WalletLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface WalletLedgerRepository extends JpaRepository<WalletLedgerEntry, Long> {
+}
@@ -2,10 +2,45 @@ package com.assignment.repository;
 
 import com.assignment.entites.User;
 import com.assignment.entites.Wallet;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 public interface WalletRepository extends JpaRepository<Wallet, Integer> {
     Optional<Wallet> findByUser(User user);
+
+    @Query("select w.id from Wallet w where w.user.id = :userId")
+    Optional<Integer> findIdByUserId(@Param("userId") int userId);
+
+    // Single conditional UPDATE: the row lock is held only for the statement and the balance never goes negative
+    @Modifying
+    @Query("update Wallet w set w.balance = w.balance - :amount where w.id = :walletId and w.balance >= :amount")
+    int debit(@Param("walletId") int walletId, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("update Wallet w set w.balance = w.balance + :amount where w.id = :walletId")
+    int credit(@Param("walletId") int walletId, @Param("amount") BigDecimal amount);
+
+    // Type of the balance column; DOUBLE in databases created before the ledger
+    @Query(value = "select data_type from information_schema.columns " +
+            "where table_schema = database() and table_name = 'wallets' and column_name = 'balance'", nativeQuery = true)
+    Optional<String> findBalanceColumnType();
+
+    // ddl-auto=update never changes the type of an existing column
+    @Modifying
+    @Query(value = "alter table wallets modify balance decimal(19,2) not null", nativeQuery = true)
+    void convertBalanceToDecimal();
+
+    // Wallets holding a balance that no ledger entry accounts for
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from Wallet w where w.balance <> 0 " +
+            "and not exists (select e.id from WalletLedgerEntry e where e.wallet = w)")
+    List<Wallet> findUnledgeredForUpdate();
 }
@@ -1,11 +1,16 @@
 package com.assignment.services;
 
+import com.assignment.DTO.CartBatchRequestDTO;
+import com.assignment.entites.User;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 
 public interface CartService {
-    ResponseEntity<Object> addProductToCart(String authorizationHeader, int productId, int quantity);
+    ResponseEntity<Object> addProductToCart(User user, int productId, int quantity);
 
-    ResponseEntity<Object> removeProductFromCart(String authorizationHeader, int productId);
+    ResponseEntity<Object> removeProductFromCart(User user, int productId);
 
-    ResponseEntity<Object> viewCart(String authorizationHeader);
+    ResponseEntity<Object> viewCart(User user);
+
+    ResponseEntity<Object> applyBatch(User user, CartBatchRequestDTO cartBatchRequestDTO, BindingResult bindingResult);
 }
@@ -0,0 +1,65 @@
+package com.assignment.services;
+
+import com.assignment.DTO.CartLine;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Storage for shopping cart contents, keyed by user id.
+ * <p>
+ * Every operation on a single user's cart is atomic. The store only tracks
+ * quantities and reservation deadlines; stock itself is reserved and released
+ * by the InventoryService.
+ * </p>
+ */
+public interface CartStore {
+
+    /**
+     * @return The user's cart lines keyed by product id, in a stable order. Never null.
+     */
+    Map<Integer, CartLine> getLines(int userId);
+
+    /**
+     * Adds to the quantity of a line, creating it if needed, and moves its reservation deadline.
+     * A negative quantity subtracts; the line is removed once it drops to zero.
+     *
+     * @param reservedUntil The new deadline, or null to keep the current one.
+     * @return The line after the change, or null if it was removed.
+     */
+    CartLine addQuantity(int userId, int productId, int quantity, LocalDateTime reservedUntil);
+
+    /**
+     * Replaces a line with the given quantity and reservation deadline.
+     *
+     * @return The line it replaced, or null if the product was not in the cart.
+     */
+    CartLine setLine(int userId, int productId, int quantity, LocalDateTime reservedUntil);
+
+    /**
+     * Removes a line.
+     *
+     * @return The removed line, or null if the product was not in the cart.
+     */
+    CartLine removeLine(int userId, int productId);
+
+    /**
+     * Atomically empties the cart. Concurrent callers never receive the same line twice.
+     *
+     * @return The lines that were removed.
+     */
+    Map<Integer, CartLine> takeAll(int userId);
+
+    /**
+     * Puts lines previously returned by takeAll back, merging with anything added since.
+     */
+    void restore(int userId, Map<Integer, CartLine> lines);
+
+    /**
+     * Removes every line whose reservation ended before the given time. The
+     * InventoryService has already returned their stock by then.
+     *
+     * @return The released quantities summed per product id.
+     */
+    Map<Integer, Integer> removeExpired(LocalDateTime now);
+}
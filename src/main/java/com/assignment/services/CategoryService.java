@@ -12,5 +12,7 @@ public interface CategoryService {
 
     ResponseEntity<Object> findAllCategory();
 
+    ResponseEntity<Object> findCategoryTree();
+
     ResponseEntity<Object> updateCategory(int id, @Valid CategoryDTO categoryDTO, BindingResult bindingResult);
 }
@@ -0,0 +1,11 @@
+package com.assignment.services;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    ResponseEntity<Object> execute(int userId, String idempotencyKey, String fingerprint,
+                                   Supplier<ResponseEntity<Object>> action);
+}
@@ -0,0 +1,20 @@
+package com.assignment.services;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public interface InventoryService {
+    LocalDateTime reserveStock(int userId, int productId, int quantity);
+
+    void releaseStock(int userId, int productId, int quantity);
+
+    void releaseOrderStock(int orderId);
+
+    void adjustStock(int userId, Map<Integer, Integer> quantityChanges, LocalDateTime reservedUntil);
+
+    void consumeReservations(int userId, Map<Integer, Integer> quantities);
+
+    LocalDateTime reservationDeadline();
+
+    void releaseExpiredReservations();
+}
@@ -1,11 +1,14 @@
 package com.assignment.services;
 
+import com.assignment.entites.User;
 import org.springframework.http.ResponseEntity;
 
 public interface OrderService {
-    ResponseEntity<Object> placeOrder(String authorizationHeader, String promoCode);
+    ResponseEntity<Object> placeOrder(User user, String promoCode);
 
-    ResponseEntity<Object> cancelOrder(String authorizationHeader, int orderId);
+    ResponseEntity<Object> cancelOrder(User user, int orderId);
 
-    ResponseEntity<Object> getOrders(String authorizationHeader);
+    ResponseEntity<Object> getOrders(User user, Integer limit, String cursor);
+
+    ResponseEntity<Object> getOrder(User user, int orderId);
 }
@@ -1,6 +1,8 @@
 package com.assignment.services;
 
 import com.assignment.DTO.ProductDTO;
+import com.assignment.DTO.ProductQueryDTO;
+import com.assignment.DTO.ProductSearchDTO;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 
@@ -11,5 +13,11 @@ public interface ProductService {
 
     ResponseEntity<Object> deleteProduct(int id);
 
-    ResponseEntity<Object> findAllProduct();
+    ResponseEntity<Object> findAllProduct(String ifNoneMatch);
+
+    ResponseEntity<Object> findProducts(ProductQueryDTO productQueryDTO);
+
+    ResponseEntity<Object> searchProducts(ProductSearchDTO productSearchDTO);
+
+    ResponseEntity<Object> suggestProducts(String query, Integer limit);
 }
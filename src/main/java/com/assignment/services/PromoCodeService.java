@@ -1,6 +1,7 @@
 package com.assignment.services;
 
 import com.assignment.DTO.PromoCodeDTO;
+import com.assignment.entites.User;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -11,4 +12,6 @@ public interface PromoCodeService {
     void deactivateExpiredPromoCodes();
 
     ResponseEntity<Object> findAllPromoCode();
+
+    ResponseEntity<Object> quotePromoCodes(User user, String code);
 }
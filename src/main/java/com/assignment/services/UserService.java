@@ -4,18 +4,21 @@ import com.assignment.DTO.AddressRequestDTO;
 import com.assignment.DTO.LoginDTO;
 import com.assignment.DTO.UserDTO;
 import com.assignment.DTO.UserRegistrationDTO;
+import com.assignment.entites.User;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface UserService {
 
 
-    ResponseEntity<Object> register(UserRegistrationDTO userRegistrationDTO, BindingResult bindingResult);
+    CompletableFuture<ResponseEntity<Object>> register(UserRegistrationDTO userRegistrationDTO, BindingResult bindingResult);
 
-    ResponseEntity<Object> login(LoginDTO loginDTO, BindingResult bindingResult);
+    CompletableFuture<ResponseEntity<Object>> login(LoginDTO loginDTO, BindingResult bindingResult);
 
-    ResponseEntity<Object> getUserProfile(String authorizationHeader);
+    ResponseEntity<Object> getUserProfile(User user);
 
     ResponseEntity<Object> findAllUsers();
 
@@ -23,7 +26,7 @@ public interface UserService {
 
     ResponseEntity<Object> deleteUser(int id);
 
-    ResponseEntity<Object> updateAddress(String authorizationHeader, AddressRequestDTO addressRequestDTO, BindingResult bindingResult);
+    ResponseEntity<Object> updateAddress(User user, AddressRequestDTO addressRequestDTO, BindingResult bindingResult);
 
-    ResponseEntity<Object> updateUserProfile(String authorizationHeader, UserDTO userDTO);
+    ResponseEntity<Object> updateUserProfile(User user, UserDTO userDTO);
 }
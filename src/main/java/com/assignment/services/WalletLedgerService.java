@@ -0,0 +1,12 @@
+package com.assignment.services;
+
+import com.assignment.entites.Order;
+
+import java.math.BigDecimal;
+
+public interface WalletLedgerService {
+
+    void credit(int walletId, BigDecimal amount, String entryType, Order order);
+
+    void debit(int walletId, BigDecimal amount, String entryType, Order order);
+}
@@ -2,6 +2,8 @@ package com.assignment.services;
 
 import org.springframework.http.ResponseEntity;
 
+import java.math.BigDecimal;
+
 public interface WalletService {
-    ResponseEntity<Object> updateWallet(int id, double value);
+    ResponseEntity<Object> updateWallet(int id, BigDecimal value);
 }
@@ -0,0 +1,82 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.CartItemDTO;
+import com.assignment.DTO.CategoryDTO;
+import com.assignment.entites.Category;
+import com.assignment.entites.PromoCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CartSummaryTest {
+
+    // Shoes (1) > Running (4) > Trail (9), and Bags (2)
+    private CategoryTreeCache.Snapshot tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = mock(CategoryTreeCache.Snapshot.class);
+        when(tree.find(1)).thenReturn(category(1, "/1/", 0));
+        when(tree.find(4)).thenReturn(category(4, "/1/4/", 1));
+        when(tree.find(9)).thenReturn(category(9, "/1/4/9/", 2));
+        when(tree.find(2)).thenReturn(category(2, "/2/", 0));
+    }
+
+    private static CategoryDTO category(int id, String path, int depth) {
+        CategoryDTO category = new CategoryDTO();
+        category.setId(id);
+        category.setPath(path);
+        category.setDepth(depth);
+        return category;
+    }
+
+    private static CartItemDTO item(int productId, double price, int quantity, int categoryId) {
+        return new CartItemDTO(productId, "Product " + productId, price, quantity, null, categoryId);
+    }
+
+    @Test
+    void categoryTotalsCoverSubcategories() {
+        CartSummary cart = CartSummary.of(List.of(
+                item(1, 50.0, 1, 1),
+                item(2, 30.0, 2, 4),
+                item(3, 20.0, 1, 9),
+                item(4, 15.0, 1, 2)), tree);
+
+        assertEquals(145.0, cart.getSubtotal());
+        assertEquals(130.0, cart.categoryTotal(1));
+        assertEquals(80.0, cart.categoryTotal(4));
+        assertEquals(20.0, cart.categoryTotal(9));
+        assertEquals(15.0, cart.categoryTotal(2));
+    }
+
+    @Test
+    void categoryMissingFromTreeCountsOnlyForItself() {
+        CartSummary cart = CartSummary.of(List.of(item(1, 10.0, 3, 7)), tree);
+
+        assertEquals(30.0, cart.categoryTotal(7));
+        assertEquals(0.0, cart.categoryTotal(1));
+    }
+
+    @Test
+    void categoryPromoDiscountsSubcategoryItems() {
+        Category shoes = new Category();
+        shoes.setId(1);
+        PromoCode promoCode = new PromoCode();
+        promoCode.setId(1);
+        promoCode.setCode("SHOES10");
+        promoCode.setPromoType(PromoCode.CATEGORY);
+        promoCode.setDiscountPercentage(10.0);
+        promoCode.setCategory(shoes);
+        promoCode.setActive(true);
+        PromoRule rule = PromoRule.compile(promoCode);
+
+        CartSummary cart = CartSummary.of(List.of(item(1, 40.0, 1, 9), item(2, 100.0, 1, 2)), tree);
+
+        assertEquals(4.0, rule.discount(cart), 1e-9);
+    }
+}
@@ -0,0 +1,241 @@
+package com.assignment.implmentation;
+
+import com.assignment.entites.IdempotencyRecord;
+import com.assignment.exception.ConflictException;
+import com.assignment.exception.InvalidDataException;
+import com.assignment.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceImpTest {
+
+    private IdempotencyServiceImp service;
+
+    private IdempotencyRecordRepository repository;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    private final Supplier<ResponseEntity<Object>> created = () -> {
+        runs.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("orderId", 42));
+    };
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IdempotencyRecordRepository.class);
+        service = new IdempotencyServiceImp(1440, 2);
+        service.idempotencyRecordRepository = repository;
+        service.objectMapper = new ObjectMapper();
+        ReflectionTestUtils.setField(service, "pendingTimeoutSeconds", 60L);
+    }
+
+    @Test
+    void repeatedKeyReplaysFirstResponse() {
+        service.execute(1, "key", "POST /orders", created);
+        ResponseEntity<Object> replayed = service.execute(1, "key", "POST /orders", created);
+
+        assertEquals(1, runs.get());
+        assertEquals(HttpStatus.CREATED, replayed.getStatusCode());
+        assertEquals(Map.of("orderId", 42), replayed.getBody());
+        assertEquals("true", replayed.getHeaders().getFirst("Idempotent-Replayed"));
+    }
+
+    @Test
+    void keysAreScopedPerUser() {
+        service.execute(1, "key", "POST /orders", created);
+        ResponseEntity<Object> other = service.execute(2, "key", "POST /orders", created);
+
+        assertEquals(2, runs.get());
+        assertNull(other.getHeaders().getFirst("Idempotent-Replayed"));
+    }
+
+    @Test
+    void missingKeyAlwaysRuns() {
+        service.execute(1, null, "POST /orders", created);
+        service.execute(1, " ", "POST /orders", created);
+
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() {
+        service.execute(1, "key", "POST /orders", created);
+
+        assertThrows(InvalidDataException.class, () -> service.execute(1, "key", "POST /cart", created));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void repeatWhileFirstRequestRunsConflicts() {
+        ResponseEntity<Object> response = service.execute(1, "key", "POST /orders", () -> {
+            assertThrows(ConflictException.class, () -> service.execute(1, "key", "POST /orders", created));
+            return created.get();
+        });
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void failedRequestFreesKey() {
+        assertThrows(InvalidDataException.class, () -> service.execute(1, "key", "POST /orders", () -> {
+            throw new InvalidDataException("Cart is empty!");
+        }));
+        ResponseEntity<Object> badRequest = service.execute(1, "key", "POST /orders",
+                () -> ResponseEntity.badRequest().build());
+        ResponseEntity<Object> retried = service.execute(1, "key", "POST /orders", created);
+
+        assertEquals(HttpStatus.BAD_REQUEST, badRequest.getStatusCode());
+        assertEquals(HttpStatus.CREATED, retried.getStatusCode());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void keyIsClaimedAndCompletedInDatabase() {
+        enableDatabase();
+
+        service.execute(1, "key", "POST /orders", created);
+
+        verify(repository).insertPending(eq("1:key"), eq("POST /orders"), any());
+        verify(repository).complete(eq("1:key"), eq(201), eq("{\"orderId\":42}"), any());
+    }
+
+    @Test
+    void responseCompletedOnAnotherInstanceIsReplayed() {
+        enableDatabase();
+        claimedElsewhere(IdempotencyRecord.COMPLETED, "POST /orders", LocalDateTime.now().plusDays(1));
+
+        ResponseEntity<Object> replayed = service.execute(1, "key", "POST /orders", created);
+
+        assertEquals(0, runs.get());
+        assertEquals(HttpStatus.CREATED, replayed.getStatusCode());
+        assertEquals(Map.of("orderId", 42), replayed.getBody());
+        assertEquals("true", replayed.getHeaders().getFirst("Idempotent-Replayed"));
+    }
+
+    @Test
+    void databaseFingerprintMismatchIsRejected() {
+        enableDatabase();
+        claimedElsewhere(IdempotencyRecord.COMPLETED, "POST /cart", LocalDateTime.now().plusDays(1));
+
+        assertThrows(InvalidDataException.class, () -> service.execute(1, "key", "POST /orders", created));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void keyPendingOnAnotherInstanceConflictsWithoutHoldingItLocally() {
+        enableDatabase();
+        claimedElsewhere(IdempotencyRecord.PENDING, "POST /orders", LocalDateTime.now().plusSeconds(60));
+
+        assertThrows(ConflictException.class, () -> service.execute(1, "key", "POST /orders", created));
+
+        // The other instance gave up: the key can now be claimed here
+        reset(repository);
+        service.execute(1, "key", "POST /orders", created);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void expiredClaimIsTakenOver() {
+        enableDatabase();
+        claimedElsewhere(IdempotencyRecord.PENDING, "POST /orders", LocalDateTime.now().minusSeconds(1));
+        when(repository.deleteIfExpired(eq("1:key"), any())).thenReturn(1);
+
+        service.execute(1, "key", "POST /orders", created);
+
+        assertEquals(1, runs.get());
+        verify(repository, times(2)).insertPending(eq("1:key"), anyString(), any());
+    }
+
+    @Test
+    void failedRequestReleasesDatabaseClaim() {
+        enableDatabase();
+
+        assertThrows(InvalidDataException.class, () -> service.execute(1, "key", "POST /orders", () -> {
+            throw new InvalidDataException("Cart is empty!");
+        }));
+
+        verify(repository).deletePending("1:key");
+        verify(repository, never()).complete(anyString(), anyInt(), anyString(), any());
+    }
+
+    @Test
+    void failedClaimLookupFreesKeyLocally() {
+        enableDatabase();
+        when(repository.insertPending(anyString(), anyString(), any())).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, () -> service.execute(1, "key", "POST /orders", created));
+        verify(repository, never()).deletePending(anyString());
+
+        reset(repository);
+        service.execute(1, "key", "POST /orders", created);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void responseEvictedFromMemoryIsReplayedFromDatabase() {
+        enableDatabase();
+        service.execute(1, "key", "POST /orders", created);
+        service.execute(1, "other", "POST /orders", created);
+        service.execute(1, "third", "POST /orders", created);
+
+        // The first response is no longer in memory, but its row is completed
+        claimedElsewhere(IdempotencyRecord.COMPLETED, "POST /orders", LocalDateTime.now().plusDays(1));
+        ResponseEntity<Object> replayed = service.execute(1, "key", "POST /orders", created);
+
+        assertEquals(3, runs.get());
+        assertEquals("true", replayed.getHeaders().getFirst("Idempotent-Replayed"));
+    }
+
+    @Test
+    void replayedDatabaseResponseIsCachedInMemory() {
+        enableDatabase();
+        claimedElsewhere(IdempotencyRecord.COMPLETED, "POST /orders", LocalDateTime.now().plusDays(1));
+        service.execute(1, "key", "POST /orders", created);
+
+        reset(repository);
+        ResponseEntity<Object> replayed = service.execute(1, "key", "POST /orders", created);
+
+        assertEquals(0, runs.get());
+        assertEquals(Map.of("orderId", 42), replayed.getBody());
+        verifyNoInteractions(repository);
+    }
+
+    private void enableDatabase() {
+        ReflectionTestUtils.setField(service, "databaseEnabled", true);
+    }
+
+    // The first insert hits the row of another instance's claim
+    private void claimedElsewhere(String status, String fingerprint, LocalDateTime expiresAt) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setScopedKey("1:key");
+        record.setFingerprint(fingerprint);
+        record.setStatus(status);
+        record.setStatusCode(201);
+        record.setResponseBody("{\"orderId\":42}");
+        record.setExpiresAt(expiresAt);
+        when(repository.insertPending(eq("1:key"), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(1);
+        when(repository.findById("1:key")).thenReturn(Optional.of(record));
+    }
+}
@@ -0,0 +1,177 @@
+package com.assignment.implmentation;
+
+import com.assignment.entites.StockReservation;
+import com.assignment.exception.ResourceNotFoundException;
+import com.assignment.repository.ProductRepository;
+import com.assignment.repository.StockReservationRepository;
+import com.assignment.services.CartStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InventoryServiceImpTest {
+
+    private static final int USER_ID = 1;
+
+    private static final int PRODUCT_ID = 5;
+
+    private InventoryServiceImp service;
+
+    private ProductRepository productRepository;
+
+    private StockReservationRepository stockReservationRepository;
+
+    private CartStore cartStore;
+
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        stockReservationRepository = mock(StockReservationRepository.class);
+        cartStore = mock(CartStore.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        service = new InventoryServiceImp();
+        service.productRepository = productRepository;
+        service.stockReservationRepository = stockReservationRepository;
+        service.cartStore = cartStore;
+        service.transactionManager = transactionManager;
+        ReflectionTestUtils.setField(service, "sweepChunkSize", 2);
+    }
+
+    private StockReservation reservation(int quantity) {
+        StockReservation reservation = new StockReservation();
+        reservation.setUserId(USER_ID);
+        reservation.setProductId(PRODUCT_ID);
+        reservation.setQuantity(quantity);
+        reservation.setReservedUntil(LocalDateTime.now().plusMinutes(30));
+        return reservation;
+    }
+
+    @Test
+    void releaseReturnsWhatTheReservationHolds() {
+        StockReservation held = reservation(3);
+        when(stockReservationRepository.findForUpdate(eq(USER_ID), any())).thenReturn(List.of(held));
+
+        service.releaseStock(USER_ID, PRODUCT_ID, 3);
+
+        verify(productRepository).incrementStock(PRODUCT_ID, 3);
+        verify(stockReservationRepository).deleteAllInBatch(List.of(held));
+    }
+
+    @Test
+    void releaseAfterExpirySweepReturnsNothing() {
+        // The sweep already deleted the reservation and returned its stock
+        when(stockReservationRepository.findForUpdate(eq(USER_ID), any())).thenReturn(List.of());
+
+        service.releaseStock(USER_ID, PRODUCT_ID, 3);
+
+        verify(productRepository, never()).incrementStock(anyInt(), anyInt());
+    }
+
+    @Test
+    void releaseIsCappedAtTheReservedQuantity() {
+        StockReservation held = reservation(2);
+        when(stockReservationRepository.findForUpdate(eq(USER_ID), any())).thenReturn(List.of(held));
+
+        service.releaseStock(USER_ID, PRODUCT_ID, 5);
+
+        verify(productRepository).incrementStock(PRODUCT_ID, 2);
+    }
+
+    @Test
+    void partialReleaseKeepsTheRemainder() {
+        StockReservation held = reservation(5);
+        when(stockReservationRepository.findForUpdate(eq(USER_ID), any())).thenReturn(List.of(held));
+
+        service.releaseStock(USER_ID, PRODUCT_ID, 2);
+
+        verify(productRepository).incrementStock(PRODUCT_ID, 2);
+        assertEquals(3, held.getQuantity());
+        verify(stockReservationRepository).deleteAllInBatch(List.of());
+    }
+
+    @Test
+    void batchReleaseOnlyCountsHeldStock() {
+        when(stockReservationRepository.findForUpdate(eq(USER_ID), any())).thenReturn(List.of());
+        when(productRepository.findAllByIdForUpdate(any())).thenReturn(List.of());
+
+        service.adjustStock(USER_ID, Map.of(PRODUCT_ID, -4), LocalDateTime.now().plusMinutes(30));
+
+        // Nothing was held, so no stock change is left to apply
+        verify(productRepository, never()).findAllByIdForUpdate(any());
+    }
+
+    @Test
+    void reserveWritesTheReservationBeforeLockingTheProduct() {
+        when(stockReservationRepository.addQuantity(eq(USER_ID), eq(PRODUCT_ID), eq(2), any())).thenReturn(1);
+        when(productRepository.decrementStock(PRODUCT_ID, 2)).thenReturn(1);
+
+        service.reserveStock(USER_ID, PRODUCT_ID, 2);
+
+        InOrder order = inOrder(stockReservationRepository, productRepository);
+        order.verify(stockReservationRepository).addQuantity(eq(USER_ID), eq(PRODUCT_ID), eq(2), any());
+        order.verify(productRepository).decrementStock(PRODUCT_ID, 2);
+    }
+
+    @Test
+    void batchLocksReservationsBeforeProducts() {
+        StockReservation held = reservation(1);
+        when(stockReservationRepository.findForUpdate(eq(USER_ID), any())).thenReturn(List.of(held));
+        when(productRepository.findAllByIdForUpdate(any())).thenReturn(List.of());
+
+        // Neither product exists any more, so the batch is rejected once both kinds of row are locked
+        assertThrows(ResourceNotFoundException.class,
+                () -> service.adjustStock(USER_ID, Map.of(PRODUCT_ID, 2, 6, 1), LocalDateTime.now().plusMinutes(30)));
+
+        InOrder order = inOrder(stockReservationRepository, productRepository);
+        order.verify(stockReservationRepository).findForUpdate(USER_ID, Map.of(PRODUCT_ID, 2, 6, 1).keySet());
+        order.verify(productRepository).findAllByIdForUpdate(any());
+        verify(stockReservationRepository, never()).addQuantity(anyInt(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void sweepReleasesExpiredReservationsInChunks() {
+        StockReservation first = reservation(1);
+        StockReservation second = reservation(2);
+        StockReservation third = reservation(4);
+        when(stockReservationRepository.findExpiredForUpdate(any(), any(Pageable.class)))
+                .thenReturn(List.of(first, second), List.of(third));
+
+        service.releaseExpiredReservations();
+
+        // Each chunk is returned to stock and deleted in its own transaction
+        verify(transactionManager, times(2)).commit(any());
+        verify(productRepository).incrementStock(PRODUCT_ID, 3);
+        verify(productRepository).incrementStock(PRODUCT_ID, 4);
+        verify(stockReservationRepository).deleteAllInBatch(List.of(first, second));
+        verify(stockReservationRepository).deleteAllInBatch(List.of(third));
+        verify(cartStore).removeExpired(any());
+    }
+
+    @Test
+    void failedSweepChunkLeavesTheCarts() {
+        when(stockReservationRepository.findExpiredForUpdate(any(), any(Pageable.class)))
+                .thenThrow(new IllegalStateException("lock wait timeout"));
+
+        assertThrows(IllegalStateException.class, service::releaseExpiredReservations);
+
+        verify(cartStore, never()).removeExpired(any());
+    }
+}
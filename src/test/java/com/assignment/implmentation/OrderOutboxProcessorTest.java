@@ -0,0 +1,103 @@
+package com.assignment.implmentation;
+
+import com.assignment.entites.Order;
+import com.assignment.entites.OrderAudit;
+import com.assignment.entites.OrderOutboxEvent;
+import com.assignment.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class OrderOutboxProcessorTest {
+
+    private static final long EVENT_ID = 11L;
+
+    private static final int ORDER_ID = 4;
+
+    private OrderOutboxProcessor processor;
+
+    private OrderRepository orderRepository;
+
+    private PaymentRepository paymentRepository;
+
+    private TransactionRepository transactionRepository;
+
+    private OrderAuditRepository orderAuditRepository;
+
+    private final Order order = new Order();
+
+    @BeforeEach
+    void setUp() {
+        OrderOutboxRepository orderOutboxRepository = mock(OrderOutboxRepository.class);
+        OrderOutboxEvent event = new OrderOutboxEvent();
+        event.setOrderId(ORDER_ID);
+        event.setEventType(OrderOutboxEvent.ORDER_PLACED);
+        when(orderOutboxRepository.findDueIds(any(), any())).thenReturn(List.of(EVENT_ID));
+        when(orderOutboxRepository.claim(eq(EVENT_ID), any())).thenReturn(1);
+        when(orderOutboxRepository.findById(anyLong())).thenReturn(Optional.of(event));
+
+        order.setId(ORDER_ID);
+        order.setTotalAmount(30.0);
+        order.setOrderDate(LocalDate.now());
+        orderRepository = mock(OrderRepository.class);
+        when(orderRepository.findByIdForUpdate(ORDER_ID)).thenReturn(Optional.of(order));
+
+        paymentRepository = mock(PaymentRepository.class);
+        transactionRepository = mock(TransactionRepository.class);
+        orderAuditRepository = mock(OrderAuditRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        processor = new OrderOutboxProcessor(1);
+        processor.orderOutboxRepository = orderOutboxRepository;
+        processor.orderRepository = orderRepository;
+        processor.paymentRepository = paymentRepository;
+        processor.transactionRepository = transactionRepository;
+        processor.orderAuditRepository = orderAuditRepository;
+        processor.transactionManager = transactionManager;
+        processor.orderDetailCache = mock(OrderDetailCache.class);
+        ReflectionTestUtils.setField(processor, "batchSize", 10);
+    }
+
+    // Handles the due event on a worker and waits for it
+    private void processDueEvents() throws InterruptedException {
+        processor.poll();
+        processor.shutdown();
+    }
+
+    @Test
+    void placedOrderGetsItsPayment() throws InterruptedException {
+        order.setStatus("PLACED");
+
+        processDueEvents();
+
+        verify(paymentRepository).save(any());
+        verify(transactionRepository).save(any());
+        assertNotNull(order.getPayment());
+    }
+
+    @Test
+    void orderCancelledBeforeProcessingGetsNoPayment() throws InterruptedException {
+        order.setStatus("CANCELLED");
+
+        processDueEvents();
+
+        verify(paymentRepository, never()).save(any());
+        verify(transactionRepository, never()).save(any());
+        assertNull(order.getPayment());
+        // The placement itself still happened and is audited
+        verify(orderAuditRepository).save(any(OrderAudit.class));
+    }
+}
@@ -0,0 +1,173 @@
+package com.assignment.implmentation;
+
+import com.assignment.entites.Category;
+import com.assignment.entites.Product;
+import com.assignment.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Updates run outside a transaction here, so they are applied right away.
+ */
+class ProductSearchIndexTest {
+
+    private final Category shoes = category(1, "Shoes");
+
+    private final Category bags = category(2, "Bags");
+
+    private ProductSearchIndex index;
+
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        index = new ProductSearchIndex(64, 100);
+        index.productRepository = productRepository;
+        index.categoryTreeCache = mock(CategoryTreeCache.class);
+        // No tree: a category filter then matches that category only
+        when(index.categoryTreeCache.get()).thenReturn(mock(CategoryTreeCache.Snapshot.class));
+    }
+
+    @Test
+    void productsMustContainEveryWord() {
+        load(product(1, "Trail Runner Pro", shoes, 120.0),
+                product(2, "Road Runner", shoes, 80.0),
+                product(3, "Trail Pack", bags, 60.0));
+
+        assertEquals(List.of(1), ids(search("trail runner ")));
+        assertEquals(List.of(2, 1), ids(search("runner ")));
+        assertEquals(List.of(), ids(search("road pack ")));
+        assertNull(index.search("  !! ", null, null, null, 10, null));
+    }
+
+    @Test
+    void categoryNamesAreSearchedBelowProductNames() {
+        load(product(1, "Bags Organizer", shoes, 20.0),
+                product(2, "Trail Pack", bags, 60.0));
+
+        assertEquals(List.of(1, 2), ids(search("bags ")));
+    }
+
+    @Test
+    void lastWordIsMatchedAsPrefixUnlessFinished() {
+        load(product(1, "Trail Runner Pro", shoes, 120.0),
+                product(2, "Road Runner", shoes, 80.0),
+                product(3, "Running Socks", shoes, 10.0));
+
+        assertEquals(List.of(1, 2, 3), sortedIds(search("run")));
+        assertEquals(List.of(1), ids(search("trail ru")));
+        assertEquals(List.of(), ids(search("run ")));
+    }
+
+    @Test
+    void filtersAndFacetsCoverAllMatches() {
+        load(product(1, "Trail Runner Pro", shoes, 120.0),
+                product(2, "Road Runner", shoes, 80.0),
+                product(3, "Runner Pack", bags, 60.0));
+
+        ProductSearchIndex.Result result = index.search("runner", null, 70.0, null, 10, null);
+        assertEquals(List.of(2, 1), ids(result));
+        assertEquals(1, result.categoryFacets().size());
+        assertEquals(2, result.priceFacets().size());
+
+        assertEquals(List.of(3), ids(index.search("runner", 2, null, null, 10, null)));
+    }
+
+    @Test
+    void pagesContinueAfterTheLastHit() {
+        List<Product> products = new ArrayList<>();
+        for (int id = 1; id <= 5; id++) {
+            products.add(product(id, "Desk Lamp " + id, shoes, 30.0));
+        }
+        load(products.toArray(Product[]::new));
+
+        List<Integer> seen = new ArrayList<>();
+        ProductSearchIndex.Hit after = null;
+        ProductSearchIndex.Result page;
+        do {
+            page = index.search("lamp", null, null, null, 2, after);
+            assertEquals(5, page.total());
+            assertTrue(page.hits().size() <= 2);
+            seen.addAll(ids(page));
+            after = page.hits().get(page.hits().size() - 1);
+        } while (page.hasNext());
+
+        assertEquals(List.of(1, 2, 3, 4, 5), seen);
+    }
+
+    @Test
+    void renamedCategoryIsSearchedUnderItsNewName() {
+        load(product(1, "Trail Runner Pro", shoes, 120.0),
+                product(2, "Road Runner", shoes, 80.0),
+                product(3, "Trail Pack", bags, 60.0));
+
+        index.renameCategory(1, "Sneakers");
+
+        assertEquals(List.of(1, 2), sortedIds(search("sneakers ")));
+        assertEquals(List.of(), ids(search("shoes ")));
+        assertEquals(List.of(1, 3), sortedIds(search("trail ")));
+        assertEquals("Sneakers", search("road ").hits().get(0).product().getCategoryName());
+    }
+
+    @Test
+    void updatesReindexOnlyListedProducts() {
+        Product product = product(1, "Trail Runner Pro", shoes, 120.0);
+        load(product);
+
+        product.setName("Trail Walker");
+        index.update(product);
+        assertEquals(List.of(), ids(search("runner ")));
+        assertEquals(List.of(1), ids(search("walker ")));
+
+        product.setActive(false);
+        index.update(product);
+        assertEquals(List.of(), ids(search("trail ")));
+        assertEquals(0, search("trail").total());
+    }
+
+    private void load(Product... products) {
+        when(productRepository.findListedAfter(eq(0), any())).thenReturn(List.of(products));
+        index.load();
+    }
+
+    private ProductSearchIndex.Result search(String query) {
+        return index.search(query, null, null, null, 10, null);
+    }
+
+    private static List<Integer> ids(ProductSearchIndex.Result result) {
+        return result.hits().stream().map(hit -> hit.product().getId()).toList();
+    }
+
+    private static List<Integer> sortedIds(ProductSearchIndex.Result result) {
+        return ids(result).stream().sorted().toList();
+    }
+
+    private static Product product(int id, String name, Category category, double price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        product.setPrice(price);
+        product.setActive(true);
+        return product;
+    }
+
+    private static Category category(int id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+}
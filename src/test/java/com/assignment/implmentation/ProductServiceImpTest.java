@@ -0,0 +1,72 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.ProductQueryDTO;
+import com.assignment.entites.Category;
+import com.assignment.entites.Product;
+import com.assignment.exception.InvalidDataException;
+import com.assignment.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductServiceImpTest {
+
+    private ProductServiceImp service;
+
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        Category category = new Category();
+        category.setId(1);
+        Product product = new Product();
+        product.setId(9);
+        product.setPrice(25.0);
+        product.setCategory(category);
+        // Always one full page, so every response carries a next cursor
+        when(productRepository.findBy(any(Specification.class), any())).thenReturn(
+                Window.from(List.of(product), index -> ScrollPosition.forward(Map.of("price", 25.0, "id", 9)), true));
+
+        service = new ProductServiceImp();
+        service.productRepository = productRepository;
+        service.objectMapper = new ObjectMapper();
+    }
+
+    private String nextCursor(String sort, String cursor) {
+        ProductQueryDTO query = new ProductQueryDTO();
+        query.setSort(sort);
+        query.setCursor(cursor);
+        Map<?, ?> body = (Map<?, ?>) service.findProducts(query).getBody();
+        return (String) body.get("nextCursor");
+    }
+
+    @Test
+    void cursorContinuesTheSortItWasIssuedFor() {
+        String cursor = nextCursor("price_asc", null);
+
+        assertNotNull(nextCursor("price_asc", cursor));
+    }
+
+    @Test
+    void cursorOfAnotherSortIsRejected() {
+        String cursor = nextCursor("price_asc", null);
+        clearInvocations(productRepository);
+
+        // Same keys, opposite direction
+        assertThrows(InvalidDataException.class, () -> nextCursor("price_desc", cursor));
+        verifyNoInteractions(productRepository);
+    }
+}
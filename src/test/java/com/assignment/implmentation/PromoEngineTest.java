@@ -0,0 +1,69 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.CartItemDTO;
+import com.assignment.DTO.PromoQuoteDTO;
+import com.assignment.entites.PromoCode;
+import com.assignment.repository.PromoCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class PromoEngineTest {
+
+    private PromoEngine promoEngine;
+
+    private PromoCodeRepository promoCodeRepository;
+
+    private final CartSummary cart = CartSummary.of(
+            List.of(new CartItemDTO(1, "Product 1", 100.0, 1, null, 1)), null);
+
+    @BeforeEach
+    void setUp() {
+        promoCodeRepository = mock(PromoCodeRepository.class);
+        when(promoCodeRepository.findAllWithProduct()).thenReturn(List.of(
+                promoCode(1, "EXPIRED", LocalDate.now().minusDays(1)),
+                promoCode(2, "LIVE", LocalDate.now().plusDays(1))));
+        promoEngine = new PromoEngine();
+        promoEngine.promoCodeRepository = promoCodeRepository;
+    }
+
+    private static PromoCode promoCode(int id, String code, LocalDate expiryDate) {
+        PromoCode promoCode = new PromoCode();
+        promoCode.setId(id);
+        promoCode.setCode(code);
+        promoCode.setPromoType(PromoCode.PERCENTAGE);
+        promoCode.setDiscountPercentage(10.0);
+        promoCode.setMinOrderAmount(1.0);
+        promoCode.setExpiryDate(expiryDate);
+        promoCode.setActive(true);
+        return promoCode;
+    }
+
+    @Test
+    void expiredCodeIsRejectedWithoutTouchingTheDatabase() {
+        PromoQuoteDTO quote = promoEngine.quote("expired", cart);
+
+        assertFalse(quote.isApplicable());
+        assertEquals("Promo code has expired!", quote.getMessage());
+        verify(promoCodeRepository).findAllWithProduct();
+        verifyNoMoreInteractions(promoCodeRepository);
+    }
+
+    @Test
+    void expiredCodeDropsOutOfQuotesOnceLookedUp() {
+        promoEngine.find("EXPIRED");
+
+        List<PromoQuoteDTO> quotes = promoEngine.quoteAll(cart);
+
+        assertEquals(1, quotes.size());
+        assertEquals("LIVE", quotes.get(0).getCode());
+        assertTrue(quotes.get(0).isApplicable());
+    }
+}
@@ -0,0 +1,322 @@
+package com.assignment.implmentation;
+
+import com.assignment.entites.PromoCode;
+import com.assignment.exception.ConflictException;
+import com.assignment.exception.InvalidDataException;
+import com.assignment.repository.OrderRepository;
+import com.assignment.repository.PromoCodeRepository;
+import com.assignment.repository.PromoUserRedemptionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives the limiter through simulated checkout and cancel transactions
+ * against mocked repositories; the promocodes row is modelled by
+ * {@link #remaining}.
+ */
+class PromoRedemptionLimiterTest {
+
+    private static final int PROMO_ID = 7;
+
+    private PromoRedemptionLimiter limiter;
+
+    private PromoCodeRepository promoCodeRepository;
+
+    private PromoUserRedemptionRepository promoUserRedemptionRepository;
+
+    private OrderRepository orderRepository;
+
+    // Redemptions still available on the promocodes row; guarded by the test instance
+    private int remaining;
+
+    @BeforeEach
+    void setUp() {
+        promoCodeRepository = mock(PromoCodeRepository.class);
+        promoUserRedemptionRepository = mock(PromoUserRedemptionRepository.class);
+        orderRepository = mock(OrderRepository.class);
+        // The lease is an UPDATE in the checkout's transaction: it must have one, and a rollback undoes it
+        when(promoCodeRepository.reserveRedemptions(eq(PROMO_ID), anyInt(), anyInt())).thenAnswer(invocation -> {
+            assertTrue(TransactionSynchronizationManager.isSynchronizationActive());
+            int count = invocation.getArgument(1);
+            int share = invocation.getArgument(2);
+            synchronized (this) {
+                if (count > remaining || (count > 1 && count * share > remaining)) {
+                    return 0;
+                }
+                remaining -= count;
+            }
+            TransactionHooks.afterRollback(() -> {
+                synchronized (this) {
+                    remaining += count;
+                }
+            });
+            return 1;
+        });
+
+        limiter = new PromoRedemptionLimiter();
+        limiter.promoCodeRepository = promoCodeRepository;
+        limiter.promoUserRedemptionRepository = promoUserRedemptionRepository;
+        limiter.orderRepository = orderRepository;
+        ReflectionTestUtils.setField(limiter, "leaseSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void leasesNeverExceedTheGlobalCap() {
+        remaining = 3;
+        PromoRule rule = rule(3, 0);
+
+        for (int i = 0; i < 3; i++) {
+            begin();
+            limiter.redeem(rule, i);
+            commit();
+        }
+
+        begin();
+        assertThrows(InvalidDataException.class, () -> limiter.redeem(rule, 3));
+        // Near the cap the block shrank to what was left, so every redemption was used
+        assertEquals(0, remaining);
+        verify(promoCodeRepository, never()).returnRedemptions(anyInt(), anyInt());
+    }
+
+    @Test
+    void leaseLeavesMostRedemptionsForOtherInstances() {
+        ReflectionTestUtils.setField(limiter, "leaseSize", 20);
+        remaining = 20;
+
+        begin();
+        limiter.redeem(rule(20, 0), 1);
+        commit();
+
+        // The first block was capped at a quarter of the code, not the whole lease size
+        assertEquals(15, remaining);
+    }
+
+    @Test
+    void idleLeaseIsReturnedOnFlush() {
+        remaining = 10;
+        PromoRule rule = rule(10, 0);
+
+        begin();
+        limiter.redeem(rule, 1);
+        commit();
+
+        // Drawn from since the last flush, so the lease is kept
+        limiter.flush();
+        verify(promoCodeRepository, never()).returnRedemptions(anyInt(), anyInt());
+
+        limiter.flush();
+        verify(promoCodeRepository).returnRedemptions(PROMO_ID, 1);
+    }
+
+    @Test
+    void leaseRunsInTheCheckoutTransaction() throws NoSuchMethodException {
+        Transactional transactional = PromoCodeRepository.class
+                .getMethod("reserveRedemptions", int.class, int.class, int.class)
+                .getAnnotation(Transactional.class);
+
+        // A REQUIRES_NEW lease would need a second connection while the checkout holds its own
+        assertTrue(transactional == null || transactional.propagation() != Propagation.REQUIRES_NEW);
+    }
+
+    @Test
+    void moreConcurrentCheckoutsThanConnectionsAllComplete() throws Exception {
+        int connections = 10;
+        int checkouts = 50;
+        remaining = 30;
+        ReflectionTestUtils.setField(limiter, "leaseSize", 4);
+        PromoRule rule = rule(30, 0);
+
+        // Each checkout holds one pooled connection for its whole transaction, like placeOrder
+        Semaphore pool = new Semaphore(connections);
+        AtomicInteger redeemed = new AtomicInteger();
+        AtomicInteger limitReached = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(checkouts);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < checkouts; i++) {
+            int userId = i;
+            results.add(executor.submit(() -> {
+                start.await();
+                assertTrue(pool.tryAcquire(5, TimeUnit.SECONDS), "connection pool exhausted");
+                try {
+                    begin();
+                    try {
+                        limiter.redeem(rule, userId);
+                        commit();
+                        redeemed.incrementAndGet();
+                    } catch (InvalidDataException e) {
+                        rollback();
+                        limitReached.incrementAndGet();
+                    }
+                } finally {
+                    pool.release();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Leased blocks may still sit in the counters, but the cap is never exceeded
+        assertEquals(checkouts, redeemed.get() + limitReached.get());
+        assertTrue(redeemed.get() <= 30);
+        when(promoCodeRepository.returnRedemptions(eq(PROMO_ID), anyInt())).thenAnswer(invocation -> {
+            remaining += (int) invocation.getArgument(1);
+            return 1;
+        });
+        limiter.shutdown();
+        assertEquals(30 - redeemed.get(), remaining);
+    }
+
+    @Test
+    void rolledBackCheckoutGivesItsRedemptionBack() {
+        remaining = 1;
+        PromoRule rule = rule(1, 0);
+
+        begin();
+        limiter.redeem(rule, 1);
+        rollback();
+
+        begin();
+        limiter.redeem(rule, 2);
+        commit();
+
+        begin();
+        assertThrows(InvalidDataException.class, () -> limiter.redeem(rule, 3));
+
+        limiter.flush();
+        verify(promoCodeRepository).addRedemptions(PROMO_ID, 1);
+    }
+
+    @Test
+    void cancelReturnsRedemptionToLeasePool() {
+        remaining = 1;
+        PromoRule rule = rule(1, 0);
+
+        begin();
+        limiter.redeem(rule, 1);
+        commit();
+
+        begin();
+        limiter.release(PROMO_ID, 1);
+        commit();
+
+        begin();
+        limiter.redeem(rule, 2);
+        commit();
+
+        verify(promoUserRedemptionRepository).decrement(PROMO_ID, 1);
+        verify(promoCodeRepository, never()).returnRedemptions(anyInt(), anyInt());
+    }
+
+    @Test
+    void cancelWithoutLeasePoolReturnsRedemptionToDatabase() {
+        begin();
+        limiter.release(PROMO_ID, 1);
+        commit();
+
+        verify(promoCodeRepository).returnRedemptions(PROMO_ID, 1);
+    }
+
+    @Test
+    void rolledBackCancelKeepsRedemption() {
+        begin();
+        limiter.release(PROMO_ID, 1);
+        rollback();
+
+        verify(promoCodeRepository, never()).returnRedemptions(anyInt(), anyInt());
+    }
+
+    @Test
+    void firstRedemptionByUserStartsCounterFromPastOrders() {
+        when(orderRepository.countRedemptions(PROMO_ID, 1)).thenReturn(1L);
+
+        begin();
+        limiter.redeem(rule(0, 2), 1);
+        commit();
+
+        verify(promoUserRedemptionRepository).insert(PROMO_ID, 1, 2);
+    }
+
+    @Test
+    void perUserLimitIsEnforcedByCounterRow() {
+        when(promoUserRedemptionRepository.existsById(any())).thenReturn(true);
+
+        begin();
+        assertThrows(InvalidDataException.class, () -> limiter.redeem(rule(0, 1), 1));
+        verify(orderRepository, never()).countRedemptions(anyInt(), anyInt());
+    }
+
+    @Test
+    void parallelFirstRedemptionByUserConflicts() {
+        when(promoUserRedemptionRepository.insert(PROMO_ID, 1, 1))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        begin();
+        assertThrows(ConflictException.class, () -> limiter.redeem(rule(0, 1), 1));
+    }
+
+    private static PromoRule rule(int maxRedemptions, int maxRedemptionsPerUser) {
+        PromoCode promoCode = new PromoCode();
+        promoCode.setId(PROMO_ID);
+        promoCode.setCode("SAVE10");
+        promoCode.setPromoType(PromoCode.PERCENTAGE);
+        promoCode.setDiscountPercentage(10.0);
+        promoCode.setActive(true);
+        promoCode.setMaxRedemptions(maxRedemptions);
+        promoCode.setMaxRedemptionsPerUser(maxRedemptionsPerUser);
+        return PromoRule.compile(promoCode);
+    }
+
+    private static void begin() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = end();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private static void rollback() {
+        end().forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+    private static List<TransactionSynchronization> end() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        return synchronizations;
+    }
+}
@@ -0,0 +1,59 @@
+package com.assignment.implmentation;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SequenceInitializerTest {
+
+    private SequenceInitializer initializer;
+
+    private EntityManager entityManager;
+
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        Query query = mock(Query.class);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        initializer = new SequenceInitializer();
+        initializer.entityManager = entityManager;
+        initializer.transactionManager = transactionManager;
+    }
+
+    @Test
+    void everySequenceIsRaisedPastItsTable() {
+        initializer.initialize();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager, times(SequenceInitializer.SEQUENCES.size())).createNativeQuery(sql.capture());
+        List<String> statements = sql.getAllValues();
+        SequenceInitializer.SEQUENCES.forEach((sequence, table) -> assertTrue(statements.contains(
+                "update " + sequence + " set next_val = (select coalesce(max(id), 0) + 51 from " + table + ")"
+                        + " where next_val <= (select coalesce(max(id), 0) + 50 from " + table + ")")));
+        // Each sequence is moved in its own short transaction
+        verify(transactionManager, times(SequenceInitializer.SEQUENCES.size())).commit(any());
+    }
+
+    @Test
+    void coversTheSequenceIdTables() {
+        assertEquals(List.of("order_audit_seq", "order_items_seq", "orders_seq", "payments_seq", "transactions_seq"),
+                SequenceInitializer.SEQUENCES.keySet().stream().sorted().toList());
+    }
+}
@@ -0,0 +1,140 @@
+package com.assignment.implmentation;
+
+import com.assignment.DTO.SuggestionDTO;
+import com.assignment.entites.Product;
+import com.assignment.repository.CategoryRepository;
+import com.assignment.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Updates run outside a transaction here, so they are applied right away.
+ */
+class SuggestionTrieTest {
+
+    private SuggestionTrie trie;
+
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        trie = new SuggestionTrie(10, 100);
+        trie.productRepository = productRepository;
+        trie.categoryRepository = mock(CategoryRepository.class);
+        trie.load();
+    }
+
+    @Test
+    void suggestsEveryWordStartWithNameStartsFirst() {
+        trie.update(product(1, "Trail Runner Pro"));
+        trie.update(product(2, "Runner 2"));
+
+        assertEquals(List.of("Runner 2", "Trail Runner Pro"), texts("ru"));
+        assertEquals(List.of("Trail Runner Pro"), texts("tr"));
+        assertEquals(List.of(), texts("pa"));
+    }
+
+    @Test
+    void finishedWordOnlyMatchesWholeWords() {
+        trie.update(product(1, "Run Club Tee"));
+        trie.update(product(2, "Runner 2"));
+
+        assertEquals(List.of("Run Club Tee"), texts("run "));
+        // Shorter names first
+        assertEquals(List.of("Runner 2", "Run Club Tee"), texts("run"));
+    }
+
+    @Test
+    void unlistedProductIsRemoved() {
+        Product product = product(1, "Trail Runner Pro");
+        trie.update(product);
+
+        product.setActive(false);
+        trie.update(product);
+        assertEquals(List.of(), texts("trail"));
+
+        product.setActive(true);
+        trie.update(product);
+        product.setDeleted(true);
+        trie.update(product);
+        assertEquals(List.of(), texts("runner"));
+    }
+
+    @Test
+    void renameReplacesEveryKeyOfTheOldName() {
+        Product product = product(1, "Trail Runner Pro");
+        trie.update(product);
+
+        product.setName("Quokka Pack");
+        trie.update(product);
+
+        assertEquals(List.of(), texts("trail"));
+        assertEquals(List.of(), texts("runner"));
+        assertEquals(List.of("Quokka Pack"), texts("pa"));
+    }
+
+    @Test
+    void categoriesAreRankedBeforeProductsOfTheSameLength() {
+        trie.update(product(1, "Shoes"));
+        trie.updateCategory(5, "Shoes");
+        trie.updateCategory(6, "Shirts");
+
+        List<SuggestionDTO> suggestions = trie.suggest("sh", 10);
+        assertEquals(SuggestionDTO.CATEGORY, suggestions.get(0).getType());
+        assertEquals(SuggestionDTO.PRODUCT, suggestions.get(1).getType());
+
+        trie.updateCategory(6, "Blouses");
+        trie.updateCategory(5, null);
+        assertEquals(List.of("Shoes"), texts("sh"));
+        assertEquals(List.of("Blouses"), texts("bl"));
+    }
+
+    @Test
+    void queryLongerThanKeyCutIsMatchedAgainstFullNames() {
+        trie.update(product(1, "Professional Espresso Machine Deluxe"));
+        trie.update(product(2, "Professional Espresso Machine Compact"));
+        assertTrue("professional espresso machine".length() > SuggestionTrie.MAX_KEY_LENGTH);
+
+        assertEquals(List.of("Professional Espresso Machine Deluxe", "Professional Espresso Machine Compact"),
+                texts("professional espresso ma"));
+        assertEquals(List.of("Professional Espresso Machine Deluxe"), texts("Professional Espresso Machine D"));
+        assertEquals(List.of(), texts("professional espresso machine x"));
+        assertEquals(List.of("Professional Espresso Machine Compact"), texts("espresso machine compact"));
+    }
+
+    @Test
+    void loadMatchesIncrementalInserts() {
+        List<Product> products = List.of(product(1, "Trail Runner Pro"), product(2, "Runner 2"),
+                product(3, "Professional Espresso Machine Deluxe"));
+        when(productRepository.findListedAfter(eq(0), any())).thenReturn(products);
+        trie.load();
+
+        assertEquals(List.of("Runner 2", "Trail Runner Pro"), texts("ru"));
+        assertEquals(List.of("Professional Espresso Machine Deluxe"), texts("professional espresso machine"));
+
+        trie.update(product(2, "Road Bike"));
+        assertEquals(List.of("Trail Runner Pro"), texts("ru"));
+    }
+
+    private List<String> texts(String query) {
+        return trie.suggest(query, trie.getMaxResults()).stream().map(SuggestionDTO::getText).toList();
+    }
+
+    private static Product product(int id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setActive(true);
+        return product;
+    }
+}
@@ -0,0 +1,153 @@
+package com.assignment.implmentation;
+
+import com.assignment.entites.Order;
+import com.assignment.entites.Wallet;
+import com.assignment.entites.WalletLedgerEntry;
+import com.assignment.exception.InvalidDataException;
+import com.assignment.exception.ResourceNotFoundException;
+import com.assignment.repository.WalletLedgerRepository;
+import com.assignment.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WalletLedgerServiceImpTest {
+
+    private static final int WALLET_ID = 3;
+
+    private WalletLedgerServiceImp service;
+
+    private WalletRepository walletRepository;
+
+    private WalletLedgerRepository walletLedgerRepository;
+
+    private final Wallet wallet = new Wallet();
+
+    @BeforeEach
+    void setUp() {
+        walletRepository = mock(WalletRepository.class);
+        walletLedgerRepository = mock(WalletLedgerRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        wallet.setId(WALLET_ID);
+        when(walletRepository.getReferenceById(WALLET_ID)).thenReturn(wallet);
+
+        service = new WalletLedgerServiceImp();
+        service.walletRepository = walletRepository;
+        service.walletLedgerRepository = walletLedgerRepository;
+        service.transactionManager = transactionManager;
+    }
+
+    private WalletLedgerEntry savedEntry() {
+        ArgumentCaptor<WalletLedgerEntry> entry = ArgumentCaptor.forClass(WalletLedgerEntry.class);
+        verify(walletLedgerRepository).save(entry.capture());
+        return entry.getValue();
+    }
+
+    @Test
+    void creditAppendsPositiveEntry() {
+        BigDecimal amount = new BigDecimal("25.50");
+        when(walletRepository.credit(WALLET_ID, amount)).thenReturn(1);
+        Order order = new Order();
+
+        service.credit(WALLET_ID, amount, WalletLedgerEntry.ORDER_REFUND, order);
+
+        WalletLedgerEntry entry = savedEntry();
+        assertEquals(amount, entry.getAmount());
+        assertEquals(WalletLedgerEntry.ORDER_REFUND, entry.getEntryType());
+        assertSame(wallet, entry.getWallet());
+        assertSame(order, entry.getOrder());
+    }
+
+    @Test
+    void creditToMissingWalletAppendsNothing() {
+        when(walletRepository.credit(any(Integer.class), any())).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> service.credit(WALLET_ID, BigDecimal.TEN, WalletLedgerEntry.TOP_UP, null));
+        verify(walletLedgerRepository, never()).save(any());
+    }
+
+    @Test
+    void debitAppendsNegativeEntry() {
+        BigDecimal amount = new BigDecimal("9.99");
+        when(walletRepository.debit(WALLET_ID, amount)).thenReturn(1);
+
+        service.debit(WALLET_ID, amount, WalletLedgerEntry.ORDER_PAYMENT, null);
+
+        WalletLedgerEntry entry = savedEntry();
+        assertEquals(new BigDecimal("-9.99"), entry.getAmount());
+        assertEquals(WalletLedgerEntry.ORDER_PAYMENT, entry.getEntryType());
+    }
+
+    @Test
+    void debitBeyondBalanceAppendsNothing() {
+        when(walletRepository.debit(any(Integer.class), any())).thenReturn(0);
+
+        assertThrows(InvalidDataException.class,
+                () -> service.debit(WALLET_ID, BigDecimal.TEN, WalletLedgerEntry.ORDER_PAYMENT, null));
+        verify(walletLedgerRepository, never()).save(any());
+    }
+
+    @Test
+    void amountsMustBePositiveCents() {
+        assertThrows(InvalidDataException.class,
+                () -> service.credit(WALLET_ID, BigDecimal.ZERO, WalletLedgerEntry.TOP_UP, null));
+        assertThrows(InvalidDataException.class,
+                () -> service.debit(WALLET_ID, new BigDecimal("-1"), WalletLedgerEntry.ORDER_PAYMENT, null));
+        assertThrows(InvalidDataException.class,
+                () -> service.credit(WALLET_ID, new BigDecimal("1.005"), WalletLedgerEntry.TOP_UP, null));
+        verifyNoInteractions(walletLedgerRepository);
+    }
+
+    @Test
+    void trailingZerosBeyondCentsAreAccepted() {
+        BigDecimal amount = new BigDecimal("5.000");
+        when(walletRepository.credit(WALLET_ID, amount)).thenReturn(1);
+
+        service.credit(WALLET_ID, amount, WalletLedgerEntry.TOP_UP, null);
+
+        assertEquals(0, savedEntry().getAmount().compareTo(new BigDecimal("5")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void initializeMigratesDoubleBalancesAndRecordsOpeningEntries() {
+        wallet.setBalance(new BigDecimal("40.25"));
+        when(walletRepository.findBalanceColumnType()).thenReturn(Optional.of("double"));
+        when(walletRepository.findUnledgeredForUpdate()).thenReturn(List.of(wallet));
+
+        service.initialize();
+
+        verify(walletRepository).convertBalanceToDecimal();
+        ArgumentCaptor<List<WalletLedgerEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(walletLedgerRepository).saveAll(entries.capture());
+        WalletLedgerEntry opening = entries.getValue().get(0);
+        assertEquals(new BigDecimal("40.25"), opening.getAmount());
+        assertEquals(WalletLedgerEntry.OPENING_BALANCE, opening.getEntryType());
+        assertSame(wallet, opening.getWallet());
+    }
+
+    @Test
+    void initializeIsANoOpOnceMigrated() {
+        when(walletRepository.findBalanceColumnType()).thenReturn(Optional.of("decimal"));
+        when(walletRepository.findUnledgeredForUpdate()).thenReturn(List.of());
+
+        service.initialize();
+
+        verify(walletRepository, never()).convertBalanceToDecimal();
+        verify(walletLedgerRepository, never()).saveAll(any());
+    }
+}